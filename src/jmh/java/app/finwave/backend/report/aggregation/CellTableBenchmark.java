@@ -0,0 +1,89 @@
+package app.finwave.backend.report.aggregation;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Compares the Pair/BigDecimal cells report builders used before with CellTable
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class CellTableBenchmark {
+    @Param({"100000", "1000000"})
+    public int cells;
+
+    @Param({"50"})
+    public int categories;
+
+    protected long[] categoryIds;
+    protected int[] days;
+    protected BigDecimal[] deltas;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        int firstDay = (int) LocalDate.of(2020, 1, 1).toEpochDay();
+
+        categoryIds = new long[cells];
+        days = new int[cells];
+        deltas = new BigDecimal[cells];
+
+        for (int i = 0; i < cells; i++) {
+            categoryIds[i] = 1 + random.nextInt(categories);
+            days[i] = firstDay + random.nextInt(5 * 365);
+            deltas[i] = BigDecimal.valueOf(random.nextInt(2_000_000) - 1_000_000, 2);
+        }
+    }
+
+    @Benchmark
+    public void pairCells(Blackhole blackhole) {
+        HashMap<Pair<Long, LocalDate>, BigDecimal> table = new HashMap<>();
+
+        for (int i = 0; i < cells; i++) {
+            var pair = Pair.of(categoryIds[i], LocalDate.ofEpochDay(days[i]));
+
+            table.put(pair, table.getOrDefault(pair, BigDecimal.ZERO).add(deltas[i]));
+        }
+
+        List<Long> categoriesList = table.keySet()
+                .stream()
+                .map(Pair::getKey)
+                .collect(Collectors.toSet())
+                .stream().toList();
+
+        List<LocalDate> dates = table.keySet()
+                .stream()
+                .map(Pair::getValue)
+                .collect(Collectors.toSet())
+                .stream()
+                .sorted()
+                .toList();
+
+        blackhole.consume(categoriesList);
+        blackhole.consume(dates);
+        blackhole.consume(table);
+    }
+
+    @Benchmark
+    public void cellTable(Blackhole blackhole) {
+        CellTable table = new CellTable(2);
+
+        for (int i = 0; i < cells; i++)
+            table.add(categoryIds[i], days[i], deltas[i]);
+
+        blackhole.consume(table.categories());
+        blackhole.consume(table.days());
+        blackhole.consume(table);
+    }
+}
@@ -5,6 +5,7 @@ import app.finwave.backend.api.accumulation.AccumulationDatabase;
 import app.finwave.backend.api.event.WebSocketWorker;
 import app.finwave.backend.api.event.messages.response.NotifyUpdate;
 import app.finwave.backend.api.recurring.RecurringTransactionDatabase;
+import app.finwave.backend.api.report.ReportDataVersions;
 import app.finwave.backend.api.transaction.filter.TransactionsFilter;
 import app.finwave.backend.api.transaction.manager.TransactionsManager;
 import com.google.inject.Inject;
@@ -43,8 +44,11 @@ public class AccountApi {
     protected RecurringTransactionDatabase recurringTransactionDatabase;
     protected AccumulationDatabase accumulationDatabase;
 
+    protected ReportDataVersions dataVersions;
+
     @Inject
-    public AccountApi(DatabaseWorker databaseWorker, Configs configs, WebSocketWorker socketWorker, TransactionsManager manager) {
+    public AccountApi(DatabaseWorker databaseWorker, Configs configs, WebSocketWorker socketWorker, TransactionsManager manager,
+                      ReportDataVersions dataVersions) {
         this.database = databaseWorker.get(AccountDatabase.class);
         this.folderDatabase = databaseWorker.get(AccountFolderDatabase.class);
         this.currencyDatabase = databaseWorker.get(CurrencyDatabase.class);
@@ -55,6 +59,7 @@ public class AccountApi {
         this.transactionsManager = manager;
         this.recurringTransactionDatabase = databaseWorker.get(RecurringTransactionDatabase.class);
         this.accumulationDatabase = databaseWorker.get(AccumulationDatabase.class);
+        this.dataVersions = dataVersions;
     }
 
     public Object newAccount(Request request, Response response) {
@@ -154,6 +159,7 @@ public class AccountApi {
                 .require();
 
         database.editAccountName(accountId, name);
+        dataVersions.bump(sessionsRecord.getUserId());
 
         socketWorker.sendToUser(sessionsRecord.getUserId(), new NotifyUpdate("accounts"));
 
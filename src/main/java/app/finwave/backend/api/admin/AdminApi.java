@@ -10,6 +10,9 @@ import app.finwave.backend.api.user.UserDatabase;
 import app.finwave.backend.database.DatabaseWorker;
 import app.finwave.backend.http.ApiMessage;
 import app.finwave.backend.jooq.tables.records.UsersRecord;
+import app.finwave.backend.report.ReportBuilder;
+import app.finwave.backend.report.ReportScheduler;
+import app.finwave.backend.utils.CacheRegistry;
 import app.finwave.backend.utils.params.ParamsValidator;
 
 import java.util.List;
@@ -22,12 +25,14 @@ public class AdminApi {
     protected AdminDatabase database;
     protected UserDatabase userDatabase;
     protected SessionManager sessionManager;
+    protected ReportBuilder reportBuilder;
 
     @Inject
-    public AdminApi(DatabaseWorker databaseWorker, SessionManager sessionManager) {
+    public AdminApi(DatabaseWorker databaseWorker, SessionManager sessionManager, ReportBuilder reportBuilder) {
         this.database = databaseWorker.get(AdminDatabase.class);
         this.userDatabase = databaseWorker.get(UserDatabase.class);
         this.sessionManager = sessionManager;
+        this.reportBuilder = reportBuilder;
     }
 
     public Object getUsers(Request request, Response response) {
@@ -104,6 +109,48 @@ public class AdminApi {
         return ApiMessage.of("Successful registration");
     }
 
+    public Object getCachesStats(Request request, Response response) {
+        response.status(200);
+
+        return new GetCachesStatsResponse(CacheRegistry.getStats());
+    }
+
+    public Object getCachesMetrics(Request request, Response response) {
+        response.status(200);
+        response.type("text/plain; version=0.0.4");
+
+        return CacheRegistry.exportMetrics();
+    }
+
+    public Object getReportsStats(Request request, Response response) {
+        response.status(200);
+
+        return new GetReportsStatsResponse(reportBuilder.getScheduler().getStats());
+    }
+
+    public Object getReportsMetrics(Request request, Response response) {
+        response.status(200);
+        response.type("text/plain; version=0.0.4");
+
+        return reportBuilder.getScheduler().exportMetrics();
+    }
+
+    static final class GetReportsStatsResponse extends ApiResponse {
+        public final ReportScheduler.Stats stats;
+
+        public GetReportsStatsResponse(ReportScheduler.Stats stats) {
+            this.stats = stats;
+        }
+    }
+
+    static final class GetCachesStatsResponse extends ApiResponse {
+        public final List<CacheRegistry.Entry> caches;
+
+        public GetCachesStatsResponse(List<CacheRegistry.Entry> caches) {
+            this.caches = caches;
+        }
+    }
+
     static final class GetCountResponse extends ApiResponse {
         public final int count;
 
@@ -10,6 +10,7 @@ import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import io.github.stefanbratanov.jvm.openai.ContentPart;
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.rendering.ImageType;
 import org.apache.pdfbox.rendering.PDFRenderer;
@@ -18,7 +19,7 @@ import org.apache.pdfbox.text.PDFTextStripper;
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.*;
-import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
@@ -71,6 +72,7 @@ public class AiFileWorker {
         return result;
     }
 
+    // Stored sizes, only meaningful for files stored as is, like uploaded images
     protected boolean sizeValid(List<FilesRecord> files) {
         long sizeSum = 0;
 
@@ -89,12 +91,21 @@ public class AiFileWorker {
         ArrayList<FilesRecord> texts = new ArrayList<>();
 
         for (FilesRecord record : files) {
-            Optional<File> optionalFile = filesManager.getFile(record);
+            Optional<InputStream> optionalStream;
 
-            if (optionalFile.isEmpty())
+            try {
+                optionalStream = filesManager.openDecodedStream(record);
+            } catch (IOException e) {
+                e.printStackTrace();
+
+                return false;
+            }
+
+            if (optionalStream.isEmpty())
                 return false;
 
-            try (PDDocument document = Loader.loadPDF(optionalFile.get())) {
+            try (InputStream pdfStream = optionalStream.get();
+                 PDDocument document = Loader.loadPDF(new RandomAccessReadBuffer(pdfStream))) {
                 PDFTextStripper pdfStripper = new PDFTextStripper();
                 PDFRenderer renderer = new PDFRenderer(document);
 
@@ -167,24 +178,38 @@ public class AiFileWorker {
         return result;
     }
 
+    // Stored sizes of compressed files say nothing about their text, so the limit is checked against decoded bytes
     protected boolean attachTexts(List<FilesRecord> files, long contextId) {
-        if (!sizeValid(files))
-            return false;
+        long available = config.maxFilesSizeSumPerAttachmentKiB * 1024L;
+        ArrayList<String> contents = new ArrayList<>();
 
         for (FilesRecord record : files) {
-            Optional<File> fileOptional = filesManager.getFile(record);
+            byte[] content;
 
-            if (fileOptional.isEmpty())
-                return false;
+            try {
+                Optional<InputStream> streamOptional = filesManager.openDecodedStream(record);
 
-            String data;
+                if (streamOptional.isEmpty())
+                    return false;
 
-            try {
-                data = config.fileAttachmentTip.replace("{_CONTENT_}", Files.readString(fileOptional.get().toPath()));
+                try (InputStream stream = streamOptional.get()) {
+                    content = stream.readNBytes((int) Math.min(available + 1, Integer.MAX_VALUE));
+                }
             } catch (IOException e) {
                 return false;
             }
 
+            available -= content.length;
+
+            if (available < 0)
+                return false;
+
+            contents.add(new String(content, StandardCharsets.UTF_8));
+        }
+
+        for (String content : contents) {
+            String data = config.fileAttachmentTip.replace("{_CONTENT_}", content);
+
             boolean result = aiWorker.pushMessage(contextId, "system", List.of(
                     ContentPart.textContentPart(data)
             ));
@@ -213,15 +238,17 @@ public class AiFileWorker {
             parts = new ArrayList<>();
 
             for (FilesRecord record : files) {
-                Optional<File> fileOptional = filesManager.getFile(record);
-
-                if (fileOptional.isEmpty())
-                    continue;
-
                 String baseString;
 
                 try {
-                    baseString = Base64.getEncoder().encodeToString(Files.readAllBytes(fileOptional.get().toPath()));
+                    Optional<InputStream> streamOptional = filesManager.openDecodedStream(record);
+
+                    if (streamOptional.isEmpty())
+                        continue;
+
+                    try (InputStream stream = streamOptional.get()) {
+                        baseString = Base64.getEncoder().encodeToString(stream.readAllBytes());
+                    }
                 } catch (IOException e) {
                     e.printStackTrace();
 
@@ -32,12 +32,14 @@ public class AiManager {
         this.cachingConfig = configs.getState(new CachingConfig()).ai;
 
         this.contextMessagesCache = CacheHandyBuilder.loading(
+                "ai.contextMessages",
                 1, TimeUnit.DAYS,
                 cachingConfig.maxContexts,
                 (contextId) -> new ArrayList<>(database.getMessages(contextId))
         );
 
         this.userOwnContextCache = CacheHandyBuilder.loading(
+                "ai.userOwnContext",
                 1, TimeUnit.DAYS,
                 cachingConfig.maxContexts,
                 (p) -> database.userOwnContext(p.getLeft(), p.getRight())
@@ -225,7 +225,9 @@ public class AiTools {
                 Parameter.of("currenciesIds", "array>integer", "Filter by currencies ids", false),
                 Parameter.of("fromTime", "string", "Filter by time: from what moment (example: 2022-12-03T10:15:30+01:00)", false),
                 Parameter.of("toTime", "string", "Filter by time: until when (format like in fromTime)", false),
-                Parameter.of("description", "string", "Filter by description", false)
+                Parameter.of("description", "string", "Filter by description", false),
+                Parameter.of("timeZone", "string", "Time zone used for bucketing (example: Europe/Berlin)", false),
+                Parameter.of("targetCurrencyId", "integer", "Convert all amounts into this currency", false)
         );
 
         function("get_analytics_by_days", "Get analytics summary by days (use it if you need to summarize transactions by days)", analyticsApi::getAnalyticsByDays,
@@ -234,7 +236,9 @@ public class AiTools {
                 Parameter.of("currenciesIds", "array>integer", "Filter by currencies ids", false),
                 Parameter.of("fromTime", "string", "Filter by time: from what moment (example: 2022-12-03T10:15:30+01:00)", false),
                 Parameter.of("toTime", "string", "Filter by time: until when (format like in fromTime)", false),
-                Parameter.of("description", "string", "Filter by description", false)
+                Parameter.of("description", "string", "Filter by description", false),
+                Parameter.of("timeZone", "string", "Time zone used for bucketing (example: Europe/Berlin)", false),
+                Parameter.of("targetCurrencyId", "integer", "Convert all amounts into this currency", false)
         );
 
         function("get_notification_points", "Get all user's notification points", notificationApi::getPoints);
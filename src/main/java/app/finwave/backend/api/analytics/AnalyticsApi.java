@@ -1,5 +1,7 @@
 package app.finwave.backend.api.analytics;
 
+import app.finwave.backend.api.analytics.description.DescriptionsStatsManager;
+import app.finwave.backend.api.analytics.forecast.ForecastManager;
 import app.finwave.backend.api.analytics.result.*;
 import app.finwave.backend.utils.params.ParamsValidator;
 import com.google.inject.Inject;
@@ -9,21 +11,28 @@ import spark.Response;
 import app.finwave.backend.api.transaction.filter.TransactionsFilter;
 import app.finwave.backend.config.Configs;
 import app.finwave.backend.config.app.AnalyticsConfig;
+import app.finwave.backend.http.ApiMessage;
 import app.finwave.backend.jooq.tables.records.UsersSessionsRecord;
 import app.finwave.backend.utils.params.InvalidParameterException;
 
 import java.time.OffsetDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Optional;
 
 @Singleton
 public class AnalyticsApi {
     protected AnalyticsManager manager;
+    protected ForecastManager forecastManager;
+    protected DescriptionsStatsManager descriptionsStatsManager;
     protected AnalyticsConfig config;
 
     @Inject
-    public AnalyticsApi(Configs configs, AnalyticsManager manager) {
+    public AnalyticsApi(Configs configs, AnalyticsManager manager, ForecastManager forecastManager, DescriptionsStatsManager descriptionsStatsManager) {
         this.config = configs.getState(new AnalyticsConfig());
         this.manager = manager;
+        this.forecastManager = forecastManager;
+        this.descriptionsStatsManager = descriptionsStatsManager;
     }
 
     public Object getCategoriesAnalytics(Request request, Response response) {
@@ -56,7 +65,24 @@ public class AnalyticsApi {
         if (!filter.validateTime(config.maxTimeRangeDaysForMonths))
             throw new InvalidParameterException();
 
-        AnalyticsByMonths analytics = manager.getAnalyticsByMonths(sessionsRecord.getUserId(), filter);
+        ZoneId zoneId = getZone(request);
+        Optional<Long> targetCurrencyId = ParamsValidator.longV(request, "targetCurrencyId").optional();
+
+        if (targetCurrencyId.isPresent()) {
+            Optional<AnalyticsByMonths> converted = manager.getConvertedAnalyticsByMonths(sessionsRecord.getUserId(), filter, zoneId, targetCurrencyId.get());
+
+            if (converted.isEmpty()) {
+                response.status(403);
+
+                return ApiMessage.of("Exchange rate is unavailable");
+            }
+
+            response.status(200);
+
+            return converted.get();
+        }
+
+        AnalyticsByMonths analytics = manager.getAnalyticsByMonths(sessionsRecord.getUserId(), filter, zoneId);
 
         response.status(200);
 
@@ -69,18 +95,136 @@ public class AnalyticsApi {
         TransactionsFilter filter = new TransactionsFilter(request);
 
         if (filter.getFromTime() == null)
-            filter.setFromTime(OffsetDateTime.now().minusDays(config.maxTimeRangeDaysForDays / 2));
+            filter = filter.setFromTime(OffsetDateTime.now().minusDays(config.maxTimeRangeDaysForDays / 2));
 
         if (filter.getToTime() == null)
-            filter.setToTime(OffsetDateTime.now());
+            filter = filter.setToTime(OffsetDateTime.now());
 
         if (!filter.validateTime(config.maxTimeRangeDaysForDays))
             throw new IllegalArgumentException();
 
-        AnalyticsByDays analytics = manager.getAnalyticsByDays(sessionsRecord.getUserId(), filter);
+        ZoneId zoneId = getZone(request);
+        Optional<Long> targetCurrencyId = ParamsValidator.longV(request, "targetCurrencyId").optional();
+
+        if (targetCurrencyId.isPresent()) {
+            Optional<AnalyticsByDays> converted = manager.getConvertedAnalyticsByDays(sessionsRecord.getUserId(), filter, zoneId, targetCurrencyId.get());
+
+            if (converted.isEmpty()) {
+                response.status(403);
+
+                return ApiMessage.of("Exchange rate is unavailable");
+            }
+
+            response.status(200);
+
+            return converted.get();
+        }
+
+        AnalyticsByDays analytics = manager.getAnalyticsByDays(sessionsRecord.getUserId(), filter, zoneId);
+
+        response.status(200);
+
+        return analytics;
+    }
+
+    public Object getAnalyticsByPeriods(Request request, Response response) {
+        UsersSessionsRecord sessionsRecord = request.attribute("session");
+
+        AnalyticsGranularity granularity = ParamsValidator
+                .string(request, "granularity")
+                .map(AnalyticsGranularity::parse);
+
+        int maxDays = switch (granularity) {
+            case DAY -> config.maxTimeRangeDaysForDays;
+            case WEEK, MONTH -> config.maxTimeRangeDaysForMonths;
+            case QUARTER, YEAR -> config.maxTimeRangeDaysForYears;
+        };
+
+        TransactionsFilter filter = new TransactionsFilter(request);
+
+        if (filter.getFromTime() == null)
+            filter = filter.setFromTime(OffsetDateTime.now().minusDays(maxDays / 2));
+
+        if (filter.getToTime() == null)
+            filter = filter.setToTime(OffsetDateTime.now());
+
+        if (!filter.validateTime(maxDays))
+            throw new InvalidParameterException();
+
+        ZoneId zoneId = getZone(request);
+        Optional<Long> targetCurrencyId = ParamsValidator.longV(request, "targetCurrencyId").optional();
+
+        if (targetCurrencyId.isPresent()) {
+            Optional<AnalyticsByPeriods> converted = manager.getConvertedAnalytics(sessionsRecord.getUserId(), filter, zoneId, granularity, targetCurrencyId.get());
+
+            if (converted.isEmpty()) {
+                response.status(403);
+
+                return ApiMessage.of("Exchange rate is unavailable");
+            }
+
+            response.status(200);
+
+            return converted.get();
+        }
+
+        AnalyticsByPeriods analytics = manager.getAnalytics(sessionsRecord.getUserId(), filter, zoneId, granularity);
 
         response.status(200);
 
         return analytics;
     }
+
+    public Object getForecast(Request request, Response response) {
+        UsersSessionsRecord sessionsRecord = request.attribute("session");
+
+        Forecast forecast = forecastManager.getForecast(sessionsRecord.getUserId());
+
+        response.status(200);
+
+        return forecast;
+    }
+
+    public Object getTopDescriptions(Request request, Response response) {
+        UsersSessionsRecord sessionsRecord = request.attribute("session");
+
+        long currencyId = ParamsValidator
+                .longV(request, "currencyId")
+                .require();
+
+        int limit = ParamsValidator
+                .integer(request, "limit")
+                .range(1, config.maxTopDescriptions)
+                .optional()
+                .orElse(10);
+
+        String orderBy = ParamsValidator
+                .string(request, "orderBy")
+                .matches((s) -> s.equals("count") || s.equals("amount"))
+                .optional()
+                .orElse("count");
+
+        boolean byAmount = orderBy.equals("amount");
+
+        List<TopDescriptions.Entry> entries = descriptionsStatsManager.getTop(sessionsRecord.getUserId(), currencyId, limit, byAmount)
+                .stream()
+                .map((e) -> byAmount ?
+                        new TopDescriptions.Entry(e.key(), e.secondary(), e.weight(), e.error()) :
+                        new TopDescriptions.Entry(e.key(), e.weight(), e.secondary(), e.error()))
+                .toList();
+
+        response.status(200);
+
+        return new TopDescriptions(currencyId, orderBy, entries);
+    }
+
+    protected ZoneId getZone(Request request) {
+        String raw = request.queryParams("timeZone");
+
+        if (raw == null)
+            return ZoneId.systemDefault();
+
+        // Fixed offsets in any spelling ("+03:00", "UTC+3", "GMT+03:00") become one ZoneOffset, so they share cache entries
+        return ParamsValidator.string(raw, "timeZone").map((z) -> ZoneId.of(z).normalized());
+    }
 }
@@ -2,59 +2,318 @@ package app.finwave.backend.api.analytics;
 
 import org.jooq.Condition;
 import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.QueryPart;
+import org.jooq.Record1;
+import org.jooq.Record4;
+import org.jooq.Record6;
+import org.jooq.Result;
+import org.jooq.Select;
+import org.jooq.Table;
 import app.finwave.backend.api.analytics.result.AnalyticsByDays;
 import app.finwave.backend.api.analytics.result.AnalyticsByMonths;
+import app.finwave.backend.api.analytics.result.AnalyticsByPeriods;
 import app.finwave.backend.api.transaction.TransactionDatabase;
 import app.finwave.backend.api.transaction.filter.TransactionsFilter;
 import app.finwave.backend.database.AbstractDatabase;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
 import static org.jooq.impl.DSL.*;
+import static org.jooq.impl.SQLDataType.BIGINT;
+import static org.jooq.impl.SQLDataType.LOCALDATE;
+import static org.jooq.impl.SQLDataType.NUMERIC;
+import static app.finwave.backend.jooq.Tables.ANALYTICS_DAILY_ROLLUP;
 import static app.finwave.backend.jooq.Tables.TRANSACTIONS;
 
 public class AnalyticsDatabase extends AbstractDatabase {
+    protected static final Field<Long> DAILY_CURRENCY_ID = field(name("daily", "currency_id"), BIGINT);
+    protected static final Field<Long> DAILY_CATEGORY_ID = field(name("daily", "category_id"), BIGINT);
+    protected static final Field<LocalDate> DAILY_DAY = field(name("daily", "day"), LOCALDATE);
+    protected static final Field<BigDecimal> DAILY_DELTA = field(name("daily", "delta"), NUMERIC);
+
+    // Raised once the rollup is known to be filled in the rollup zone, until then every query is answered from raw transactions
+    protected static volatile boolean rollupReady;
 
     public AnalyticsDatabase(DSLContext context) {
         super(context);
     }
 
-    public AnalyticsByMonths getAnalyticsByMonths(int userId, TransactionsFilter filter) {
+    public static ZoneId rollupZone() {
+        return ZoneId.systemDefault();
+    }
+
+    public static boolean isRollupReady() {
+        return rollupReady;
+    }
+
+    public static void setRollupReady(boolean ready) {
+        rollupReady = ready;
+    }
+
+    public AnalyticsByMonths getAnalyticsByMonths(int userId, TransactionsFilter filter, ZoneId zoneId) {
+        return new AnalyticsByMonths(getAnalytics(userId, filter, zoneId, AnalyticsGranularity.MONTH).getTotal());
+    }
+
+    public AnalyticsByDays getAnalyticsByDays(int userId, TransactionsFilter filter, ZoneId zoneId) {
+        return new AnalyticsByDays(getAnalytics(userId, filter, zoneId, AnalyticsGranularity.DAY).getTotal());
+    }
+
+    public AnalyticsByPeriods getAnalytics(int userId, TransactionsFilter filter, ZoneId zoneId, AnalyticsGranularity granularity) {
+        if (!rollupApplicable(filter, zoneId))
+            return getRawAnalytics(userId, filter, zoneId, granularity);
+
+        Field<LocalDate> period = granularity == AnalyticsGranularity.DAY ? DAILY_DAY : truncate(DAILY_DAY, granularity.part());
+
+        var result = context.select(DAILY_CURRENCY_ID,
+                        DAILY_CATEGORY_ID,
+                        period,
+                        sum(DAILY_DELTA))
+                .from(dailySource(userId, filter, zoneId))
+                .groupBy(DAILY_CURRENCY_ID,
+                        DAILY_CATEGORY_ID,
+                        period)
+                .fetch();
+
+        return new AnalyticsByPeriods(result);
+    }
+
+    protected AnalyticsByPeriods getRawAnalytics(int userId, TransactionsFilter filter, ZoneId zoneId, AnalyticsGranularity granularity) {
         Condition condition = TransactionDatabase.generateFilterCondition(userId, filter);
+        Field<LocalDate> period = bucket(TRANSACTIONS.CREATED_AT, granularity.part(), zoneId);
 
         var result = context.select(TRANSACTIONS.CURRENCY_ID,
                         TRANSACTIONS.CATEGORY_ID,
-                        month(TRANSACTIONS.CREATED_AT),
-                        year(TRANSACTIONS.CREATED_AT),
+                        period,
                         sum(TRANSACTIONS.DELTA))
                 .from(TRANSACTIONS)
                 .where(condition)
                 .groupBy(TRANSACTIONS.CURRENCY_ID,
                         TRANSACTIONS.CATEGORY_ID,
-                        month(TRANSACTIONS.CREATED_AT),
-                        year(TRANSACTIONS.CREATED_AT))
+                        period)
                 .fetch();
 
-        return new AnalyticsByMonths(result);
+        return new AnalyticsByPeriods(result);
     }
 
-    public AnalyticsByDays getAnalyticsByDays(int userId, TransactionsFilter filter) {
-        Condition condition = TransactionDatabase.generateFilterCondition(userId, filter);
+    // Per category and currency sums for the month and quarter windows; budgets are matched to categories in memory
+    public Result<Record4<Long, Long, BigDecimal, BigDecimal>> getCategoriesSums(int userId,
+                                                                            OffsetDateTime monthFrom, OffsetDateTime monthTo,
+                                                                            OffsetDateTime quarterFrom, OffsetDateTime quarterTo) {
+        ZoneId zoneId = rollupZone();
+        TransactionsFilter monthFilter = new TransactionsFilter(null, null, null, monthFrom, monthTo, null);
+        TransactionsFilter quarterFilter = new TransactionsFilter(null, null, null, quarterFrom, quarterTo, null);
 
-        var result = context.select(TRANSACTIONS.CURRENCY_ID,
+        if (!rollupApplicable(quarterFilter, zoneId))
+            return getRawCategoriesSums(userId, monthFrom, monthTo, quarterFrom, quarterTo);
+
+        Table<?> windows = select(DAILY_CATEGORY_ID, DAILY_CURRENCY_ID, DAILY_DELTA.as("month_delta"), castNull(NUMERIC).as("quarter_delta"))
+                .from(dailySource(userId, monthFilter, zoneId))
+                .unionAll(select(DAILY_CATEGORY_ID, DAILY_CURRENCY_ID, castNull(NUMERIC), DAILY_DELTA)
+                        .from(dailySource(userId, quarterFilter, zoneId)))
+                .asTable("windows");
+
+        Field<Long> categoryId = field(name("windows", "category_id"), BIGINT);
+        Field<Long> currencyId = field(name("windows", "currency_id"), BIGINT);
+
+        return context.select(categoryId,
+                        currencyId,
+                        sum(field(name("windows", "month_delta"), NUMERIC)),
+                        sum(field(name("windows", "quarter_delta"), NUMERIC)))
+                .from(windows)
+                .groupBy(categoryId, currencyId)
+                .fetch();
+    }
+
+    protected Result<Record4<Long, Long, BigDecimal, BigDecimal>> getRawCategoriesSums(int userId,
+                                                                                  OffsetDateTime monthFrom, OffsetDateTime monthTo,
+                                                                                  OffsetDateTime quarterFrom, OffsetDateTime quarterTo) {
+        Condition inMonth = TRANSACTIONS.CREATED_AT.between(monthFrom, monthTo);
+        Condition inQuarter = TRANSACTIONS.CREATED_AT.between(quarterFrom, quarterTo);
+
+        return context.select(TRANSACTIONS.CATEGORY_ID,
+                        TRANSACTIONS.CURRENCY_ID,
+                        sum(TRANSACTIONS.DELTA).filterWhere(inMonth),
+                        sum(TRANSACTIONS.DELTA).filterWhere(inQuarter))
+                .from(TRANSACTIONS)
+                .where(TRANSACTIONS.OWNER_ID.eq(userId).and(inMonth.or(inQuarter)))
+                .groupBy(TRANSACTIONS.CATEGORY_ID, TRANSACTIONS.CURRENCY_ID)
+                .fetch();
+    }
+
+    public static Field<LocalDate> bucket(Field<OffsetDateTime> time, String part, ZoneId zoneId) {
+        return field("date_trunc({0}, {1} at time zone {2})::date", LOCALDATE, inline(part), time, zone(zoneId));
+    }
+
+    // Postgres reads a bare "+03:00" as a POSIX zone with the opposite sign, so fixed offsets are passed as intervals
+    public static QueryPart zone(ZoneId zoneId) {
+        if (zoneId.normalized() instanceof ZoneOffset offset)
+            return field("interval {0}", inline(offset.getTotalSeconds() + " seconds"));
+
+        return inline(zoneId.getId());
+    }
+
+    public static Field<LocalDate> truncate(Field<LocalDate> date, String part) {
+        return field("date_trunc({0}, {1})::date", LOCALDATE, inline(part), date);
+    }
+
+    // The rollup has no account or description columns and is kept in a single zone, so only matching filters can be served from it
+    protected boolean rollupApplicable(TransactionsFilter filter, ZoneId zoneId) {
+        return rollupReady && filter.getAccountIds() == null && filter.getDescription() == null && zoneId.equals(rollupZone());
+    }
+
+    // Whole days inside the time range come from the rollup, while the boundary days (which may be
+    // covered only partially) are summed from raw transactions, so the result matches the raw query exactly
+    protected Table<?> dailySource(int userId, TransactionsFilter filter, ZoneId zoneId) {
+        Field<LocalDate> createdDay = bucket(TRANSACTIONS.CREATED_AT, "day", zoneId);
+
+        Condition rollupCondition = ANALYTICS_DAILY_ROLLUP.OWNER_ID.eq(userId)
+                .and(ANALYTICS_DAILY_ROLLUP.TIME_ZONE.eq(zoneId.getId()));
+        Condition edgesCondition = noCondition();
+        boolean hasEdges = false;
+
+        if (filter.getCategoriesIds() != null)
+            rollupCondition = rollupCondition.and(ANALYTICS_DAILY_ROLLUP.CATEGORY_ID.in(filter.getCategoriesIds()));
+
+        if (filter.getCurrenciesIds() != null)
+            rollupCondition = rollupCondition.and(ANALYTICS_DAILY_ROLLUP.CURRENCY_ID.in(filter.getCurrenciesIds()));
+
+        if (filter.getFromTime() != null) {
+            LocalDate fromDay = filter.getFromTime().atZoneSameInstant(zoneId).toLocalDate();
+
+            if (filter.getFromTime().isEqual(fromDay.atStartOfDay(zoneId).toOffsetDateTime())) {
+                rollupCondition = rollupCondition.and(ANALYTICS_DAILY_ROLLUP.DAY.greaterOrEqual(fromDay));
+            }else {
+                rollupCondition = rollupCondition.and(ANALYTICS_DAILY_ROLLUP.DAY.greaterThan(fromDay));
+                edgesCondition = edgesCondition.or(createdDay.eq(fromDay));
+                hasEdges = true;
+            }
+        }
+
+        if (filter.getToTime() != null) {
+            LocalDate toDay = filter.getToTime().atZoneSameInstant(zoneId).toLocalDate();
+            OffsetDateTime lastMoment = toDay.plusDays(1).atStartOfDay(zoneId).toOffsetDateTime().minus(1, ChronoUnit.MICROS);
+
+            if (!filter.getToTime().isBefore(lastMoment)) {
+                rollupCondition = rollupCondition.and(ANALYTICS_DAILY_ROLLUP.DAY.lessOrEqual(toDay));
+            }else {
+                rollupCondition = rollupCondition.and(ANALYTICS_DAILY_ROLLUP.DAY.lessThan(toDay));
+                edgesCondition = edgesCondition.or(createdDay.eq(toDay));
+                hasEdges = true;
+            }
+        }
+
+        var rollup = select(ANALYTICS_DAILY_ROLLUP.CURRENCY_ID,
+                        ANALYTICS_DAILY_ROLLUP.CATEGORY_ID,
+                        ANALYTICS_DAILY_ROLLUP.DAY,
+                        ANALYTICS_DAILY_ROLLUP.DELTA)
+                .from(ANALYTICS_DAILY_ROLLUP)
+                .where(rollupCondition);
+
+        if (!hasEdges)
+            return rollup.asTable("daily");
+
+        var edges = select(TRANSACTIONS.CURRENCY_ID,
                         TRANSACTIONS.CATEGORY_ID,
-                        day(TRANSACTIONS.CREATED_AT),
-                        month(TRANSACTIONS.CREATED_AT),
-                        year(TRANSACTIONS.CREATED_AT),
-                        sum(TRANSACTIONS.DELTA))
+                        createdDay,
+                        TRANSACTIONS.DELTA)
                 .from(TRANSACTIONS)
-                .where(condition)
-                .groupBy(
-                        TRANSACTIONS.CURRENCY_ID,
+                .where(TransactionDatabase.generateFilterCondition(userId, filter).and(edgesCondition));
+
+        return rollup.unionAll(edges).asTable("daily");
+    }
+
+    public Result<Record6<Long, Long, Long, Long, OffsetDateTime, BigDecimal>> getTransactionsColumns(int userId, int limit) {
+        return context.select(TRANSACTIONS.ID,
                         TRANSACTIONS.CATEGORY_ID,
-                        day(TRANSACTIONS.CREATED_AT),
-                        month(TRANSACTIONS.CREATED_AT),
-                        year(TRANSACTIONS.CREATED_AT))
+                        TRANSACTIONS.ACCOUNT_ID,
+                        TRANSACTIONS.CURRENCY_ID,
+                        TRANSACTIONS.CREATED_AT,
+                        TRANSACTIONS.DELTA)
+                .from(TRANSACTIONS)
+                .where(TRANSACTIONS.OWNER_ID.eq(userId))
+                .limit(limit)
                 .fetch();
+    }
+
+    // Rebuilds the rollup when it was filled in another zone (e.g. after the server zone has changed)
+    public void ensureRollupZone(ZoneId zoneId) {
+        boolean foreignRows = context.fetchExists(ANALYTICS_DAILY_ROLLUP, ANALYTICS_DAILY_ROLLUP.TIME_ZONE.ne(zoneId.getId()));
+        boolean missingRows = !context.fetchExists(ANALYTICS_DAILY_ROLLUP) && context.fetchExists(TRANSACTIONS);
+
+        if (!foreignRows && !missingRows)
+            return;
+
+        context.transaction((configuration) -> {
+            AnalyticsDatabase database = new AnalyticsDatabase(using(configuration));
+
+            database.context.deleteFrom(ANALYTICS_DAILY_ROLLUP).execute();
+            database.applyToRollup(noCondition(), false, zoneId);
+        });
+    }
+
+    public void addToRollup(List<Long> transactionsIds) {
+        if (!transactionsIds.isEmpty())
+            applyToRollup(TRANSACTIONS.ID.in(transactionsIds), false, rollupZone());
+    }
+
+    public void subtractFromRollup(List<Long> transactionsIds) {
+        if (!transactionsIds.isEmpty())
+            applyToRollup(TRANSACTIONS.ID.in(transactionsIds), true, rollupZone());
+    }
+
+    protected void applyToRollup(Condition transactions, boolean subtract, ZoneId zoneId) {
+        Field<LocalDate> createdDay = bucket(TRANSACTIONS.CREATED_AT, "day", zoneId);
+        Field<BigDecimal> delta = subtract ? sum(TRANSACTIONS.DELTA).neg() : sum(TRANSACTIONS.DELTA);
+        Field<Integer> transactionsCount = subtract ? count().neg() : count();
+
+        Select<Record1<Integer>> affectedOwners = select(TRANSACTIONS.OWNER_ID)
+                .from(TRANSACTIONS)
+                .where(transactions);
+
+        context.insertInto(ANALYTICS_DAILY_ROLLUP,
+                        ANALYTICS_DAILY_ROLLUP.OWNER_ID,
+                        ANALYTICS_DAILY_ROLLUP.TIME_ZONE,
+                        ANALYTICS_DAILY_ROLLUP.CURRENCY_ID,
+                        ANALYTICS_DAILY_ROLLUP.CATEGORY_ID,
+                        ANALYTICS_DAILY_ROLLUP.DAY,
+                        ANALYTICS_DAILY_ROLLUP.DELTA,
+                        ANALYTICS_DAILY_ROLLUP.TRANSACTIONS_COUNT)
+                .select(select(TRANSACTIONS.OWNER_ID,
+                                val(zoneId.getId()),
+                                TRANSACTIONS.CURRENCY_ID,
+                                TRANSACTIONS.CATEGORY_ID,
+                                createdDay,
+                                delta,
+                                transactionsCount)
+                        .from(TRANSACTIONS)
+                        .where(transactions)
+                        .groupBy(TRANSACTIONS.OWNER_ID,
+                                TRANSACTIONS.CURRENCY_ID,
+                                TRANSACTIONS.CATEGORY_ID,
+                                createdDay))
+                .onConflict(ANALYTICS_DAILY_ROLLUP.OWNER_ID,
+                        ANALYTICS_DAILY_ROLLUP.TIME_ZONE,
+                        ANALYTICS_DAILY_ROLLUP.CURRENCY_ID,
+                        ANALYTICS_DAILY_ROLLUP.CATEGORY_ID,
+                        ANALYTICS_DAILY_ROLLUP.DAY)
+                .doUpdate()
+                .set(ANALYTICS_DAILY_ROLLUP.DELTA, ANALYTICS_DAILY_ROLLUP.DELTA.plus(excluded(ANALYTICS_DAILY_ROLLUP.DELTA)))
+                .set(ANALYTICS_DAILY_ROLLUP.TRANSACTIONS_COUNT, ANALYTICS_DAILY_ROLLUP.TRANSACTIONS_COUNT.plus(excluded(ANALYTICS_DAILY_ROLLUP.TRANSACTIONS_COUNT)))
+                .execute();
+
+        if (!subtract)
+            return;
 
-        return new AnalyticsByDays(result);
+        context.deleteFrom(ANALYTICS_DAILY_ROLLUP)
+                .where(ANALYTICS_DAILY_ROLLUP.TRANSACTIONS_COUNT.lessOrEqual(0)
+                        .and(ANALYTICS_DAILY_ROLLUP.OWNER_ID.in(affectedOwners)))
+                .execute();
     }
 }
@@ -0,0 +1,29 @@
+package app.finwave.backend.api.analytics;
+
+import app.finwave.backend.api.transaction.filter.TransactionsFilter;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+
+public record AnalyticsFilter(TransactionsFilter filter, ZoneId zoneId, AnalyticsGranularity granularity) {
+    public static AnalyticsFilter canonical(TransactionsFilter filter, ZoneId zoneId, AnalyticsGranularity granularity) {
+        return new AnalyticsFilter(filter.canonical(granularity, zoneId), zoneId, granularity);
+    }
+
+    public boolean covers(AnalyticsFilter other) {
+        return granularity == other.granularity && zoneId.equals(other.zoneId) && filter.covers(other.filter);
+    }
+
+    public AnalyticsFilter withGranularity(AnalyticsGranularity granularity) {
+        return canonical(filter, zoneId, granularity);
+    }
+
+    public LocalDate toDate(OffsetDateTime time) {
+        return time == null ? null : time.atZoneSameInstant(zoneId).toLocalDate();
+    }
+
+    public LocalDate toBucket(OffsetDateTime time) {
+        return granularity.truncate(toDate(time));
+    }
+}
@@ -0,0 +1,67 @@
+package app.finwave.backend.api.analytics;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.time.temporal.TemporalUnit;
+import java.util.Locale;
+
+// Buckets are identified by their first day; weeks are ISO weeks starting on Monday, like date_trunc('week') in Postgres
+public enum AnalyticsGranularity {
+    DAY("day", ChronoUnit.DAYS),
+    WEEK("week", ChronoUnit.WEEKS),
+    MONTH("month", ChronoUnit.MONTHS),
+    QUARTER("quarter", IsoFields.QUARTER_YEARS),
+    YEAR("year", ChronoUnit.YEARS);
+
+    protected final String part;
+    protected final TemporalUnit unit;
+
+    AnalyticsGranularity(String part, TemporalUnit unit) {
+        this.part = part;
+        this.unit = unit;
+    }
+
+    public String part() {
+        return part;
+    }
+
+    public TemporalUnit unit() {
+        return unit;
+    }
+
+    // Quarters and years are whole months, so they are rolled up from month buckets instead of being queried
+    public boolean derivedFromMonths() {
+        return this == QUARTER || this == YEAR;
+    }
+
+    public LocalDate truncate(LocalDate date) {
+        if (date == null)
+            return null;
+
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+            case QUARTER -> date.with(IsoFields.DAY_OF_QUARTER, 1);
+            case YEAR -> date.withDayOfYear(1);
+        };
+    }
+
+    public OffsetDateTime start(OffsetDateTime time, ZoneId zoneId) {
+        return truncate(time.atZoneSameInstant(zoneId).toLocalDate()).atStartOfDay(zoneId).toOffsetDateTime();
+    }
+
+    // Last microsecond of the bucket holding the time, the precision timestamps are stored with
+    public OffsetDateTime end(OffsetDateTime time, ZoneId zoneId) {
+        return truncate(time.atZoneSameInstant(zoneId).toLocalDate()).plus(1, unit).atStartOfDay(zoneId).toOffsetDateTime().minus(1, ChronoUnit.MICROS);
+    }
+
+    public static AnalyticsGranularity parse(String raw) {
+        return valueOf(raw.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -1,74 +1,83 @@
 package app.finwave.backend.api.analytics;
 
+import app.finwave.backend.api.analytics.columnar.ColumnarTransactionsStore;
 import app.finwave.backend.api.analytics.result.AnalyticsByDays;
 import app.finwave.backend.api.analytics.result.AnalyticsByMonths;
-import app.finwave.backend.api.analytics.result.CategorySummary;
+import app.finwave.backend.api.analytics.result.AnalyticsByPeriods;
 import app.finwave.backend.api.analytics.result.CategorySummaryWithBudget;
-import app.finwave.backend.api.category.CategoryDatabase;
+import app.finwave.backend.api.currency.CurrencyDatabase;
+import app.finwave.backend.api.currency.excange.ExchangeManager;
+import app.finwave.backend.api.currency.excange.RatesSnapshot;
 import app.finwave.backend.api.transaction.filter.TransactionsFilter;
-import app.finwave.backend.api.transaction.hook.TransactionActionsHook;
+import app.finwave.backend.api.transaction.hook.CommittedChangesHook;
 import app.finwave.backend.api.transaction.manager.TransactionsManager;
-import app.finwave.backend.api.transaction.manager.records.TransactionNewInternalRecord;
-import app.finwave.backend.api.transaction.manager.records.TransactionNewRecord;
-import app.finwave.backend.api.category.BudgetTree;
+import app.finwave.backend.api.budget.BudgetMembershipIndex;
 import app.finwave.backend.api.budget.CategoryBudgetManager;
 import app.finwave.backend.config.Configs;
 import app.finwave.backend.config.general.CachingConfig;
 import app.finwave.backend.database.DatabaseWorker;
 import app.finwave.backend.jooq.tables.records.CategoriesBudgetsRecord;
-import app.finwave.backend.jooq.tables.records.CategoriesRecord;
+import app.finwave.backend.jooq.tables.records.CurrenciesRecord;
+import app.finwave.backend.jooq.tables.records.TransactionsRecord;
 import app.finwave.backend.utils.CacheHandyBuilder;
 import com.google.common.cache.Cache;
 import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalCause;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import org.flywaydb.core.internal.util.Pair;
-import org.jooq.DSLContext;
-import org.jooq.Record;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.time.Month;
 import java.time.OffsetDateTime;
 import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
-import static app.finwave.backend.jooq.Tables.TRANSACTIONS;
-
 @Singleton
 public class AnalyticsManager {
     protected CachingConfig cachingConfig;
+    protected DatabaseWorker databaseWorker;
+    protected TransactionsManager transactionsManager;
     protected AnalyticsDatabase database;
-    protected CategoryDatabase categoryDatabase;
+    protected ColumnarTransactionsStore columnarStore;
+    protected CurrencyDatabase currencyDatabase;
+    protected ExchangeManager exchangeManager;
 
     protected CategoryBudgetManager categoryBudgetManager;
 
-    protected LoadingCache<Pair<Integer, TransactionsFilter>, AnalyticsByDays> daysCache;
-    protected LoadingCache<Pair<Integer, TransactionsFilter>, AnalyticsByMonths> monthsCache;
+    protected LoadingCache<Pair<Integer, AnalyticsFilter>, AnalyticsByPeriods> cache;
+    protected Cache<Integer, HashSet<AnalyticsFilter>> loaded;
 
     protected LoadingCache<Pair<Integer, OffsetDateTime>, List<CategorySummaryWithBudget>> categoriesSummariesCache;
     protected Cache<Integer, HashSet<OffsetDateTime>> loadedCategoriesSummaries;
 
-    protected Cache<Integer, HashSet<TransactionsFilter>> loadedDays;
-    protected Cache<Integer, HashSet<TransactionsFilter>> loadedMonths;
+    protected Cache<ConvertedKey, AnalyticsByPeriods> convertedCache;
 
     @Inject
-    public AnalyticsManager(DatabaseWorker databaseWorker, Configs configs, TransactionsManager transactionsManager, CategoryBudgetManager categoryBudgetManager) {
+    public AnalyticsManager(DatabaseWorker databaseWorker, Configs configs, TransactionsManager transactionsManager, CategoryBudgetManager categoryBudgetManager, ColumnarTransactionsStore columnarStore, ExchangeManager exchangeManager) {
+        this.databaseWorker = databaseWorker;
+        this.transactionsManager = transactionsManager;
+        this.columnarStore = columnarStore;
+        this.exchangeManager = exchangeManager;
         this.database = databaseWorker.get(AnalyticsDatabase.class);
-        this.categoryDatabase = databaseWorker.get(CategoryDatabase.class);
+        this.currencyDatabase = databaseWorker.get(CurrencyDatabase.class);
 
         this.categoryBudgetManager = categoryBudgetManager;
 
         this.cachingConfig = configs.getState(new CachingConfig());
 
         this.loadedCategoriesSummaries = CacheHandyBuilder.cache(
+                "analytics.loadedCategoriesSummaries",
                 1, TimeUnit.DAYS,
-                cachingConfig.analytics.maxDaysEntries
+                cachingConfig.analytics.maxCategoriesSummingEntries
         );
 
         this.categoriesSummariesCache = CacheHandyBuilder.loading(
+                "analytics.categoriesSummaries",
                 1, TimeUnit.DAYS,
                 cachingConfig.analytics.maxCategoriesSummingEntries,
                 (p) -> {
@@ -89,61 +98,45 @@ public class AnalyticsManager {
                 }
         );
 
-        this.loadedDays = CacheHandyBuilder.cache(
-                1, TimeUnit.DAYS,
-                cachingConfig.analytics.maxDaysEntries
-        );
+        int periodsEntries = cachingConfig.analytics.maxDaysEntries + cachingConfig.analytics.maxMonthsEntries;
 
-        this.loadedMonths = CacheHandyBuilder.cache(
-                1, TimeUnit.DAYS,
-                cachingConfig.analytics.maxMonthsEntries
+        this.convertedCache = CacheHandyBuilder.cache(
+                "analytics.converted",
+                1, TimeUnit.HOURS,
+                cachingConfig.analytics.maxConvertedEntries
         );
 
-        this.daysCache = CacheHandyBuilder.loading(
+        this.loaded = CacheHandyBuilder.cache(
+                "analytics.loadedFilters",
                 1, TimeUnit.DAYS,
-                cachingConfig.analytics.maxDaysEntries,
-                (p) -> {
-                    try {
-                        loadedDays.get(p.getLeft(), HashSet::new).add(p.getRight());
-                    } catch (ExecutionException e) {
-                        e.printStackTrace();
-                    }
-
-                    return database.getAnalyticsByDays(p.getLeft(), p.getRight());
-                },
-                (entry) -> {
-                    HashSet<TransactionsFilter> loaded = loadedDays.getIfPresent(entry.getKey().getLeft());
-                    if (loaded == null)
-                        return;
-
-                    loaded.remove(entry.getKey().getRight());
-                }
+                periodsEntries
         );
 
-        this.monthsCache = CacheHandyBuilder.loading(
+        this.cache = CacheHandyBuilder.loading(
+                "analytics.periods",
                 1, TimeUnit.DAYS,
-                cachingConfig.analytics.maxMonthsEntries,
+                periodsEntries,
                 (p) -> {
                     try {
-                        loadedMonths.get(p.getLeft(), HashSet::new).add(p.getRight());
+                        loaded.get(p.getLeft(), HashSet::new).add(p.getRight());
                     } catch (ExecutionException e) {
                         e.printStackTrace();
                     }
 
-                    return database.getAnalyticsByMonths(p.getLeft(), p.getRight());
+                    return load(p.getLeft(), p.getRight());
                 },
                 (entry) -> {
-                    int userId = entry.getKey().getLeft();
-
-                    categoriesSummariesCache.invalidate(userId);
+                    if (entry.getCause() == RemovalCause.REPLACED)
+                        return;
 
-                    HashSet<TransactionsFilter> loaded = loadedMonths.getIfPresent(userId);
-                    if (loaded == null)
+                    HashSet<AnalyticsFilter> filters = loaded.getIfPresent(entry.getKey().getLeft());
+                    if (filters == null)
                         return;
 
-                    loaded.remove(entry.getKey().getRight());
+                    filters.remove(entry.getKey().getRight());
                 }
         );
+
         transactionsManager.getDefaultActionsWorker().addHook(new Hook<>(this));
         transactionsManager.getInternalActionsWorker().addHook(new Hook<>(this));
         transactionsManager.getRecurringActionsWorker().addHook(new Hook<>(this));
@@ -189,85 +182,59 @@ public class AnalyticsManager {
     }
 
     protected List<CategorySummaryWithBudget> calculateCategoriesSummary(int userId, OffsetDateTime referenceDate) {
-        List<CategoriesBudgetsRecord> settings = categoryBudgetManager.getSettings(userId);
+        BudgetMembershipIndex index = categoryBudgetManager.getIndex(userId);
 
-        HashSet<Long> categories = new HashSet<>();
-        HashSet<Long> currencies = new HashSet<>();
+        if (index.size() == 0)
+            return List.of();
 
-        short maxType = 0;
+        Pair<OffsetDateTime, OffsetDateTime> month = dateTypeToRange((short) 0, referenceDate);
+        Pair<OffsetDateTime, OffsetDateTime> quarter = dateTypeToRange((short) 1, referenceDate);
 
-        for (CategoriesBudgetsRecord record : settings) {
-            categories.add(record.getCategoryId());
-            currencies.add(record.getCurrencyId());
+        var sums = database.getCategoriesSums(userId,
+                month.getLeft(), month.getRight(),
+                quarter.getLeft(), quarter.getRight());
 
-            maxType = (short) Math.max(maxType, record.getDateType());
-        }
-
-        Pair<OffsetDateTime, OffsetDateTime> dateRange = dateTypeToRange(maxType, referenceDate);
-
-        HashSet<Long> categoriesToRequest = new HashSet<>(categories);
-        HashMap<Long, ArrayList<Long>> parentToChildren = new HashMap<>();
-
-        List<CategoriesRecord> usersCategories = categoryDatabase.getCategories(userId);
+        BigDecimal[] amounts = new BigDecimal[index.size()];
+        Arrays.fill(amounts, BigDecimal.ZERO);
 
-        usersCategories.forEach(t -> {
-            BudgetTree tree = BudgetTree.of(t.getParentsTree());
+        for (var row : sums) {
+            long currencyId = row.component2();
+            BitSet covering = index.covering(row.component1());
 
-            for (Long categoryId : categories) {
-                if (tree.contains(categoryId)) {
-                    categoriesToRequest.add(t.getId());
+            for (int budget = covering.nextSetBit(0); budget >= 0; budget = covering.nextSetBit(budget + 1)) {
+                if (index.currencyOf(budget) != currencyId)
+                    continue;
 
-                    ArrayList<Long> children = parentToChildren.computeIfAbsent(categoryId, k -> new ArrayList<>());
+                BigDecimal sum = index.dateTypeOf(budget) == 0 ? row.component3() : row.component4();
 
-                    children.add(t.getId());
-
-                    break;
-                }
+                if (sum != null)
+                    amounts[budget] = amounts[budget].add(sum);
             }
-        });
-
-        TransactionsFilter filter = new TransactionsFilter(
-                categoriesToRequest.stream().toList(), null,
-                currencies.stream().toList(),
-                dateRange.getLeft(),
-                dateRange.getRight(),
-                null
-        );
-
-        AnalyticsByMonths analyticsResult = getAnalyticsByMonths(userId, filter);
-        List<CategorySummary> merged = analyticsResult.mergeAll();
-        Map<LocalDate, List<CategorySummary>> analytics = analyticsResult.getTotal();
-
-        ArrayList<CategorySummaryWithBudget> result = new ArrayList<>();
-
-        LocalDate date = referenceDate.toLocalDate().withDayOfMonth(1);
-
-        for (CategoriesBudgetsRecord record : settings) {
-            BigDecimal amount = BigDecimal.ZERO;
-            long currencyId = record.getCurrencyId();
-            long categoryId = record.getCategoryId();
-            short dateType = record.getDateType();
+        }
 
-            List<CategorySummary> entries = Optional.ofNullable(dateType == 0 ? analytics.get(date) : merged).orElse(List.of());
-            List<BigDecimal> toAdd = entries
-                    .stream()
-                    .filter((e) -> e.currencyId() == currencyId &&
-                            (e.categoryId() == categoryId || parentToChildren.getOrDefault(categoryId, new ArrayList<>()).contains(e.categoryId())))
-                    .map(CategorySummary::delta)
-                    .toList();
+        List<CategoriesBudgetsRecord> budgets = index.getBudgets();
+        ArrayList<CategorySummaryWithBudget> result = new ArrayList<>(budgets.size());
 
-            for (BigDecimal decimal : toAdd)
-                amount = amount.add(decimal);
+        for (int i = 0; i < budgets.size(); i++) {
+            CategoriesBudgetsRecord record = budgets.get(i);
 
-            result.add(new CategorySummaryWithBudget(currencyId, categoryId, record.getId(), amount));
+            result.add(new CategorySummaryWithBudget(record.getCurrencyId(), record.getCategoryId(), record.getId(), amounts[i]));
         }
 
         return Collections.unmodifiableList(result);
     }
 
     public List<CategorySummaryWithBudget> getCategoriesAnalytics(int userId, OffsetDateTime referenceDate) {
+        Pair<Integer, OffsetDateTime> key = Pair.of(userId, referenceDate.truncatedTo(ChronoUnit.DAYS));
+        long stamp = transactionsManager.writeStamp();
+
         try {
-            return categoriesSummariesCache.get(Pair.of(userId, referenceDate));
+            List<CategorySummaryWithBudget> result = categoriesSummariesCache.get(key);
+
+            if (!transactionsManager.unchangedSince(stamp))
+                categoriesSummariesCache.invalidate(key);
+
+            return result;
         } catch (ExecutionException e) {
             e.printStackTrace();
         }
@@ -276,101 +243,232 @@ public class AnalyticsManager {
     }
 
     public AnalyticsByMonths getAnalyticsByMonths(int userId, TransactionsFilter filter) {
-        try {
-            return monthsCache.get(Pair.of(userId, filter));
-        } catch (ExecutionException e) {
-            e.printStackTrace();
-        }
+        return getAnalyticsByMonths(userId, filter, ZoneId.systemDefault());
+    }
 
-        return AnalyticsByMonths.EMPTY;
+    public AnalyticsByMonths getAnalyticsByMonths(int userId, TransactionsFilter filter, ZoneId zoneId) {
+        return new AnalyticsByMonths(getAnalytics(userId, filter, zoneId, AnalyticsGranularity.MONTH).getTotal());
     }
 
     public AnalyticsByDays getAnalyticsByDays(int userId, TransactionsFilter filter) {
+        return getAnalyticsByDays(userId, filter, ZoneId.systemDefault());
+    }
+
+    public AnalyticsByDays getAnalyticsByDays(int userId, TransactionsFilter filter, ZoneId zoneId) {
+        return new AnalyticsByDays(getAnalytics(userId, filter, zoneId, AnalyticsGranularity.DAY).getTotal());
+    }
+
+    public AnalyticsByPeriods getAnalytics(int userId, TransactionsFilter filter, ZoneId zoneId, AnalyticsGranularity granularity) {
+        return get(userId, AnalyticsFilter.canonical(filter, zoneId, granularity));
+    }
+
+    public Optional<AnalyticsByMonths> getConvertedAnalyticsByMonths(int userId, TransactionsFilter filter, ZoneId zoneId, long targetCurrencyId) {
+        return getConvertedAnalytics(userId, filter, zoneId, AnalyticsGranularity.MONTH, targetCurrencyId)
+                .map((a) -> new AnalyticsByMonths(a.getTotal()));
+    }
+
+    public Optional<AnalyticsByDays> getConvertedAnalyticsByDays(int userId, TransactionsFilter filter, ZoneId zoneId, long targetCurrencyId) {
+        return getConvertedAnalytics(userId, filter, zoneId, AnalyticsGranularity.DAY, targetCurrencyId)
+                .map((a) -> new AnalyticsByDays(a.getTotal()));
+    }
+
+    public Optional<AnalyticsByPeriods> getConvertedAnalytics(int userId, TransactionsFilter filter, ZoneId zoneId, AnalyticsGranularity granularity, long targetCurrencyId) {
+        Optional<Pair<RatesSnapshot, Map<Long, BigDecimal>>> rates = getRates(userId, targetCurrencyId);
+
+        if (rates.isEmpty())
+            return Optional.empty();
+
+        AnalyticsFilter canonical = AnalyticsFilter.canonical(filter, zoneId, granularity);
+        ConvertedKey key = new ConvertedKey(userId, canonical, targetCurrencyId, rates.get().getLeft().version());
+        AnalyticsByPeriods cached = convertedCache.getIfPresent(key);
+
+        if (cached != null)
+            return Optional.of(cached);
+
+        long stamp = transactionsManager.writeStamp();
+        Optional<AnalyticsByPeriods> converted = get(userId, canonical)
+                .converted(targetCurrencyId, rates.get().getRight());
+
+        if (transactionsManager.unchangedSince(stamp))
+            converted.ifPresent((c) -> convertedCache.put(key, c));
+
+        return converted;
+    }
+
+    protected AnalyticsByPeriods get(int userId, AnalyticsFilter canonical) {
+        Pair<Integer, AnalyticsFilter> covering = findCovering(userId, canonical);
+
+        if (covering != null) {
+            AnalyticsByPeriods cached = cache.getIfPresent(covering);
+
+            if (cached != null)
+                return cached.slice(canonical.toDate(canonical.filter().getFromTime()), canonical.toDate(canonical.filter().getToTime()));
+        }
+
+        Pair<Integer, AnalyticsFilter> key = Pair.of(userId, canonical);
+        long stamp = transactionsManager.writeStamp();
+
         try {
-            return daysCache.get(Pair.of(userId, filter));
+            AnalyticsByPeriods result = cache.get(key);
+
+            // A load racing a write may have read rows the after-commit patch is applied to again, or missed them
+            if (!transactionsManager.unchangedSince(stamp))
+                cache.invalidate(key);
+
+            return result;
         } catch (ExecutionException e) {
             e.printStackTrace();
         }
 
-        return AnalyticsByDays.EMPTY;
+        return AnalyticsByPeriods.EMPTY;
     }
 
-    protected static class Hook<T, Y> implements TransactionActionsHook<T, Y> {
-        protected AnalyticsManager manager;
+    // Quarters and years never touch the database: they are merged from the (possibly already cached) month buckets
+    protected AnalyticsByPeriods load(int userId, AnalyticsFilter filter) {
+        if (filter.granularity().derivedFromMonths())
+            return get(userId, filter.withGranularity(AnalyticsGranularity.MONTH)).rebucket(filter.granularity());
 
-        public Hook(AnalyticsManager manager) {
-            this.manager = manager;
-        }
+        return columnarStore.getAnalytics(userId, filter.filter(), filter.zoneId(), filter.granularity())
+                .orElseGet(() -> database.getAnalytics(userId, filter.filter(), filter.zoneId(), filter.granularity()));
+    }
 
-        protected void invalidate(int userId) {
-            var daysLoaded = manager.loadedDays.getIfPresent(userId);
+    // One snapshot of rates into the target currency, resolved for every currency the user can see
+    protected Optional<Pair<RatesSnapshot, Map<Long, BigDecimal>>> getRates(int userId, long targetCurrencyId) {
+        List<CurrenciesRecord> currencies = currencyDatabase.getUserCurrenciesWithRoot(userId);
 
-            if (daysLoaded != null) {
-                manager.daysCache.invalidateAll(
-                        daysLoaded.stream()
-                                .map((f) -> Pair.of(userId, f))
-                                .toList()
-                );
+        Optional<RatesSnapshot> snapshot = currencies.stream()
+                .filter((c) -> c.getId() == targetCurrencyId)
+                .findFirst()
+                .flatMap((c) -> exchangeManager.getRatesSnapshot(c.getCode().toLowerCase()));
 
-                manager.loadedDays.invalidate(userId);
-            }
+        if (snapshot.isEmpty())
+            return Optional.empty();
 
-            var months = manager.loadedMonths.getIfPresent(userId);
+        HashMap<Long, BigDecimal> rates = new HashMap<>();
 
-            if (months != null) {
-                manager.monthsCache.invalidateAll(
-                        months.stream()
-                                .map((f) -> Pair.of(userId, f))
-                                .toList()
-                );
+        for (CurrenciesRecord currency : currencies) {
+            if (currency.getId() == targetCurrencyId) {
+                rates.put(currency.getId(), BigDecimal.ONE);
 
-                manager.loadedMonths.invalidate(userId);
+                continue;
             }
 
-           var categories = manager.loadedCategoriesSummaries.getIfPresent(userId);
+            snapshot.get().rateFrom(currency.getCode().toLowerCase())
+                    .ifPresent((rate) -> rates.put(currency.getId(), rate));
+        }
+
+        return Optional.of(Pair.of(snapshot.get(), rates));
+    }
+
+    protected Pair<Integer, AnalyticsFilter> findCovering(int userId, AnalyticsFilter filter) {
+        Pair<Integer, AnalyticsFilter> exact = Pair.of(userId, filter);
+
+        if (cache.getIfPresent(exact) != null)
+            return exact;
+
+        HashSet<AnalyticsFilter> filters = loaded.getIfPresent(userId);
+
+        if (filters == null)
+            return null;
+
+        return List.copyOf(filters).stream()
+                .filter((f) -> f.covers(filter))
+                .findFirst()
+                .map((f) -> Pair.of(userId, f))
+                .orElse(null);
+    }
+
+    protected void applyDelta(TransactionsRecord transaction, boolean negate) {
+        int userId = transaction.getOwnerId();
+        long categoryId = transaction.getCategoryId();
+        long currencyId = transaction.getCurrencyId();
+        BigDecimal delta = negate ? transaction.getDelta().negate() : transaction.getDelta();
+
+        HashSet<AnalyticsFilter> filters = loaded.getIfPresent(userId);
+
+        if (filters == null)
+            return;
 
-            if (categories != null) {
-                manager.categoriesSummariesCache.invalidateAll(
-                        categories.stream()
+        for (AnalyticsFilter filter : List.copyOf(filters)) {
+            if (!matches(filter.filter(), transaction))
+                continue;
+
+            Pair<Integer, AnalyticsFilter> key = Pair.of(userId, filter);
+            AnalyticsByPeriods cached = cache.getIfPresent(key);
+
+            if (cached != null)
+                cache.put(key, cached.withDelta(filter.toBucket(transaction.getCreatedAt()), currencyId, categoryId, delta));
+        }
+    }
+
+    protected boolean matches(TransactionsFilter filter, TransactionsRecord transaction) {
+        return filter.matches(
+                transaction.getCategoryId(),
+                transaction.getAccountId(),
+                transaction.getCurrencyId(),
+                transaction.getCreatedAt(),
+                transaction.getDescription()
+        );
+    }
+
+    protected void invalidateConverted(int userId) {
+        convertedCache.asMap().keySet().removeIf((k) -> k.userId() == userId);
+    }
+
+    protected void invalidateCategoriesSummaries(int userId) {
+        var categories = loadedCategoriesSummaries.getIfPresent(userId);
+
+        if (categories == null)
+            return;
+
+        categoriesSummariesCache.invalidateAll(
+                categories.stream()
                         .map((d) -> Pair.of(userId, d))
                         .toList());
 
-                manager.loadedCategoriesSummaries.invalidate(userId);
-            }
-        }
+        loadedCategoriesSummaries.invalidate(userId);
+    }
 
-        @Override
-        public void apply(DSLContext context, T newRecord) {
+    protected void invalidate(int userId) {
+        var filters = loaded.getIfPresent(userId);
 
+        if (filters != null) {
+            cache.invalidateAll(
+                    filters.stream()
+                            .map((f) -> Pair.of(userId, f))
+                            .toList()
+            );
+
+            loaded.invalidate(userId);
         }
 
-        @Override
-        public void edit(DSLContext context, Record record, Y editRecord, long transactionId) {
+        invalidateCategoriesSummaries(userId);
+        invalidateConverted(userId);
+    }
 
-        }
+    protected static class Hook<T, Y> extends CommittedChangesHook<T, Y> {
+        protected AnalyticsManager manager;
 
-        @Override
-        public void cancel(DSLContext context, Record record, long transactionId) {
+        public Hook(AnalyticsManager manager) {
+            super(manager.transactionsManager, manager.databaseWorker);
 
+            this.manager = manager;
         }
 
         @Override
-        public void applied(DSLContext context, T newRecord, long transactionId) {
-            if (newRecord instanceof TransactionNewRecord r) {
-                invalidate(r.userId());
-            }else if (newRecord instanceof TransactionNewInternalRecord r) {
-                invalidate(r.userId());
-            }
+        protected void committed(int userId, List<TransactionsRecord> removed, List<TransactionsRecord> added) {
+            removed.forEach((t) -> manager.applyDelta(t, true));
+            added.forEach((t) -> manager.applyDelta(t, false));
+            manager.invalidateCategoriesSummaries(userId);
+            manager.invalidateConverted(userId);
         }
 
         @Override
-        public void edited(DSLContext context, Record record, Y editRecord, long transactionId) {
-            invalidate(record.get(TRANSACTIONS.OWNER_ID));
+        protected void lost(int userId) {
+            manager.invalidate(userId);
         }
+    }
 
-        @Override
-        public void canceled(DSLContext context, Record record, long transactionId) {
-            invalidate(record.get(TRANSACTIONS.OWNER_ID));
-        }
+    protected record ConvertedKey(int userId, AnalyticsFilter filter, long targetCurrencyId, long ratesVersion) {
     }
 }
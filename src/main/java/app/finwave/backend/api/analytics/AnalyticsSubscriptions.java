@@ -0,0 +1,179 @@
+package app.finwave.backend.api.analytics;
+
+import app.finwave.backend.api.event.WebSocketClient;
+import app.finwave.backend.api.event.messages.response.analytics.AnalyticsUpdate;
+import app.finwave.backend.api.transaction.filter.TransactionsFilter;
+import app.finwave.backend.api.transaction.hook.CommittedChangesHook;
+import app.finwave.backend.api.transaction.manager.TransactionsManager;
+import app.finwave.backend.config.Configs;
+import app.finwave.backend.config.app.AnalyticsConfig;
+import app.finwave.backend.database.DatabaseWorker;
+import app.finwave.backend.jooq.tables.records.TransactionsRecord;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Singleton
+public class AnalyticsSubscriptions {
+    protected AnalyticsConfig config;
+    protected DatabaseWorker databaseWorker;
+
+    protected ConcurrentHashMap<Integer, CopyOnWriteArrayList<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    protected AtomicLong lastId = new AtomicLong();
+
+    @Inject
+    public AnalyticsSubscriptions(DatabaseWorker databaseWorker, Configs configs, TransactionsManager transactionsManager) {
+        this.config = configs.getState(new AnalyticsConfig());
+        this.databaseWorker = databaseWorker;
+
+        transactionsManager.getDefaultActionsWorker().addHook(new Hook<>(this, transactionsManager));
+        transactionsManager.getInternalActionsWorker().addHook(new Hook<>(this, transactionsManager));
+        transactionsManager.getRecurringActionsWorker().addHook(new Hook<>(this, transactionsManager));
+        transactionsManager.getAccumulationActionsWorker().addHook(new Hook<>(this, transactionsManager));
+    }
+
+    // Lists are changed only inside compute calls, so a list emptied and dropped by one call is never added to by another
+    public Optional<Long> subscribe(WebSocketClient client, int userId, AnalyticsFilter filter) {
+        long[] id = {-1};
+
+        subscriptions.compute(userId, (k, userSubscriptions) -> {
+            if (userSubscriptions == null)
+                userSubscriptions = new CopyOnWriteArrayList<>();
+
+            long clientSubscriptions = userSubscriptions.stream()
+                    .filter((s) -> s.client() == client)
+                    .count();
+
+            if (clientSubscriptions < config.maxSubscriptionsPerClient) {
+                id[0] = lastId.incrementAndGet();
+                userSubscriptions.add(new Subscription(id[0], client, filter));
+            }
+
+            return userSubscriptions.isEmpty() ? null : userSubscriptions;
+        });
+
+        return id[0] == -1 ? Optional.empty() : Optional.of(id[0]);
+    }
+
+    public boolean unsubscribe(WebSocketClient client, int userId, long subscriptionId) {
+        boolean[] removed = {false};
+
+        subscriptions.computeIfPresent(userId, (k, userSubscriptions) -> {
+            removed[0] = userSubscriptions.removeIf((s) -> s.id() == subscriptionId && s.client() == client);
+
+            return userSubscriptions.isEmpty() ? null : userSubscriptions;
+        });
+
+        return removed[0];
+    }
+
+    public void removeClient(WebSocketClient client, int userId) {
+        subscriptions.computeIfPresent(userId, (k, userSubscriptions) -> {
+            userSubscriptions.removeIf((s) -> s.client() == client);
+
+            return userSubscriptions.isEmpty() ? null : userSubscriptions;
+        });
+    }
+
+    protected boolean hasSubscriptions(int userId) {
+        CopyOnWriteArrayList<Subscription> userSubscriptions = subscriptions.get(userId);
+
+        return userSubscriptions != null && !userSubscriptions.isEmpty();
+    }
+
+    protected void push(int userId, List<TransactionsRecord> removed, List<TransactionsRecord> added) {
+        CopyOnWriteArrayList<Subscription> userSubscriptions = subscriptions.get(userId);
+
+        if (userSubscriptions == null)
+            return;
+
+        for (Subscription subscription : userSubscriptions) {
+            HashMap<BucketKey, BigDecimal> deltas = new HashMap<>();
+
+            removed.forEach((t) -> subscription.collect(deltas, t, true));
+            added.forEach((t) -> subscription.collect(deltas, t, false));
+
+            List<AnalyticsUpdate.BucketDelta> result = deltas.entrySet().stream()
+                    .filter((e) -> e.getValue().signum() != 0)
+                    .map((e) -> new AnalyticsUpdate.BucketDelta(e.getKey().bucket(), e.getKey().currencyId(), e.getKey().categoryId(), e.getValue()))
+                    .toList();
+
+            if (result.isEmpty())
+                continue;
+
+            send(subscription, new AnalyticsUpdate(subscription.id(), result));
+        }
+    }
+
+    protected void resync(int userId) {
+        CopyOnWriteArrayList<Subscription> userSubscriptions = subscriptions.get(userId);
+
+        if (userSubscriptions == null)
+            return;
+
+        userSubscriptions.forEach((s) -> send(s, new AnalyticsUpdate(s.id())));
+    }
+
+    protected void send(Subscription subscription, AnalyticsUpdate update) {
+        try {
+            subscription.client().send(update);
+        } catch (IOException ignored) {}
+    }
+
+    protected record Subscription(long id, WebSocketClient client, AnalyticsFilter filter) {
+        public void collect(HashMap<BucketKey, BigDecimal> deltas, TransactionsRecord transaction, boolean negate) {
+            TransactionsFilter transactionsFilter = filter.filter();
+
+            boolean matches = transactionsFilter.matches(
+                    transaction.getCategoryId(),
+                    transaction.getAccountId(),
+                    transaction.getCurrencyId(),
+                    transaction.getCreatedAt(),
+                    transaction.getDescription()
+            );
+
+            if (!matches)
+                return;
+
+            LocalDate bucket = filter.toBucket(transaction.getCreatedAt());
+            BigDecimal delta = negate ? transaction.getDelta().negate() : transaction.getDelta();
+
+            deltas.merge(new BucketKey(bucket, transaction.getCurrencyId(), transaction.getCategoryId()), delta, BigDecimal::add);
+        }
+    }
+
+    protected record BucketKey(LocalDate bucket, long currencyId, long categoryId) {
+    }
+
+    protected static class Hook<T, Y> extends CommittedChangesHook<T, Y> {
+        protected AnalyticsSubscriptions subscriptions;
+
+        public Hook(AnalyticsSubscriptions subscriptions, TransactionsManager transactionsManager) {
+            super(transactionsManager, subscriptions.databaseWorker);
+
+            this.subscriptions = subscriptions;
+        }
+
+        @Override
+        protected boolean interested(int userId) {
+            return subscriptions.hasSubscriptions(userId);
+        }
+
+        @Override
+        protected void committed(int userId, List<TransactionsRecord> removed, List<TransactionsRecord> added) {
+            subscriptions.push(userId, removed, added);
+        }
+
+        @Override
+        protected void lost(int userId) {
+            subscriptions.resync(userId);
+        }
+    }
+}
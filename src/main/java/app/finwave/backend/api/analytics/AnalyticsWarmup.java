@@ -0,0 +1,88 @@
+package app.finwave.backend.api.analytics;
+
+import app.finwave.backend.api.transaction.filter.TransactionsFilter;
+import app.finwave.backend.config.Configs;
+import app.finwave.backend.config.app.AnalyticsConfig;
+import app.finwave.backend.config.general.CachingConfig;
+import app.finwave.backend.utils.CacheHandyBuilder;
+import com.google.common.cache.Cache;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+import java.util.concurrent.*;
+
+@Singleton
+public class AnalyticsWarmup {
+    protected static final Logger log = LoggerFactory.getLogger(AnalyticsWarmup.class);
+
+    protected CachingConfig.AnalyticsWarmup config;
+    protected AnalyticsConfig analyticsConfig;
+    protected AnalyticsManager manager;
+
+    protected ThreadPoolExecutor executor;
+
+    protected Set<Integer> pending = ConcurrentHashMap.newKeySet();
+    protected Cache<Integer, Boolean> warmed;
+
+    @Inject
+    public AnalyticsWarmup(Configs configs, AnalyticsManager manager) {
+        this.config = configs.getState(new CachingConfig()).analyticsWarmup;
+        this.analyticsConfig = configs.getState(new AnalyticsConfig());
+        this.manager = manager;
+
+        this.warmed = CacheHandyBuilder.cache("analytics.warmupDedup", config.dedupMinutes, TimeUnit.MINUTES, config.maxDedupEntries);
+
+        this.executor = new ThreadPoolExecutor(
+                config.threads, config.threads,
+                1, TimeUnit.MINUTES,
+                new LinkedBlockingQueue<>(config.queueSize),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public void warmup(int userId) {
+        if (!config.enabled || warmed.getIfPresent(userId) != null || !pending.add(userId))
+            return;
+
+        try {
+            executor.execute(() -> {
+                try {
+                    load(userId);
+                    warmed.put(userId, true);
+                } catch (Exception e) {
+                    log.warn("Failed to warm up analytics for user {}", userId, e);
+                } finally {
+                    pending.remove(userId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(userId);
+        }
+    }
+
+    protected void load(int userId) {
+        OffsetDateTime now = OffsetDateTime.now();
+
+        OffsetDateTime daysFrom = now.minusDays(analyticsConfig.maxTimeRangeDaysForDays / 2);
+        OffsetDateTime monthFrom = now.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS);
+
+        manager.getAnalyticsByDays(userId, TransactionsFilter.EMPTY
+                .setFromTime(daysFrom.isBefore(monthFrom) ? daysFrom : monthFrom)
+                .setToTime(now));
+
+        OffsetDateTime monthsFrom = now.minusDays(analyticsConfig.maxTimeRangeDaysForMonths / 2);
+        OffsetDateTime lastMonthsFrom = monthFrom.minusMonths(config.months);
+
+        manager.getAnalyticsByMonths(userId, TransactionsFilter.EMPTY
+                .setFromTime(monthsFrom.isBefore(lastMonthsFrom) ? monthsFrom : lastMonthsFrom)
+                .setToTime(now));
+
+        manager.getCategoriesAnalytics(userId, now);
+    }
+}
@@ -0,0 +1,242 @@
+package app.finwave.backend.api.analytics.columnar;
+
+import app.finwave.backend.api.analytics.AnalyticsGranularity;
+import app.finwave.backend.api.analytics.result.AnalyticsByPeriods;
+import app.finwave.backend.api.analytics.result.CategorySummary;
+import app.finwave.backend.api.transaction.filter.TransactionsFilter;
+import app.finwave.backend.utils.LongLongHashMap;
+import app.finwave.backend.utils.LongObjectHashMap;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+// Deltas are kept as unscaled longs with a fixed scale; a transaction that does not fit is rejected and the whole store is dropped by the caller
+public class ColumnarTransactions {
+    public static final int DELTA_SCALE = 8;
+
+    protected static final int DAY_BITS = 24;
+
+    protected final int maxSize;
+    protected final ZoneId zoneId;
+
+    protected long[] ids;
+    protected long[] categories;
+    protected long[] accounts;
+    protected long[] currencies;
+    protected long[] createdMicros;
+    protected int[] epochDays;
+    protected long[] deltas;
+
+    protected int size;
+    protected LongLongHashMap positions;
+
+    public ColumnarTransactions(int initialCapacity, int maxSize, ZoneId zoneId) {
+        int capacity = Math.max(16, Math.min(initialCapacity, maxSize));
+
+        this.maxSize = maxSize;
+        this.zoneId = zoneId;
+
+        this.ids = new long[capacity];
+        this.categories = new long[capacity];
+        this.accounts = new long[capacity];
+        this.currencies = new long[capacity];
+        this.createdMicros = new long[capacity];
+        this.epochDays = new int[capacity];
+        this.deltas = new long[capacity];
+
+        this.positions = new LongLongHashMap(capacity);
+    }
+
+    public synchronized boolean add(long id, long categoryId, long accountId, long currencyId, OffsetDateTime createdAt, BigDecimal delta) {
+        long unscaled;
+
+        try {
+            unscaled = delta.setScale(DELTA_SCALE).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            return false;
+        }
+
+        int position;
+
+        if (positions.containsKey(id)) {
+            position = (int) positions.get(id);
+        }else {
+            if (size >= maxSize)
+                return false;
+
+            ensureCapacity(size + 1);
+            position = size++;
+            positions.put(id, position);
+        }
+
+        ids[position] = id;
+        categories[position] = categoryId;
+        accounts[position] = accountId;
+        currencies[position] = currencyId;
+        createdMicros[position] = toMicros(createdAt.toInstant());
+        epochDays[position] = (int) createdAt.atZoneSameInstant(zoneId).toLocalDate().toEpochDay();
+        deltas[position] = unscaled;
+
+        return true;
+    }
+
+    public synchronized void remove(long id) {
+        if (!positions.containsKey(id))
+            return;
+
+        int position = (int) positions.get(id);
+        positions.remove(id);
+
+        int last = --size;
+
+        if (position == last)
+            return;
+
+        ids[position] = ids[last];
+        categories[position] = categories[last];
+        accounts[position] = accounts[last];
+        currencies[position] = currencies[last];
+        createdMicros[position] = createdMicros[last];
+        epochDays[position] = epochDays[last];
+        deltas[position] = deltas[last];
+
+        positions.put(ids[position], position);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public Optional<AnalyticsByPeriods> getAnalytics(TransactionsFilter filter, ZoneId zoneId, AnalyticsGranularity granularity) {
+        return aggregate(filter, granularity, zoneId).map((sums) -> {
+            HashMap<LocalDate, List<CategorySummary>> total = new HashMap<>();
+
+            sums.forEach((currencyId, cells) -> {
+                for (int slot = 0; slot < cells.capacity(); slot++) {
+                    if (!cells.used(slot))
+                        continue;
+
+                    long key = cells.keyAt(slot);
+
+                    total.computeIfAbsent(LocalDate.ofEpochDay(dayOf(key)), (d) -> new ArrayList<>())
+                            .add(toSummary(currencyId, categoryOf(key), cells.valueAt(slot)));
+                }
+            });
+
+            total.replaceAll((k, v) -> Collections.unmodifiableList(v));
+
+            return new AnalyticsByPeriods(total);
+        });
+    }
+
+    // Sums per currency, keyed by category and bucket day packed into one long
+    protected synchronized Optional<LongObjectHashMap<LongLongHashMap>> aggregate(TransactionsFilter filter, AnalyticsGranularity granularity, ZoneId zoneId) {
+        boolean storedZone = zoneId.equals(this.zoneId);
+        long[] categoriesFilter = sortedIds(filter.getCategoriesIds());
+        long[] accountsFilter = sortedIds(filter.getAccountIds());
+        long[] currenciesFilter = sortedIds(filter.getCurrenciesIds());
+        long from = filter.getFromTime() != null ? toMicros(filter.getFromTime().toInstant()) : Long.MIN_VALUE;
+        long to = filter.getToTime() != null ? toMicros(filter.getToTime().toInstant()) : Long.MAX_VALUE;
+
+        LongObjectHashMap<LongLongHashMap> sums = new LongObjectHashMap<>();
+
+        try {
+            for (int i = 0; i < size; i++) {
+                if (createdMicros[i] < from || createdMicros[i] > to)
+                    continue;
+
+                if (categoriesFilter != null && Arrays.binarySearch(categoriesFilter, categories[i]) < 0)
+                    continue;
+
+                if (accountsFilter != null && Arrays.binarySearch(accountsFilter, accounts[i]) < 0)
+                    continue;
+
+                if (currenciesFilter != null && Arrays.binarySearch(currenciesFilter, currencies[i]) < 0)
+                    continue;
+
+                int day = storedZone ? epochDays[i] : epochDay(createdMicros[i], zoneId);
+
+                if (granularity != AnalyticsGranularity.DAY)
+                    day = bucketDay(day, granularity);
+
+                LongLongHashMap cells = sums.get(currencies[i]);
+
+                if (cells == null) {
+                    cells = new LongLongHashMap();
+                    sums.put(currencies[i], cells);
+                }
+
+                cells.addTo(key(categories[i], day), deltas[i]);
+            }
+        } catch (ArithmeticException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+
+        return Optional.of(sums);
+    }
+
+    protected void ensureCapacity(int required) {
+        if (required <= ids.length)
+            return;
+
+        int capacity = (int) Math.min(maxSize, Math.max(required, ids.length * 2L));
+
+        ids = Arrays.copyOf(ids, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        accounts = Arrays.copyOf(accounts, capacity);
+        currencies = Arrays.copyOf(currencies, capacity);
+        createdMicros = Arrays.copyOf(createdMicros, capacity);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        deltas = Arrays.copyOf(deltas, capacity);
+    }
+
+    protected static int epochDay(long micros, ZoneId zoneId) {
+        Instant instant = Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+
+        return (int) instant.atZone(zoneId).toLocalDate().toEpochDay();
+    }
+
+    protected static int bucketDay(int epochDay, AnalyticsGranularity granularity) {
+        return (int) granularity.truncate(LocalDate.ofEpochDay(epochDay)).toEpochDay();
+    }
+
+    protected static long toMicros(Instant instant) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+
+    protected static long[] sortedIds(List<Long> ids) {
+        if (ids == null)
+            return null;
+
+        return ids.stream()
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+    }
+
+    protected static long key(long categoryId, int epochDay) {
+        if (categoryId < 0 || categoryId >= 1L << (63 - DAY_BITS) || epochDay < -(1 << (DAY_BITS - 1)) || epochDay >= 1 << (DAY_BITS - 1))
+            throw new IllegalArgumentException();
+
+        return categoryId << DAY_BITS | (epochDay & ((1L << DAY_BITS) - 1));
+    }
+
+    protected static long categoryOf(long key) {
+        return key >>> DAY_BITS;
+    }
+
+    protected static int dayOf(long key) {
+        return (int) (key << (64 - DAY_BITS) >> (64 - DAY_BITS));
+    }
+
+    protected static CategorySummary toSummary(long currencyId, long categoryId, long unscaledDelta) {
+        BigDecimal delta = BigDecimal.valueOf(unscaledDelta, DELTA_SCALE).stripTrailingZeros();
+
+        return new CategorySummary(currencyId, categoryId, delta.scale() < 0 ? delta.setScale(0) : delta);
+    }
+}
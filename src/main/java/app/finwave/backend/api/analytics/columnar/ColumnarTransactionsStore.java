@@ -0,0 +1,150 @@
+package app.finwave.backend.api.analytics.columnar;
+
+import app.finwave.backend.api.analytics.AnalyticsDatabase;
+import app.finwave.backend.api.analytics.AnalyticsGranularity;
+import app.finwave.backend.api.analytics.result.AnalyticsByPeriods;
+import app.finwave.backend.api.transaction.filter.TransactionsFilter;
+import app.finwave.backend.api.transaction.hook.CommittedChangesHook;
+import app.finwave.backend.api.transaction.manager.TransactionsManager;
+import app.finwave.backend.config.Configs;
+import app.finwave.backend.config.general.CachingConfig;
+import app.finwave.backend.database.DatabaseWorker;
+import app.finwave.backend.jooq.tables.records.TransactionsRecord;
+import app.finwave.backend.utils.CacheHandyBuilder;
+import com.google.common.cache.LoadingCache;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+@Singleton
+public class ColumnarTransactionsStore {
+    protected CachingConfig.ColumnarAnalytics config;
+    protected DatabaseWorker databaseWorker;
+    protected TransactionsManager transactionsManager;
+    protected AnalyticsDatabase database;
+
+    protected LoadingCache<Integer, Optional<ColumnarTransactions>> stores;
+
+    @Inject
+    public ColumnarTransactionsStore(DatabaseWorker databaseWorker, Configs configs, TransactionsManager transactionsManager) {
+        this.config = configs.getState(new CachingConfig()).columnarAnalytics;
+        this.databaseWorker = databaseWorker;
+        this.transactionsManager = transactionsManager;
+        this.database = databaseWorker.get(AnalyticsDatabase.class);
+
+        this.stores = CacheHandyBuilder.loading(
+                "analytics.columnarStores",
+                1, TimeUnit.HOURS,
+                config.maxUsers,
+                this::load
+        );
+
+        if (!config.enabled)
+            return;
+
+        transactionsManager.getDefaultActionsWorker().addHook(new Hook<>(this));
+        transactionsManager.getInternalActionsWorker().addHook(new Hook<>(this));
+        transactionsManager.getRecurringActionsWorker().addHook(new Hook<>(this));
+        transactionsManager.getAccumulationActionsWorker().addHook(new Hook<>(this));
+    }
+
+    public Optional<AnalyticsByPeriods> getAnalytics(int userId, TransactionsFilter filter, ZoneId zoneId, AnalyticsGranularity granularity) {
+        return get(userId, filter).flatMap((s) -> s.getAnalytics(filter, zoneId, granularity));
+    }
+
+    protected Optional<ColumnarTransactions> get(int userId, TransactionsFilter filter) {
+        if (!config.enabled || filter.getDescription() != null)
+            return Optional.empty();
+
+        long stamp = transactionsManager.writeStamp();
+
+        try {
+            Optional<ColumnarTransactions> store = stores.get(userId);
+
+            // A store loaded while a write was open may hold its uncommitted rows or have missed the after-commit patch
+            if (!transactionsManager.unchangedSince(stamp))
+                stores.invalidate(userId);
+
+            return store;
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        }
+
+        return Optional.empty();
+    }
+
+    protected Optional<ColumnarTransactions> load(int userId) {
+        var rows = database.getTransactionsColumns(userId, config.maxTransactionsPerUser + 1);
+
+        if (rows.size() > config.maxTransactionsPerUser)
+            return Optional.empty();
+
+        ColumnarTransactions store = new ColumnarTransactions(rows.size() * 2, config.maxTransactionsPerUser, ZoneId.systemDefault());
+
+        for (var row : rows) {
+            if (!store.add(row.component1(), row.component2(), row.component3(), row.component4(), row.component5(), row.component6()))
+                return Optional.empty();
+        }
+
+        return Optional.of(store);
+    }
+
+    protected void put(List<TransactionsRecord> transactions) {
+        for (TransactionsRecord transaction : transactions) {
+            Optional<ColumnarTransactions> store = stores.getIfPresent(transaction.getOwnerId());
+
+            if (store == null || store.isEmpty())
+                continue;
+
+            boolean added = store.get().add(transaction.getId(),
+                    transaction.getCategoryId(),
+                    transaction.getAccountId(),
+                    transaction.getCurrencyId(),
+                    transaction.getCreatedAt(),
+                    transaction.getDelta());
+
+            if (!added)
+                stores.invalidate(transaction.getOwnerId());
+        }
+    }
+
+    protected void remove(int userId, List<Long> transactionsIds) {
+        Optional<ColumnarTransactions> store = stores.getIfPresent(userId);
+
+        if (store == null || store.isEmpty())
+            return;
+
+        transactionsIds.forEach(store.get()::remove);
+    }
+
+    protected static class Hook<T, Y> extends CommittedChangesHook<T, Y> {
+        protected ColumnarTransactionsStore store;
+
+        public Hook(ColumnarTransactionsStore store) {
+            super(store.transactionsManager, store.databaseWorker);
+
+            this.store = store;
+        }
+
+        @Override
+        protected boolean interested(int userId) {
+            return store.stores.getIfPresent(userId) != null;
+        }
+
+        @Override
+        protected void committed(int userId, List<TransactionsRecord> removed, List<TransactionsRecord> added) {
+            store.remove(userId, removed.stream().map(TransactionsRecord::getId).toList());
+            store.put(added);
+        }
+
+        @Override
+        protected void lost(int userId) {
+            store.stores.invalidate(userId);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package app.finwave.backend.api.analytics.description;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Two sketches per currency: one ranked by transactions count (tracking amount), one ranked by absolute amount (tracking count)
+public class DescriptionsStats {
+    protected static final int VERSION = 1;
+    protected static final int MAX_KEY_LENGTH = 64;
+
+    protected final int capacity;
+    protected HashMap<Long, SpaceSaving> byCount = new HashMap<>();
+    protected HashMap<Long, SpaceSaving> byAmount = new HashMap<>();
+
+    // Mutations counted so far and the count covered by the last successful save
+    protected long changes;
+    protected long savedChanges;
+    protected boolean discarded;
+
+    public DescriptionsStats(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public synchronized void add(long currencyId, String description, double delta) {
+        String key = normalize(description);
+
+        if (key == null)
+            return;
+
+        double amount = Math.abs(delta);
+
+        byCount.computeIfAbsent(currencyId, (c) -> new SpaceSaving(capacity)).add(key, 1, amount);
+        byAmount.computeIfAbsent(currencyId, (c) -> new SpaceSaving(capacity)).add(key, amount, 1);
+
+        changes++;
+    }
+
+    public synchronized void subtract(long currencyId, String description, double delta) {
+        String key = normalize(description);
+
+        if (key == null)
+            return;
+
+        double amount = Math.abs(delta);
+        SpaceSaving count = byCount.get(currencyId);
+        SpaceSaving sum = byAmount.get(currencyId);
+
+        if (count != null)
+            count.subtract(key, 1, amount);
+
+        if (sum != null)
+            sum.subtract(key, amount, 1);
+
+        changes++;
+    }
+
+    public synchronized List<SpaceSaving.Entry> top(long currencyId, int limit, boolean orderByAmount) {
+        SpaceSaving sketch = (orderByAmount ? byAmount : byCount).get(currencyId);
+
+        return sketch == null ? List.of() : sketch.top(limit);
+    }
+
+    public synchronized boolean isDirty() {
+        return !discarded && changes != savedChanges;
+    }
+
+    // Stats which may have missed a change are never saved again, the persisted sketch gets rebuilt instead
+    public synchronized void discard() {
+        discarded = true;
+    }
+
+    public synchronized long changes() {
+        return changes;
+    }
+
+    // Called once the data serialized after reading `changes` has been stored, later mutations keep the stats dirty
+    public synchronized void saved(long changes) {
+        savedChanges = Math.max(savedChanges, changes);
+    }
+
+    public synchronized byte[] serialize() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream stream = new DataOutputStream(bytes)) {
+            stream.writeByte(VERSION);
+            stream.writeInt(capacity);
+            stream.writeInt(byCount.size());
+
+            for (Map.Entry<Long, SpaceSaving> entry : byCount.entrySet()) {
+                stream.writeLong(entry.getKey());
+                entry.getValue().write(stream);
+                byAmount.getOrDefault(entry.getKey(), new SpaceSaving(capacity)).write(stream);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    public static DescriptionsStats deserialize(byte[] data, int capacity) throws IOException {
+        DataInputStream stream = new DataInputStream(new ByteArrayInputStream(data));
+
+        if (stream.readByte() != VERSION || stream.readInt() != capacity)
+            throw new IOException("Unsupported sketch format");
+
+        DescriptionsStats stats = new DescriptionsStats(capacity);
+        int currencies = stream.readInt();
+
+        for (int i = 0; i < currencies; i++) {
+            long currencyId = stream.readLong();
+
+            stats.byCount.put(currencyId, SpaceSaving.read(stream));
+            stats.byAmount.put(currencyId, SpaceSaving.read(stream));
+        }
+
+        return stats;
+    }
+
+    public static String normalize(String description) {
+        if (description == null)
+            return null;
+
+        String line = description.lines().findFirst().orElse("");
+        String key = line.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+
+        if (key.isEmpty())
+            return null;
+
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+}
@@ -0,0 +1,72 @@
+package app.finwave.backend.api.analytics.description;
+
+import app.finwave.backend.database.AbstractDatabase;
+import org.jooq.Cursor;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record1;
+import org.jooq.Record3;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+import static app.finwave.backend.jooq.Tables.DESCRIPTIONS_SKETCHES;
+import static app.finwave.backend.jooq.Tables.REPORTS_DATA_VERSIONS;
+import static app.finwave.backend.jooq.Tables.TRANSACTIONS;
+import static org.jooq.impl.DSL.*;
+
+public class DescriptionsStatsDatabase extends AbstractDatabase {
+    public DescriptionsStatsDatabase(DSLContext context) {
+        super(context);
+    }
+
+    // A sketch is only returned while it was saved at the current data version of the user
+    public Optional<byte[]> getSketch(int userId) {
+        return context.select(DESCRIPTIONS_SKETCHES.DATA)
+                .from(DESCRIPTIONS_SKETCHES)
+                .where(DESCRIPTIONS_SKETCHES.OWNER_ID.eq(userId)
+                        .and(DESCRIPTIONS_SKETCHES.DATA_VERSION.eq(dataVersion(userId))))
+                .fetchOptional()
+                .map(Record1::component1);
+    }
+
+    public void saveSketch(int userId, byte[] data) {
+        OffsetDateTime now = OffsetDateTime.now();
+        Field<Long> version = dataVersion(userId);
+
+        context.insertInto(DESCRIPTIONS_SKETCHES)
+                .set(DESCRIPTIONS_SKETCHES.OWNER_ID, userId)
+                .set(DESCRIPTIONS_SKETCHES.DATA, data)
+                .set(DESCRIPTIONS_SKETCHES.DATA_VERSION, version)
+                .set(DESCRIPTIONS_SKETCHES.UPDATED_AT, now)
+                .onConflict(DESCRIPTIONS_SKETCHES.OWNER_ID)
+                .doUpdate()
+                .set(DESCRIPTIONS_SKETCHES.DATA, data)
+                .set(DESCRIPTIONS_SKETCHES.DATA_VERSION, version)
+                .set(DESCRIPTIONS_SKETCHES.UPDATED_AT, now)
+                .execute();
+    }
+
+    public void markStale(int userId) {
+        context.update(DESCRIPTIONS_SKETCHES)
+                .set(DESCRIPTIONS_SKETCHES.DATA_VERSION, -1L)
+                .where(DESCRIPTIONS_SKETCHES.OWNER_ID.eq(userId))
+                .execute();
+    }
+
+    // Bumped in the same database transaction as every change of the user's transactions
+    protected static Field<Long> dataVersion(int userId) {
+        return coalesce(field(select(REPORTS_DATA_VERSIONS.VERSION)
+                .from(REPORTS_DATA_VERSIONS)
+                .where(REPORTS_DATA_VERSIONS.OWNER_ID.eq(userId))), 0L);
+    }
+
+    public Cursor<Record3<Long, String, BigDecimal>> getDescriptions(int userId) {
+        return context.select(TRANSACTIONS.CURRENCY_ID, TRANSACTIONS.DESCRIPTION, TRANSACTIONS.DELTA)
+                .from(TRANSACTIONS)
+                .where(TRANSACTIONS.OWNER_ID.eq(userId).and(TRANSACTIONS.DESCRIPTION.isNotNull()))
+                .fetchSize(1000)
+                .fetchLazy();
+    }
+}
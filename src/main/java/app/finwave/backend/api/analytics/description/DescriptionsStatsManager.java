@@ -0,0 +1,186 @@
+package app.finwave.backend.api.analytics.description;
+
+import app.finwave.backend.api.transaction.hook.CommittedChangesHook;
+import app.finwave.backend.api.transaction.manager.TransactionsManager;
+import app.finwave.backend.config.Configs;
+import app.finwave.backend.config.app.AnalyticsConfig;
+import app.finwave.backend.config.general.CachingConfig;
+import app.finwave.backend.database.DatabaseWorker;
+import app.finwave.backend.jooq.tables.records.TransactionsRecord;
+import app.finwave.backend.utils.CacheHandyBuilder;
+import com.google.common.cache.Cache;
+import com.google.common.cache.RemovalCause;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@Singleton
+public class DescriptionsStatsManager {
+    protected static final Logger log = LoggerFactory.getLogger(DescriptionsStatsManager.class);
+
+    protected AnalyticsConfig config;
+    protected DatabaseWorker databaseWorker;
+    protected TransactionsManager transactionsManager;
+    protected DescriptionsStatsDatabase database;
+
+    protected Cache<Integer, DescriptionsStats> stats;
+
+    @Inject
+    public DescriptionsStatsManager(DatabaseWorker databaseWorker, Configs configs, TransactionsManager transactionsManager) {
+        this.config = configs.getState(new AnalyticsConfig());
+        this.databaseWorker = databaseWorker;
+        this.transactionsManager = transactionsManager;
+        this.database = databaseWorker.get(DescriptionsStatsDatabase.class);
+
+        this.stats = CacheHandyBuilder.cache(
+                "analytics.descriptionsStats",
+                1, TimeUnit.HOURS,
+                configs.getState(new CachingConfig()).analytics.maxDescriptionsStats,
+                (notification) -> {
+                    if (notification.getCause() == RemovalCause.REPLACED)
+                        return;
+
+                    save(notification.getKey(), notification.getValue());
+                }
+        );
+
+        transactionsManager.getDefaultActionsWorker().addHook(new Hook<>(this));
+        transactionsManager.getInternalActionsWorker().addHook(new Hook<>(this));
+        transactionsManager.getRecurringActionsWorker().addHook(new Hook<>(this));
+        transactionsManager.getAccumulationActionsWorker().addHook(new Hook<>(this));
+    }
+
+    public List<SpaceSaving.Entry> getTop(int userId, long currencyId, int limit, boolean orderByAmount) {
+        long stamp = transactionsManager.writeStamp();
+
+        try {
+            DescriptionsStats userStats = stats.get(userId, () -> loadOrBuild(userId, stamp));
+
+            if (!transactionsManager.unchangedSince(stamp))
+                stats.invalidate(userId);
+
+            return userStats.top(currencyId, limit, orderByAmount);
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        }
+
+        return List.of();
+    }
+
+    public void flush() {
+        stats.asMap().forEach(this::save);
+    }
+
+    // Saved under the transactions lock, so the stored data version covers exactly the changes applied to the stats
+    protected void save(int userId, DescriptionsStats userStats) {
+        if (userStats == null || !userStats.isDirty())
+            return;
+
+        transactionsManager.locked(() -> {
+            long changes = userStats.changes();
+
+            database.saveSketch(userId, userStats.serialize());
+            userStats.saved(changes);
+        });
+    }
+
+    protected Optional<DescriptionsStats> load(int userId) {
+        Optional<byte[]> data = database.getSketch(userId);
+
+        if (data.isEmpty())
+            return Optional.empty();
+
+        try {
+            return Optional.of(DescriptionsStats.deserialize(data.get(), config.descriptionsSketchCapacity));
+        } catch (IOException e) {
+            log.warn("Dropping unreadable descriptions sketch of user {}", userId, e);
+        }
+
+        return Optional.empty();
+    }
+
+    // A change committed while the stats were read is not applied to them by the hooks, so such stats are only served once
+    protected DescriptionsStats loadOrBuild(int userId, long stamp) {
+        DescriptionsStats result = load(userId).orElseGet(() -> {
+            DescriptionsStats built = new DescriptionsStats(config.descriptionsSketchCapacity);
+
+            try (var cursor = database.getDescriptions(userId)) {
+                for (var row : cursor)
+                    built.add(row.component1(), row.component2(), row.component3().doubleValue());
+            }
+
+            return built;
+        });
+
+        transactionsManager.locked(() -> {
+            if (transactionsManager.unchangedSince(stamp)) {
+                save(userId, result);
+            }else {
+                result.discard();
+            }
+        });
+
+        return result;
+    }
+
+    protected void apply(int userId, List<TransactionsRecord> removed, List<TransactionsRecord> added) {
+        boolean described = Stream.concat(removed.stream(), added.stream())
+                .anyMatch((t) -> DescriptionsStats.normalize(t.getDescription()) != null);
+
+        if (!described)
+            return;
+
+        // Users without cached stats are skipped, the change has bumped their data version and the persisted sketch is rebuilt
+        DescriptionsStats userStats = stats.getIfPresent(userId);
+
+        if (userStats == null)
+            return;
+
+        removed.forEach((t) -> userStats.subtract(t.getCurrencyId(), t.getDescription(), t.getDelta().doubleValue()));
+        added.forEach((t) -> userStats.add(t.getCurrencyId(), t.getDescription(), t.getDelta().doubleValue()));
+    }
+
+    // The cached stats are dropped unsaved and the persisted sketch is rebuilt on the next read
+    protected void lost(int userId) {
+        DescriptionsStats cached = stats.getIfPresent(userId);
+
+        if (cached != null)
+            cached.discard();
+
+        stats.invalidate(userId);
+        database.markStale(userId);
+    }
+
+    protected static class Hook<T, Y> extends CommittedChangesHook<T, Y> {
+        protected DescriptionsStatsManager manager;
+
+        public Hook(DescriptionsStatsManager manager) {
+            super(manager.transactionsManager, manager.databaseWorker);
+
+            this.manager = manager;
+        }
+
+        @Override
+        protected boolean interested(int userId) {
+            return manager.stats.getIfPresent(userId) != null;
+        }
+
+        @Override
+        protected void committed(int userId, List<TransactionsRecord> removed, List<TransactionsRecord> added) {
+            manager.apply(userId, removed, added);
+        }
+
+        @Override
+        protected void lost(int userId) {
+            manager.lost(userId);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package app.finwave.backend.api.analytics.description;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+// Weighted Space-Saving: at most `capacity` keys are tracked, a new key replaces the lightest one and inherits its weight as the error bound.
+// Counters are also kept in a min-heap by weight, so the lightest one is found in O(1) and every update costs O(log capacity)
+public class SpaceSaving {
+    protected final int capacity;
+    protected HashMap<String, Counter> counters;
+
+    protected Counter[] heap;
+    protected int size;
+
+    public SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+        this.heap = new Counter[capacity];
+    }
+
+    public void add(String key, double weight, double secondary) {
+        Counter counter = counters.get(key);
+
+        if (counter == null) {
+            if (size < capacity) {
+                counter = new Counter(key);
+                counter.index = size;
+                heap[size++] = counter;
+            }else {
+                counter = heap[0];
+                counters.remove(counter.key);
+
+                counter.key = key;
+                counter.error = counter.weight;
+                counter.secondary = 0;
+            }
+
+            counters.put(key, counter);
+        }
+
+        counter.weight += weight;
+        counter.secondary += secondary;
+
+        // A heavier counter can only move down, a freshly appended leaf can only move up
+        siftDown(counter.index);
+        siftUp(counter.index);
+    }
+
+    // Removals are applied only to tracked keys, an evicted key cannot be decremented
+    public void subtract(String key, double weight, double secondary) {
+        Counter counter = counters.get(key);
+
+        if (counter == null)
+            return;
+
+        counter.weight = Math.max(0, counter.weight - weight);
+        counter.secondary = Math.max(0, counter.secondary - secondary);
+        counter.error = Math.min(counter.error, counter.weight);
+
+        siftUp(counter.index);
+    }
+
+    public List<Entry> top(int limit) {
+        return Arrays.stream(heap, 0, size)
+                .filter((c) -> c.weight > 0)
+                .sorted(Comparator.comparingDouble((Counter c) -> c.weight).reversed())
+                .limit(limit)
+                .map((c) -> new Entry(c.key, c.weight, c.error, c.secondary))
+                .toList();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void write(DataOutputStream stream) throws IOException {
+        stream.writeInt(capacity);
+        stream.writeInt(size);
+
+        for (int i = 0; i < size; i++) {
+            Counter counter = heap[i];
+
+            stream.writeUTF(counter.key);
+            stream.writeDouble(counter.weight);
+            stream.writeDouble(counter.error);
+            stream.writeDouble(counter.secondary);
+        }
+    }
+
+    public static SpaceSaving read(DataInputStream stream) throws IOException {
+        SpaceSaving sketch = new SpaceSaving(stream.readInt());
+        int size = stream.readInt();
+
+        if (size > sketch.capacity)
+            throw new IOException("Sketch holds more keys than its capacity");
+
+        for (int i = 0; i < size; i++) {
+            Counter counter = new Counter(stream.readUTF());
+
+            counter.weight = stream.readDouble();
+            counter.error = stream.readDouble();
+            counter.secondary = stream.readDouble();
+
+            counter.index = sketch.size;
+            sketch.heap[sketch.size++] = counter;
+            sketch.counters.put(counter.key, counter);
+            sketch.siftUp(counter.index);
+        }
+
+        return sketch;
+    }
+
+    protected void siftUp(int index) {
+        Counter counter = heap[index];
+
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+
+            if (heap[parent].weight <= counter.weight)
+                break;
+
+            place(heap[parent], index);
+            index = parent;
+        }
+
+        place(counter, index);
+    }
+
+    protected void siftDown(int index) {
+        Counter counter = heap[index];
+
+        while (true) {
+            int child = 2 * index + 1;
+
+            if (child >= size)
+                break;
+
+            if (child + 1 < size && heap[child + 1].weight < heap[child].weight)
+                child++;
+
+            if (counter.weight <= heap[child].weight)
+                break;
+
+            place(heap[child], index);
+            index = child;
+        }
+
+        place(counter, index);
+    }
+
+    protected void place(Counter counter, int index) {
+        heap[index] = counter;
+        counter.index = index;
+    }
+
+    public record Entry(String key, double weight, double error, double secondary) {
+    }
+
+    protected static class Counter {
+        protected String key;
+        protected int index;
+
+        protected double weight;
+        protected double error;
+        protected double secondary;
+
+        protected Counter(String key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package app.finwave.backend.api.analytics.forecast;
+
+import app.finwave.backend.api.analytics.AnalyticsDatabase;
+import app.finwave.backend.api.analytics.result.AnalyticsByDays;
+import app.finwave.backend.api.analytics.result.CategorySummary;
+import app.finwave.backend.api.analytics.result.Forecast;
+import app.finwave.backend.api.currency.CurrencyDatabase;
+import app.finwave.backend.api.transaction.filter.TransactionsFilter;
+import app.finwave.backend.api.transaction.hook.CommittedChangesHook;
+import app.finwave.backend.api.transaction.manager.TransactionsManager;
+import app.finwave.backend.config.Configs;
+import app.finwave.backend.config.app.AnalyticsConfig;
+import app.finwave.backend.config.general.CachingConfig;
+import app.finwave.backend.database.DatabaseWorker;
+import app.finwave.backend.jooq.tables.records.CurrenciesRecord;
+import app.finwave.backend.jooq.tables.records.TransactionsRecord;
+import app.finwave.backend.utils.CacheHandyBuilder;
+import com.google.common.cache.LoadingCache;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Singleton
+public class ForecastManager {
+    protected AnalyticsConfig config;
+    protected DatabaseWorker databaseWorker;
+    protected TransactionsManager transactionsManager;
+    protected AnalyticsDatabase database;
+    protected CurrencyDatabase currencyDatabase;
+
+    protected LoadingCache<Integer, ForecastState> states;
+
+    @Inject
+    public ForecastManager(DatabaseWorker databaseWorker, Configs configs, TransactionsManager transactionsManager) {
+        this.config = configs.getState(new AnalyticsConfig());
+        this.databaseWorker = databaseWorker;
+        this.transactionsManager = transactionsManager;
+        this.database = databaseWorker.get(AnalyticsDatabase.class);
+        this.currencyDatabase = databaseWorker.get(CurrencyDatabase.class);
+
+        this.states = CacheHandyBuilder.loading(
+                "analytics.forecastStates",
+                1, TimeUnit.DAYS,
+                configs.getState(new CachingConfig()).analytics.maxForecastStates,
+                this::load
+        );
+
+        transactionsManager.getDefaultActionsWorker().addHook(new Hook<>(this));
+        transactionsManager.getInternalActionsWorker().addHook(new Hook<>(this));
+        transactionsManager.getRecurringActionsWorker().addHook(new Hook<>(this));
+        transactionsManager.getAccumulationActionsWorker().addHook(new Hook<>(this));
+    }
+
+    public Forecast getForecast(int userId) {
+        long stamp = transactionsManager.writeStamp();
+        ForecastState state = states.getUnchecked(userId);
+
+        if (!transactionsManager.unchangedSince(stamp))
+            states.invalidate(userId);
+
+        Map<Long, Integer> decimals = currencyDatabase.getUserCurrenciesWithRoot(userId).stream()
+                .collect(Collectors.toMap(CurrenciesRecord::getId, (r) -> r.getDecimals().intValue()));
+
+        return state.forecast(LocalDate.now(zoneId()), decimals);
+    }
+
+    protected ZoneId zoneId() {
+        return AnalyticsDatabase.rollupZone();
+    }
+
+    protected ForecastState load(int userId) {
+        ZoneId zoneId = zoneId();
+        YearMonth current = YearMonth.now(zoneId);
+        YearMonth first = current.minusMonths(config.forecastHistoryMonths);
+
+        TransactionsFilter filter = TransactionsFilter.EMPTY
+                .setFromTime(first.atDay(1).atStartOfDay(zoneId).toOffsetDateTime());
+
+        AnalyticsByDays history = database.getAnalyticsByDays(userId, filter, zoneId);
+        ForecastState state = new ForecastState(first, config.forecastSmoothing);
+
+        new TreeMap<>(history.getTotal()).forEach((day, summaries) -> {
+            for (CategorySummary summary : summaries)
+                state.add(summary.categoryId(), summary.currencyId(), day, summary.delta());
+        });
+
+        state.rollTo(current);
+
+        return state;
+    }
+
+    protected void apply(int userId, List<TransactionsRecord> removed, List<TransactionsRecord> added) {
+        ForecastState state = states.getIfPresent(userId);
+
+        if (state == null)
+            return;
+
+        ZoneId zoneId = zoneId();
+        boolean applied = true;
+
+        for (TransactionsRecord transaction : removed)
+            applied &= add(state, transaction, zoneId, true);
+
+        for (TransactionsRecord transaction : added)
+            applied &= add(state, transaction, zoneId, false);
+
+        if (!applied)
+            states.invalidate(userId);
+    }
+
+    protected boolean add(ForecastState state, TransactionsRecord transaction, ZoneId zoneId, boolean negate) {
+        LocalDate date = transaction.getCreatedAt().atZoneSameInstant(zoneId).toLocalDate();
+        BigDecimal delta = transaction.getDelta();
+
+        return state.add(transaction.getCategoryId(),
+                transaction.getCurrencyId(),
+                date,
+                negate ? delta.negate() : delta);
+    }
+
+    protected static class Hook<T, Y> extends CommittedChangesHook<T, Y> {
+        protected ForecastManager manager;
+
+        public Hook(ForecastManager manager) {
+            super(manager.transactionsManager, manager.databaseWorker);
+
+            this.manager = manager;
+        }
+
+        @Override
+        protected boolean interested(int userId) {
+            return manager.states.getIfPresent(userId) != null;
+        }
+
+        @Override
+        protected void committed(int userId, List<TransactionsRecord> removed, List<TransactionsRecord> added) {
+            manager.apply(userId, removed, added);
+        }
+
+        @Override
+        protected void lost(int userId) {
+            manager.states.invalidate(userId);
+        }
+    }
+}
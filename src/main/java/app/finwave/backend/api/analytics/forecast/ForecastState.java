@@ -0,0 +1,161 @@
+package app.finwave.backend.api.analytics.forecast;
+
+import app.finwave.backend.api.analytics.result.Forecast;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Per category and currency: day sums of the open month, EWMA of closed month totals and EWMA of each day-of-month share of the total.
+// Deltas dated after the open month wait in their own month until the state rolls there
+public class ForecastState {
+    protected static final MathContext CONTEXT = MathContext.DECIMAL64;
+    protected static final int DEFAULT_DECIMALS = 2;
+
+    protected final BigDecimal smoothing;
+
+    protected YearMonth month;
+    protected HashMap<SeriesKey, Series> series = new HashMap<>();
+    protected TreeMap<YearMonth, HashMap<SeriesKey, BigDecimal[]>> pending = new TreeMap<>();
+
+    public ForecastState(YearMonth month, double smoothing) {
+        this.month = month;
+        this.smoothing = BigDecimal.valueOf(smoothing);
+    }
+
+    // Returns false when the date belongs to an already closed month, the state has to be rebuilt then
+    public synchronized boolean add(long categoryId, long currencyId, LocalDate date, BigDecimal delta) {
+        YearMonth target = YearMonth.from(date);
+
+        if (target.isBefore(month))
+            return false;
+
+        SeriesKey key = new SeriesKey(categoryId, currencyId);
+        BigDecimal[] days = target.equals(month) ?
+                series.computeIfAbsent(key, (k) -> new Series()).current :
+                pending.computeIfAbsent(target, (m) -> new HashMap<>()).computeIfAbsent(key, (k) -> zeros());
+
+        int day = date.getDayOfMonth() - 1;
+        days[day] = days[day].add(delta);
+
+        return true;
+    }
+
+    public synchronized void rollTo(YearMonth target) {
+        while (month.isBefore(target)) {
+            int length = month.lengthOfMonth();
+
+            series.values().forEach((s) -> s.close(smoothing, length));
+            month = month.plusMonths(1);
+
+            HashMap<SeriesKey, BigDecimal[]> planned = pending.remove(month);
+
+            if (planned != null)
+                planned.forEach((key, days) -> series.computeIfAbsent(key, (k) -> new Series()).current = days);
+        }
+    }
+
+    public synchronized Forecast forecast(LocalDate today, Map<Long, Integer> decimals) {
+        rollTo(YearMonth.from(today));
+
+        int length = month.lengthOfMonth();
+        int elapsed = YearMonth.from(today).equals(month) ? today.getDayOfMonth() : length;
+
+        ArrayList<Forecast.Entry> entries = new ArrayList<>();
+
+        series.forEach((key, s) -> {
+            BigDecimal monthToDate = s.currentTotal();
+
+            if (monthToDate.signum() == 0 && s.monthlyAverage.signum() == 0)
+                return;
+
+            int scale = decimals.getOrDefault(key.currencyId(), DEFAULT_DECIMALS);
+            BigDecimal projected = monthToDate.add(s.remainingExpected(elapsed, length));
+
+            entries.add(new Forecast.Entry(key.categoryId(), key.currencyId(),
+                    monthToDate,
+                    projected.setScale(scale, RoundingMode.HALF_EVEN),
+                    s.monthlyAverage.setScale(scale, RoundingMode.HALF_EVEN)));
+        });
+
+        return new Forecast(month.atDay(1), elapsed, length, entries);
+    }
+
+    protected static BigDecimal[] zeros() {
+        BigDecimal[] days = new BigDecimal[31];
+        Arrays.fill(days, BigDecimal.ZERO);
+
+        return days;
+    }
+
+    protected record SeriesKey(long categoryId, long currencyId) {
+    }
+
+    protected static class Series {
+        protected BigDecimal[] current = zeros();
+        protected BigDecimal[] seasonality = zeros();
+        protected BigDecimal monthlyAverage = BigDecimal.ZERO;
+        protected int closedMonths;
+
+        protected BigDecimal currentTotal() {
+            BigDecimal total = BigDecimal.ZERO;
+
+            for (BigDecimal day : current)
+                total = total.add(day);
+
+            return total;
+        }
+
+        protected void close(BigDecimal smoothing, int length) {
+            BigDecimal total = currentTotal();
+            BigDecimal keep = BigDecimal.ONE.subtract(smoothing);
+
+            monthlyAverage = closedMonths == 0 ? total : smoothing.multiply(total).add(keep.multiply(monthlyAverage), CONTEXT);
+
+            if (total.signum() != 0) {
+                for (int i = 0; i < seasonality.length; i++) {
+                    BigDecimal share = i < length ? current[i].divide(total, CONTEXT) : BigDecimal.ZERO;
+
+                    seasonality[i] = closedMonths == 0 ? share : smoothing.multiply(share).add(keep.multiply(seasonality[i]), CONTEXT);
+                }
+            }
+
+            closedMonths++;
+            current = zeros();
+        }
+
+        protected BigDecimal remainingExpected(int elapsed, int length) {
+            if (elapsed >= length)
+                return BigDecimal.ZERO;
+
+            if (closedMonths == 0) {
+                return elapsed == 0 ? BigDecimal.ZERO : currentTotal()
+                        .multiply(BigDecimal.valueOf(length - elapsed))
+                        .divide(BigDecimal.valueOf(elapsed), CONTEXT);
+            }
+
+            BigDecimal total = BigDecimal.ZERO;
+            BigDecimal remaining = BigDecimal.ZERO;
+
+            for (int i = 0; i < length; i++) {
+                total = total.add(seasonality[i]);
+
+                if (i >= elapsed)
+                    remaining = remaining.add(seasonality[i]);
+            }
+
+            BigDecimal share = total.signum() != 0 ?
+                    remaining.divide(total, CONTEXT) :
+                    BigDecimal.valueOf(length - elapsed).divide(BigDecimal.valueOf(length), CONTEXT);
+
+            return monthlyAverage.multiply(share, CONTEXT);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package app.finwave.backend.api.analytics.result;
+
+import app.finwave.backend.api.analytics.AnalyticsGranularity;
+import org.flywaydb.core.internal.util.Pair;
+import org.jooq.Record4;
+import app.finwave.backend.api.ApiResponse;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+// Summaries keyed by the first day of each bucket; the granularity of the buckets is decided by whoever built it
+public class AnalyticsByPeriods extends ApiResponse {
+    protected Map<LocalDate, List<CategorySummary>> total;
+
+    public static final AnalyticsByPeriods EMPTY = new AnalyticsByPeriods(List.of());
+
+    public AnalyticsByPeriods(List<Record4<Long, Long, LocalDate, BigDecimal>> result) {
+        HashMap<LocalDate, ArrayList<CategorySummary>> tempMap = new HashMap<>();
+
+        result.forEach((r) -> tempMap.computeIfAbsent(r.component3(), (d) -> new ArrayList<>())
+                .add(new CategorySummary(r.component1(), r.component2(), r.component4())));
+
+        HashMap<LocalDate, List<CategorySummary>> resultMap = new HashMap<>();
+        tempMap.forEach((k, v) -> resultMap.put(k, Collections.unmodifiableList(v)));
+
+        this.total = Collections.unmodifiableMap(resultMap);
+    }
+
+    public AnalyticsByPeriods(Map<LocalDate, List<CategorySummary>> total) {
+        this.total = Collections.unmodifiableMap(total);
+    }
+
+    public Map<LocalDate, List<CategorySummary>> getTotal() {
+        return total;
+    }
+
+    public AnalyticsByPeriods withDelta(LocalDate bucket, long currencyId, long categoryId, BigDecimal delta) {
+        HashMap<LocalDate, List<CategorySummary>> patched = new HashMap<>(total);
+        List<CategorySummary> summaries = CategorySummary.withDelta(total.get(bucket), currencyId, categoryId, delta);
+
+        if (summaries.isEmpty()) {
+            patched.remove(bucket);
+        }else {
+            patched.put(bucket, Collections.unmodifiableList(summaries));
+        }
+
+        return new AnalyticsByPeriods(patched);
+    }
+
+    public AnalyticsByPeriods slice(LocalDate from, LocalDate to) {
+        HashMap<LocalDate, List<CategorySummary>> sliced = new HashMap<>();
+
+        total.forEach((date, summaries) -> {
+            if ((from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to)))
+                sliced.put(date, summaries);
+        });
+
+        return new AnalyticsByPeriods(sliced);
+    }
+
+    // Merges finer buckets into coarser ones, e.g. months into quarters or years
+    public AnalyticsByPeriods rebucket(AnalyticsGranularity granularity) {
+        HashMap<LocalDate, HashMap<Pair<Long, Long>, BigDecimal>> merged = new HashMap<>();
+
+        total.forEach((date, summaries) -> {
+            HashMap<Pair<Long, Long>, BigDecimal> bucket = merged.computeIfAbsent(granularity.truncate(date), (d) -> new HashMap<>());
+
+            summaries.forEach((s) -> bucket.merge(Pair.of(s.currencyId(), s.categoryId()), s.delta(), BigDecimal::add));
+        });
+
+        HashMap<LocalDate, List<CategorySummary>> result = new HashMap<>();
+
+        merged.forEach((date, sums) -> {
+            List<CategorySummary> summaries = sums.entrySet().stream()
+                    .filter((e) -> e.getValue().signum() != 0)
+                    .map((e) -> new CategorySummary(e.getKey().getLeft(), e.getKey().getRight(), e.getValue()))
+                    .toList();
+
+            if (!summaries.isEmpty())
+                result.put(date, summaries);
+        });
+
+        return new AnalyticsByPeriods(result);
+    }
+
+    public List<CategorySummary> mergeAll() {
+        HashMap<Pair<Long, Long>, BigDecimal> mergedMap = new HashMap<>();
+
+        total.forEach((k, v) -> v.forEach((e) -> {
+            Pair<Long, Long> pair = Pair.of(e.currencyId(), e.categoryId());
+
+            mergedMap.put(pair, mergedMap.getOrDefault(pair, BigDecimal.ZERO).add(e.delta()));
+        }));
+
+        return mergedMap.entrySet().stream()
+                .map((e) -> new CategorySummary(e.getKey().getLeft(), e.getKey().getRight(), e.getValue()))
+                .toList();
+    }
+
+    public Optional<AnalyticsByPeriods> converted(long targetCurrencyId, Map<Long, BigDecimal> rates) {
+        HashMap<LocalDate, List<CategorySummary>> converted = new HashMap<>();
+
+        for (var entry : total.entrySet()) {
+            List<CategorySummary> summaries = CategorySummary.convert(entry.getValue(), targetCurrencyId, rates);
+
+            if (summaries == null)
+                return Optional.empty();
+
+            converted.put(entry.getKey(), Collections.unmodifiableList(summaries));
+        }
+
+        return Optional.of(new AnalyticsByPeriods(converted));
+    }
+}
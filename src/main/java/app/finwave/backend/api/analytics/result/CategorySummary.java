@@ -1,6 +1,54 @@
 package app.finwave.backend.api.analytics.result;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public record CategorySummary(long currencyId, long categoryId, BigDecimal delta) {
+    public static ArrayList<CategorySummary> withDelta(List<CategorySummary> summaries, long currencyId, long categoryId, BigDecimal delta) {
+        ArrayList<CategorySummary> result = new ArrayList<>();
+        boolean applied = false;
+
+        if (summaries != null) {
+            for (CategorySummary summary : summaries) {
+                if (summary.currencyId() != currencyId || summary.categoryId() != categoryId) {
+                    result.add(summary);
+
+                    continue;
+                }
+
+                BigDecimal newDelta = summary.delta().add(delta);
+                applied = true;
+
+                if (newDelta.signum() != 0)
+                    result.add(new CategorySummary(currencyId, categoryId, newDelta));
+            }
+        }
+
+        if (!applied && delta.signum() != 0)
+            result.add(new CategorySummary(currencyId, categoryId, delta));
+
+        return result;
+    }
+
+    // Returns null when a rate for one of the currencies is missing
+    public static ArrayList<CategorySummary> convert(List<CategorySummary> summaries, long targetCurrencyId, Map<Long, BigDecimal> rates) {
+        LinkedHashMap<Long, BigDecimal> byCategory = new LinkedHashMap<>();
+
+        for (CategorySummary summary : summaries) {
+            BigDecimal rate = rates.get(summary.currencyId());
+
+            if (rate == null)
+                return null;
+
+            byCategory.merge(summary.categoryId(), summary.delta().multiply(rate), BigDecimal::add);
+        }
+
+        ArrayList<CategorySummary> result = new ArrayList<>(byCategory.size());
+        byCategory.forEach((categoryId, delta) -> result.add(new CategorySummary(targetCurrencyId, categoryId, delta)));
+
+        return result;
+    }
 }
@@ -0,0 +1,24 @@
+package app.finwave.backend.api.analytics.result;
+
+import app.finwave.backend.api.ApiResponse;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public class Forecast extends ApiResponse {
+    public final LocalDate month;
+    public final int elapsedDays;
+    public final int monthDays;
+    public final List<Entry> result;
+
+    public Forecast(LocalDate month, int elapsedDays, int monthDays, List<Entry> result) {
+        this.month = month;
+        this.elapsedDays = elapsedDays;
+        this.monthDays = monthDays;
+        this.result = result;
+    }
+
+    public record Entry(long categoryId, long currencyId, BigDecimal monthToDate, BigDecimal projected, BigDecimal monthlyAverage) {
+    }
+}
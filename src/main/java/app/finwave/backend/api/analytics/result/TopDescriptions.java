@@ -0,0 +1,21 @@
+package app.finwave.backend.api.analytics.result;
+
+import app.finwave.backend.api.ApiResponse;
+
+import java.util.List;
+
+public class TopDescriptions extends ApiResponse {
+    public final long currencyId;
+    public final String orderBy;
+    public final List<Entry> result;
+
+    public TopDescriptions(long currencyId, String orderBy, List<Entry> result) {
+        this.currencyId = currencyId;
+        this.orderBy = orderBy;
+        this.result = result;
+    }
+
+    // Values are approximate; maxError bounds the overestimation of the ranked value
+    public record Entry(String description, double count, double amount, double maxError) {
+    }
+}
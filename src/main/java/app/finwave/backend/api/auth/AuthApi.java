@@ -1,5 +1,6 @@
 package app.finwave.backend.api.auth;
 
+import app.finwave.backend.api.analytics.AnalyticsWarmup;
 import app.finwave.backend.api.session.SessionManager;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -24,11 +25,13 @@ public class AuthApi {
     protected UserConfig config;
     protected AuthDatabase database;
     protected SessionManager sessionManager;
+    protected AnalyticsWarmup analyticsWarmup;
 
     @Inject
-    public AuthApi(DatabaseWorker databaseWorker, SessionManager sessionManager, Configs configs) {
+    public AuthApi(DatabaseWorker databaseWorker, SessionManager sessionManager, AnalyticsWarmup analyticsWarmup, Configs configs) {
         this.database = databaseWorker.get(AuthDatabase.class);
         this.sessionManager = sessionManager;
+        this.analyticsWarmup = analyticsWarmup;
         this.config = configs.getState(new UserConfig());
     }
 
@@ -104,6 +107,8 @@ public class AuthApi {
         if (session.isEmpty())
             halt(500);
 
+        analyticsWarmup.warmup(usersRecord.get().getId());
+
         return new LoginResponse(session.get().getToken(), config.userSessionsLifetimeDays);
     }
 
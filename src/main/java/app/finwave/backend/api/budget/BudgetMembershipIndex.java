@@ -0,0 +1,115 @@
+package app.finwave.backend.api.budget;
+
+import app.finwave.backend.jooq.tables.records.CategoriesBudgetsRecord;
+import app.finwave.backend.jooq.tables.records.CategoriesRecord;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+// Maps every category to the set of budgets (positions in the budgets list) whose category is the category itself or one of its parents
+public class BudgetMembershipIndex {
+    protected static final BitSet NONE = new BitSet(0);
+
+    protected final List<CategoriesBudgetsRecord> budgets;
+    protected final long[] budgetsCurrencies;
+    protected final short[] budgetsDateTypes;
+
+    protected final long[] categories;
+    protected final BitSet[] membership;
+
+    public BudgetMembershipIndex(List<CategoriesBudgetsRecord> budgets, List<CategoriesRecord> categoriesRecords) {
+        this.budgets = budgets;
+        this.budgetsCurrencies = new long[budgets.size()];
+        this.budgetsDateTypes = new short[budgets.size()];
+
+        long[] budgetsCategories = new long[budgets.size()];
+
+        for (int i = 0; i < budgets.size(); i++) {
+            CategoriesBudgetsRecord budget = budgets.get(i);
+
+            budgetsCategories[i] = budget.getCategoryId();
+            budgetsCurrencies[i] = budget.getCurrencyId();
+            budgetsDateTypes[i] = budget.getDateType();
+        }
+
+        long[] direct = Arrays.stream(budgetsCategories).distinct().sorted().toArray();
+        BitSet[] directMembership = new BitSet[direct.length];
+
+        for (int i = 0; i < budgetsCategories.length; i++) {
+            int position = Arrays.binarySearch(direct, budgetsCategories[i]);
+
+            if (directMembership[position] == null)
+                directMembership[position] = new BitSet(budgetsCategories.length);
+
+            directMembership[position].set(i);
+        }
+
+        this.categories = categoriesRecords.stream()
+                .mapToLong(CategoriesRecord::getId)
+                .sorted()
+                .toArray();
+        this.membership = new BitSet[categories.length];
+
+        for (CategoriesRecord category : categoriesRecords) {
+            BitSet covering = null;
+
+            for (long id : path(category)) {
+                int position = Arrays.binarySearch(direct, id);
+
+                if (position < 0)
+                    continue;
+
+                if (covering == null)
+                    covering = new BitSet(budgetsCategories.length);
+
+                covering.or(directMembership[position]);
+            }
+
+            if (covering != null)
+                membership[Arrays.binarySearch(categories, category.getId())] = covering;
+        }
+    }
+
+    public List<CategoriesBudgetsRecord> getBudgets() {
+        return budgets;
+    }
+
+    public int size() {
+        return budgets.size();
+    }
+
+    public BitSet covering(long categoryId) {
+        int position = Arrays.binarySearch(categories, categoryId);
+
+        if (position < 0 || membership[position] == null)
+            return NONE;
+
+        return membership[position];
+    }
+
+    public long currencyOf(int budget) {
+        return budgetsCurrencies[budget];
+    }
+
+    public short dateTypeOf(int budget) {
+        return budgetsDateTypes[budget];
+    }
+
+    protected static long[] path(CategoriesRecord category) {
+        String tree = category.getParentsTree() != null ? category.getParentsTree().data() : "";
+
+        if (tree.isEmpty())
+            return new long[] {category.getId()};
+
+        String[] parents = tree.split("\\.");
+        long[] result = new long[parents.length + 1];
+
+        for (int i = 0; i < parents.length; i++)
+            result[i] = Long.parseLong(parents[i]);
+
+        result[parents.length] = category.getId();
+
+        return result;
+    }
+}
@@ -24,6 +24,7 @@ public class CategoryBudgetManager {
     protected CachingConfig cachingConfig;
 
     protected LoadingCache<Integer, List<CategoriesBudgetsRecord>> listCache;
+    protected LoadingCache<Integer, BudgetMembershipIndex> indexCache;
 
     protected ArrayList<Consumer<Integer>> cacheInvalidationListeners = new ArrayList<>();
 
@@ -35,10 +36,21 @@ public class CategoryBudgetManager {
         this.cachingConfig = configs.getState(new CachingConfig());
 
         this.listCache = CacheHandyBuilder.loading(
+                "categoriesBudget.lists",
                 1, TimeUnit.DAYS,
                 cachingConfig.categoriesBudget.maxLists,
                 database::getList,
-                (notification) -> cacheInvalidationListeners.forEach((listener) -> listener.accept(notification.getKey()))
+                (notification) -> {
+                    indexCache.invalidate(notification.getKey());
+                    cacheInvalidationListeners.forEach((listener) -> listener.accept(notification.getKey()));
+                }
+        );
+
+        this.indexCache = CacheHandyBuilder.loading(
+                "categoriesBudget.indexes",
+                1, TimeUnit.DAYS,
+                cachingConfig.categoriesBudget.maxIndexes,
+                (userId) -> new BudgetMembershipIndex(getSettings(userId), categoryDatabase.getCategories(userId))
         );
     }
 
@@ -56,6 +68,21 @@ public class CategoryBudgetManager {
         return List.of();
     }
 
+    public BudgetMembershipIndex getIndex(int userId) {
+        try {
+            return indexCache.get(userId);
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        }
+
+        return new BudgetMembershipIndex(getSettings(userId), categoryDatabase.getCategories(userId));
+    }
+
+    public void categoriesChanged(int userId) {
+        indexCache.invalidate(userId);
+        cacheInvalidationListeners.forEach((listener) -> listener.accept(userId));
+    }
+
     public Optional<Long> add(int userId, long categoryId, long currencyId, short dateType, BigDecimal amount) {
         Optional<Long> result = database.add(userId, categoryId, currencyId, dateType, amount);
 
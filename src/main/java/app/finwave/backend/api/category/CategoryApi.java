@@ -1,7 +1,9 @@
 package app.finwave.backend.api.category;
 
+import app.finwave.backend.api.budget.CategoryBudgetManager;
 import app.finwave.backend.api.event.WebSocketWorker;
 import app.finwave.backend.api.event.messages.response.NotifyUpdate;
+import app.finwave.backend.api.report.ReportDataVersions;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import spark.Request;
@@ -25,13 +27,18 @@ public class CategoryApi {
     protected CategoryDatabase database;
     protected TransactionConfig config;
     protected WebSocketWorker socketWorker;
+    protected CategoryBudgetManager budgetManager;
+    protected ReportDataVersions dataVersions;
 
     @Inject
-    public CategoryApi(DatabaseWorker databaseWorker, Configs configs, WebSocketWorker socketWorker) {
+    public CategoryApi(DatabaseWorker databaseWorker, Configs configs, WebSocketWorker socketWorker, CategoryBudgetManager budgetManager,
+                       ReportDataVersions dataVersions) {
         this.database = databaseWorker.get(CategoryDatabase.class);
         this.config = configs.getState(new TransactionConfig());
 
         this.socketWorker = socketWorker;
+        this.budgetManager = budgetManager;
+        this.dataVersions = dataVersions;
     }
 
     public Object newCategory(Request request, Response response) {
@@ -70,6 +77,7 @@ public class CategoryApi {
         if (categoryId.isEmpty())
             halt(500);
 
+        budgetManager.categoriesChanged(sessionsRecord.getUserId());
         socketWorker.sendToUser(sessionsRecord.getUserId(), new NotifyUpdate("categories"));
 
         response.status(201);
@@ -101,6 +109,7 @@ public class CategoryApi {
                 .require();
 
         database.editCategoryType(categoryId, (short) type);
+        dataVersions.bump(sessionsRecord.getUserId());
 
         socketWorker.sendToUser(sessionsRecord.getUserId(), new NotifyUpdate("categories"));
 
@@ -136,6 +145,8 @@ public class CategoryApi {
             }
 
             database.setParentToRoot(categoryId);
+            budgetManager.categoriesChanged(sessionsRecord.getUserId());
+            dataVersions.bump(sessionsRecord.getUserId());
 
             socketWorker.sendToUser(sessionsRecord.getUserId(), new NotifyUpdate("categories"));
 
@@ -145,6 +156,8 @@ public class CategoryApi {
         }
 
         database.editCategoryParentId(categoryId, parentId.get());
+        budgetManager.categoriesChanged(sessionsRecord.getUserId());
+        dataVersions.bump(sessionsRecord.getUserId());
 
         response.status(200);
 
@@ -165,6 +178,7 @@ public class CategoryApi {
                 .require();
 
         database.editCategoryName(categoryId, name);
+        dataVersions.bump(sessionsRecord.getUserId());
 
         socketWorker.sendToUser(sessionsRecord.getUserId(), new NotifyUpdate("categories"));
 
@@ -2,6 +2,7 @@ package app.finwave.backend.api.currency;
 
 import app.finwave.backend.api.event.WebSocketWorker;
 import app.finwave.backend.api.event.messages.response.NotifyUpdate;
+import app.finwave.backend.api.report.ReportDataVersions;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import spark.Request;
@@ -25,11 +26,13 @@ public class CurrencyApi {
     protected CurrencyDatabase database;
     protected CurrencyConfig config;
     protected WebSocketWorker socketWorker;
+    protected ReportDataVersions dataVersions;
 
     @Inject
-    public CurrencyApi(DatabaseWorker databaseWorker, Configs configs, WebSocketWorker socketWorker) {
+    public CurrencyApi(DatabaseWorker databaseWorker, Configs configs, WebSocketWorker socketWorker, ReportDataVersions dataVersions) {
         this.database = databaseWorker.get(CurrencyDatabase.class);
         this.socketWorker = socketWorker;
+        this.dataVersions = dataVersions;
 
         config = configs.getState(new CurrencyConfig());
     }
@@ -92,6 +95,7 @@ public class CurrencyApi {
                 .require();
 
         database.editCurrencyCode(currencyId, code);
+        dataVersions.currencyChanged(currencyId);
 
         socketWorker.sendToUser(sessionsRecord.getUserId(), new NotifyUpdate("currencies"));
 
@@ -114,6 +118,7 @@ public class CurrencyApi {
                 .require();
 
         database.editCurrencySymbol(currencyId, symbol);
+        dataVersions.currencyChanged(currencyId);
 
         socketWorker.sendToUser(sessionsRecord.getUserId(), new NotifyUpdate("currencies"));
 
@@ -138,6 +143,7 @@ public class CurrencyApi {
         socketWorker.sendToUser(sessionsRecord.getUserId(), new NotifyUpdate("currencies"));
 
         database.editCurrencyDecimals(currencyId, (short) decimals);
+        dataVersions.currencyChanged(currencyId);
 
         response.status(200);
 
@@ -27,13 +27,19 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Singleton
 public class ExchangeManager {
     protected Cache<Pair<String, String>, BigDecimal> exchangeRateCache;
+    protected Cache<String, RatesSnapshot> snapshotsCache;
+    protected AtomicLong snapshotsVersion = new AtomicLong();
     protected ExchangesConfig.Fawazahmed0Exchanges config;
     protected Gson gson = new Gson();
 
@@ -47,6 +53,31 @@ public class ExchangeManager {
                 .newBuilder()
                 .expireAfterWrite(config.hoursCaching, TimeUnit.HOURS)
                 .build();
+
+        this.snapshotsCache = CacheBuilder
+                .newBuilder()
+                .expireAfterWrite(config.hoursCaching, TimeUnit.HOURS)
+                .build();
+    }
+
+    public Optional<RatesSnapshot> getRatesSnapshot(String toCode) {
+        if (!config.enabled)
+            return Optional.empty();
+
+        RatesSnapshot snapshot = snapshotsCache.getIfPresent(toCode);
+
+        if (snapshot != null)
+            return Optional.of(snapshot);
+
+        Map<String, BigDecimal> result = fawazahmed0Fetch(toCode, 0);
+
+        if (result == null)
+            return Optional.empty();
+
+        snapshot = new RatesSnapshot(toCode, snapshotsVersion.incrementAndGet(), Collections.unmodifiableMap(new HashMap<>(result)));
+        snapshotsCache.put(toCode, snapshot);
+
+        return Optional.of(snapshot);
     }
 
     public BigDecimal getExchangeRate(String fromCode, String toCode) {
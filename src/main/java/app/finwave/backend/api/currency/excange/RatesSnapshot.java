@@ -0,0 +1,20 @@
+package app.finwave.backend.api.currency.excange;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Map;
+import java.util.Optional;
+
+public record RatesSnapshot(String targetCode, long version, Map<String, BigDecimal> targetRates) {
+    public Optional<BigDecimal> rateFrom(String code) {
+        if (targetCode.equals(code))
+            return Optional.of(BigDecimal.ONE);
+
+        BigDecimal rate = targetRates.get(code);
+
+        if (rate == null || rate.signum() <= 0)
+            return Optional.empty();
+
+        return Optional.of(BigDecimal.ONE.divide(rate, MathContext.DECIMAL128));
+    }
+}
@@ -1,16 +1,24 @@
 package app.finwave.backend.api.event;
 
+import app.finwave.backend.api.analytics.AnalyticsFilter;
+import app.finwave.backend.api.analytics.AnalyticsGranularity;
+import app.finwave.backend.api.analytics.AnalyticsSubscriptions;
+import app.finwave.backend.api.analytics.AnalyticsWarmup;
 import app.finwave.backend.api.event.messages.RequestMessage;
 import app.finwave.backend.api.event.messages.ResponseMessage;
 import app.finwave.backend.api.event.messages.requests.AuthMessageBody;
 import app.finwave.backend.api.event.messages.requests.NewNotificationPointBody;
+import app.finwave.backend.api.event.messages.requests.SubscribeAnalyticsBody;
 import app.finwave.backend.api.event.messages.requests.SubscribeNotificationsBody;
+import app.finwave.backend.api.event.messages.requests.UnsubscribeAnalyticsBody;
+import app.finwave.backend.api.event.messages.response.analytics.AnalyticsSubscribeResponse;
 import app.finwave.backend.api.event.messages.response.auth.AuthStatus;
 import app.finwave.backend.api.event.messages.response.GenericResponse;
 import app.finwave.backend.api.event.messages.response.notifications.NotificationPointRegistered;
 import app.finwave.backend.api.event.messages.response.notifications.NotificationSubscribeResponse;
 import app.finwave.backend.api.notification.NotificationDatabase;
 import app.finwave.backend.api.notification.data.point.WebSocketPointData;
+import app.finwave.backend.api.transaction.filter.TransactionsFilter;
 import app.finwave.backend.config.Configs;
 import app.finwave.backend.config.app.NotificationsConfig;
 import app.finwave.backend.jooq.tables.records.UsersSessionsRecord;
@@ -20,6 +28,8 @@ import org.eclipse.jetty.websocket.api.RemoteEndpoint;
 import org.eclipse.jetty.websocket.api.Session;
 
 import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.ZoneId;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.Future;
@@ -34,15 +44,19 @@ public class WebSocketClient {
     protected int userId = -1;
 
     protected NotificationDatabase notificationDatabase;
+    protected AnalyticsWarmup analyticsWarmup;
+    protected AnalyticsSubscriptions analyticsSubscriptions;
 
     protected NotificationsConfig notificationsConfig;
 
-    public WebSocketClient(Session session, NotificationDatabase notificationDatabase, WebSocketWorker worker, Configs configs) {
+    public WebSocketClient(Session session, NotificationDatabase notificationDatabase, WebSocketWorker worker, AnalyticsWarmup analyticsWarmup, AnalyticsSubscriptions analyticsSubscriptions, Configs configs) {
         this.session = session;
         this.remote = session.getRemote();
 
         this.notificationDatabase = notificationDatabase;
         this.worker = worker;
+        this.analyticsWarmup = analyticsWarmup;
+        this.analyticsSubscriptions = analyticsSubscriptions;
 
         this.notificationsConfig = configs.getState(new NotificationsConfig());
     }
@@ -69,6 +83,8 @@ public class WebSocketClient {
                 case "auth" -> auth(message.getBody(AuthMessageBody.class));
                 case "newNotification" -> newNotificationPoint(message.getBody(NewNotificationPointBody.class));
                 case "subscribeNotification" -> subscribeNotifications(message.getBody(SubscribeNotificationsBody.class));
+                case "subscribeAnalytics" -> subscribeAnalytics(message.getBody(SubscribeAnalyticsBody.class));
+                case "unsubscribeAnalytics" -> unsubscribeAnalytics(message.getBody(UnsubscribeAnalyticsBody.class));
                 default -> send(new GenericResponse("Invalid type"));
             }
         }catch (Exception e) {
@@ -108,6 +124,54 @@ public class WebSocketClient {
         send(new NotificationSubscribeResponse(result ? "Subscribed" : "Failed"));
     }
 
+    protected void subscribeAnalytics(SubscribeAnalyticsBody body) throws IOException {
+        if (userId == -1) {
+            send(new AuthStatus("Unauthorized"));
+
+            return;
+        }
+
+        AnalyticsFilter filter;
+
+        try {
+            ZoneId zoneId = body.timeZone != null ? ZoneId.of(body.timeZone).normalized() : ZoneId.systemDefault();
+            TransactionsFilter transactionsFilter = new TransactionsFilter(
+                    body.categoriesIds,
+                    body.accountsIds,
+                    body.currenciesIds,
+                    body.fromTime,
+                    body.toTime,
+                    body.description
+            );
+
+            AnalyticsGranularity granularity = body.granularity != null ?
+                    AnalyticsGranularity.parse(body.granularity) :
+                    (body.byMonths ? AnalyticsGranularity.MONTH : AnalyticsGranularity.DAY);
+
+            filter = AnalyticsFilter.canonical(transactionsFilter, zoneId, granularity);
+        } catch (DateTimeException | IllegalArgumentException e) {
+            send(new GenericResponse("Invalid request", 1));
+
+            return;
+        }
+
+        Optional<Long> subscriptionId = analyticsSubscriptions.subscribe(this, userId, filter);
+
+        send(new AnalyticsSubscribeResponse(subscriptionId.isPresent() ? "Subscribed" : "Too many subscriptions", subscriptionId.orElse(-1L)));
+    }
+
+    protected void unsubscribeAnalytics(UnsubscribeAnalyticsBody body) throws IOException {
+        if (userId == -1) {
+            send(new AuthStatus("Unauthorized"));
+
+            return;
+        }
+
+        boolean result = analyticsSubscriptions.unsubscribe(this, userId, body.subscriptionId);
+
+        send(new AnalyticsSubscribeResponse(result ? "Unsubscribed" : "Failed", body.subscriptionId));
+    }
+
     protected void newNotificationPoint(NewNotificationPointBody body) throws IOException {
         if (userId == -1) {
             send(new AuthStatus("Unauthorized"));
@@ -154,6 +218,8 @@ public class WebSocketClient {
         this.userId = record.get().getUserId();
 
         send(new AuthStatus("Successful"));
+
+        analyticsWarmup.warmup(userId);
     }
 
     public Future<Void> send(ResponseMessage<?> message) throws IOException {
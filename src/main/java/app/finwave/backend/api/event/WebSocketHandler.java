@@ -1,6 +1,8 @@
 package app.finwave.backend.api.event;
 
 import app.finwave.backend.Main;
+import app.finwave.backend.api.analytics.AnalyticsSubscriptions;
+import app.finwave.backend.api.analytics.AnalyticsWarmup;
 import app.finwave.backend.api.notification.NotificationDatabase;
 import app.finwave.backend.config.Configs;
 import app.finwave.backend.database.DatabaseWorker;
@@ -18,6 +20,8 @@ import java.util.concurrent.locks.ReentrantLock;
 public class WebSocketHandler {
     protected WebSocketWorker worker;
     protected NotificationDatabase notificationDatabase;
+    protected AnalyticsWarmup analyticsWarmup;
+    protected AnalyticsSubscriptions analyticsSubscriptions;
     protected Configs configs;
 
     protected HashMap<Session, WebSocketClient> clients = new HashMap<>();
@@ -27,13 +31,15 @@ public class WebSocketHandler {
     public WebSocketHandler() {
         worker = Main.INJ.getInstance(WebSocketWorker.class);
         notificationDatabase = Main.INJ.getInstance(DatabaseWorker.class).get(NotificationDatabase.class);
+        analyticsWarmup = Main.INJ.getInstance(AnalyticsWarmup.class);
+        analyticsSubscriptions = Main.INJ.getInstance(AnalyticsSubscriptions.class);
         configs = Main.INJ.getInstance(Configs.class);
     }
 
     @OnWebSocketConnect
     public void onConnect(Session session) {
         session.setIdleTimeout(60000);
-        WebSocketClient client = new WebSocketClient(session, notificationDatabase, worker, configs);
+        WebSocketClient client = new WebSocketClient(session, notificationDatabase, worker, analyticsWarmup, analyticsSubscriptions, configs);
         lock.lock();
 
         try {
@@ -63,6 +69,7 @@ public class WebSocketHandler {
         }
 
         worker.removeAuthedClient(client, client.userId);
+        analyticsSubscriptions.removeClient(client, client.userId);
     }
 
     @OnWebSocketMessage
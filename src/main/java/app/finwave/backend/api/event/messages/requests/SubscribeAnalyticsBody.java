@@ -0,0 +1,27 @@
+package app.finwave.backend.api.event.messages.requests;
+
+import app.finwave.backend.api.event.messages.MessageBody;
+
+public class SubscribeAnalyticsBody extends MessageBody {
+    public final String categoriesIds;
+    public final String accountsIds;
+    public final String currenciesIds;
+    public final String fromTime;
+    public final String toTime;
+    public final String description;
+    public final String timeZone;
+    public final boolean byMonths;
+    public final String granularity;
+
+    public SubscribeAnalyticsBody(String categoriesIds, String accountsIds, String currenciesIds, String fromTime, String toTime, String description, String timeZone, boolean byMonths, String granularity) {
+        this.categoriesIds = categoriesIds;
+        this.accountsIds = accountsIds;
+        this.currenciesIds = currenciesIds;
+        this.fromTime = fromTime;
+        this.toTime = toTime;
+        this.description = description;
+        this.timeZone = timeZone;
+        this.byMonths = byMonths;
+        this.granularity = granularity;
+    }
+}
@@ -0,0 +1,11 @@
+package app.finwave.backend.api.event.messages.requests;
+
+import app.finwave.backend.api.event.messages.MessageBody;
+
+public class UnsubscribeAnalyticsBody extends MessageBody {
+    public final long subscriptionId;
+
+    public UnsubscribeAnalyticsBody(long subscriptionId) {
+        this.subscriptionId = subscriptionId;
+    }
+}
@@ -0,0 +1,20 @@
+package app.finwave.backend.api.event.messages.response.analytics;
+
+import app.finwave.backend.api.event.messages.MessageBody;
+import app.finwave.backend.api.event.messages.ResponseMessage;
+
+public class AnalyticsSubscribeResponse extends ResponseMessage<AnalyticsSubscribeResponse.SubscribeBody> {
+    public AnalyticsSubscribeResponse(String status, long subscriptionId) {
+        super("subscribeAnalytics", new SubscribeBody(status, subscriptionId));
+    }
+
+    protected static class SubscribeBody extends MessageBody {
+        public final String status;
+        public final long subscriptionId;
+
+        public SubscribeBody(String status, long subscriptionId) {
+            this.status = status;
+            this.subscriptionId = subscriptionId;
+        }
+    }
+}
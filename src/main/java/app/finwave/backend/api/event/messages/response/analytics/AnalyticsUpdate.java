@@ -0,0 +1,44 @@
+package app.finwave.backend.api.event.messages.response.analytics;
+
+import app.finwave.backend.api.event.messages.MessageBody;
+import app.finwave.backend.api.event.messages.ResponseMessage;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public class AnalyticsUpdate extends ResponseMessage<AnalyticsUpdate.UpdateBody> {
+    public AnalyticsUpdate(long subscriptionId, List<BucketDelta> deltas) {
+        super("analyticsUpdate", new UpdateBody(subscriptionId, false, deltas));
+    }
+
+    public AnalyticsUpdate(long subscriptionId) {
+        super("analyticsUpdate", new UpdateBody(subscriptionId, true, List.of()));
+    }
+
+    protected static class UpdateBody extends MessageBody {
+        public final long subscriptionId;
+        public final boolean resync;
+        public final List<BucketDelta> deltas;
+
+        public UpdateBody(long subscriptionId, boolean resync, List<BucketDelta> deltas) {
+            this.subscriptionId = subscriptionId;
+            this.resync = resync;
+            this.deltas = deltas;
+        }
+    }
+
+    public static class BucketDelta {
+        public final LocalDate bucket;
+        public final long currencyId;
+        public final long categoryId;
+        public final BigDecimal delta;
+
+        public BucketDelta(LocalDate bucket, long currencyId, long categoryId, BigDecimal delta) {
+            this.bucket = bucket;
+            this.currencyId = currencyId;
+            this.categoryId = categoryId;
+            this.delta = delta;
+        }
+    }
+}
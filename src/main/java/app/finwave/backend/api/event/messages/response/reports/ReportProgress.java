@@ -0,0 +1,26 @@
+package app.finwave.backend.api.event.messages.response.reports;
+
+import app.finwave.backend.api.event.messages.MessageBody;
+import app.finwave.backend.api.event.messages.ResponseMessage;
+
+public class ReportProgress extends ResponseMessage<ReportProgress.ProgressBody> {
+    public ReportProgress(long reportId, short status, String stage, long processed, long estimatedTotal) {
+        super("reportProgress", new ProgressBody(reportId, status, stage, processed, estimatedTotal));
+    }
+
+    protected static class ProgressBody extends MessageBody {
+        public final long reportId;
+        public final short status;
+        public final String stage;
+        public final long processed;
+        public final long estimatedTotal;
+
+        public ProgressBody(long reportId, short status, String stage, long processed, long estimatedTotal) {
+            this.reportId = reportId;
+            this.status = status;
+            this.stage = stage;
+            this.processed = processed;
+            this.estimatedTotal = estimatedTotal;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package app.finwave.backend.api.files;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Encoding of the bytes stored on disk; the value is stored in files.encoding and null means the file is stored as is
+public enum FileEncoding {
+    IDENTITY(null),
+    GZIP("gzip");
+
+    protected final String value;
+
+    FileEncoding(String value) {
+        this.value = value;
+    }
+
+    public String value() {
+        return value;
+    }
+
+    public OutputStream wrap(OutputStream stream) throws IOException {
+        if (this == GZIP)
+            return new GZIPOutputStream(stream, 8192);
+
+        return stream;
+    }
+
+    public InputStream unwrap(InputStream stream) throws IOException {
+        if (this == GZIP)
+            return new GZIPInputStream(stream, 8192);
+
+        return stream;
+    }
+
+    public static FileEncoding of(String value) {
+        if (value == null)
+            return IDENTITY;
+
+        for (FileEncoding encoding : values()) {
+            if (value.equals(encoding.value))
+                return encoding;
+        }
+
+        throw new IllegalArgumentException("Unknown file encoding: " + value);
+    }
+}
@@ -7,5 +7,5 @@ import java.io.BufferedOutputStream;
 import java.io.OutputStream;
 import java.security.DigestOutputStream;
 
-public record FileWriteData(OutputStream os, DigestOutputStream dos, FilesRecord record) {
+public record FileWriteData(OutputStream os, DigestOutputStream dos, LimitedWithCallbackOutputStream stored, FilesRecord record, FileEncoding encoding) {
 }
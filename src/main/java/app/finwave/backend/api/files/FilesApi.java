@@ -279,7 +279,7 @@ public class FilesApi {
             throw new InvalidParameterException("fileId");
         }
 
-        return verifyAndSend(record.get(), response);
+        return verifyAndSend(record.get(), request, response);
     }
 
     public Object downloadWithAuth(Request request, Response response) {
@@ -293,10 +293,10 @@ public class FilesApi {
         if (record.isEmpty())
             throw new InvalidParameterException("fileId");
 
-        return verifyAndSend(record.get(), response);
+        return verifyAndSend(record.get(), request, response);
     }
 
-    protected Object verifyAndSend(FilesRecord record, Response response) {
+    protected Object verifyAndSend(FilesRecord record, Request request, Response response) {
         if (!manager.verify(record))
             throw new RuntimeException("Verification file checksum failed: does not exist or corrupted");
 
@@ -310,9 +310,21 @@ public class FilesApi {
         response.header("Content-Type", record.getMimeType());
         response.header("Content-Disposition", "attachment;filename=" + URLEncoder.encode(record.getName(), StandardCharsets.UTF_8).replaceAll("\\+", " "));
 
+        // Encoded files are passed through as is when the client can decode them, otherwise they are decoded on the fly
+        FileEncoding encoding = FileEncoding.of(record.getEncoding());
+        boolean passThrough = encoding != FileEncoding.IDENTITY && acceptsEncoding(request, encoding);
+
+        if (encoding != FileEncoding.IDENTITY)
+            response.header("Vary", "Accept-Encoding");
+
+        if (passThrough)
+            response.header("Content-Encoding", encoding.value());
+
         try {
             try(BufferedOutputStream outputStream = new BufferedOutputStream(response.raw().getOutputStream());
-                BufferedInputStream bufferedInputStream = new BufferedInputStream(new FileInputStream(file)))
+                BufferedInputStream bufferedInputStream = new BufferedInputStream(passThrough ?
+                        new FileInputStream(file) :
+                        manager.openDecodedStream(record).orElseThrow()))
             {
                 byte[] buffer = new byte[1024];
                 int len;
@@ -330,6 +342,24 @@ public class FilesApi {
         return response.raw();
     }
 
+    protected boolean acceptsEncoding(Request request, FileEncoding encoding) {
+        String accepted = request.headers("Accept-Encoding");
+
+        if (accepted == null)
+            return false;
+
+        for (String entry : accepted.split(",")) {
+            String[] parts = entry.trim().split(";");
+
+            if (!parts[0].trim().equalsIgnoreCase(encoding.value()))
+                continue;
+
+            return parts.length < 2 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+        }
+
+        return false;
+    }
+
     static class GetListResponse extends ApiResponse {
         public final List<Entry> files;
 
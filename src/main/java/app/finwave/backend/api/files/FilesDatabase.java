@@ -40,13 +40,14 @@ public class FilesDatabase extends AbstractDatabase {
                 .map(Record1::component1);
     }
 
-    public FilesRecord updateFileInfo(String token, long size, String mimeType, String name, String description, String checksum) {
+    public FilesRecord updateFileInfo(String token, long size, String mimeType, String name, String description, String checksum, String encoding) {
         return context.update(FILES)
                 .set(FILES.SIZE, size)
                 .set(FILES.MIME_TYPE, mimeType)
                 .set(FILES.NAME, name)
                 .set(FILES.DESCRIPTION, description)
                 .set(FILES.CHECKSUM, checksum)
+                .set(FILES.ENCODING, encoding)
                 .where(FILES.ID.eq(token))
                 .returningResult(FILES)
                 .fetchOptional()
@@ -57,18 +57,21 @@ public class FilesManager {
         this.socketWorker = socketWorker;
 
         this.fileCache = CacheHandyBuilder.loading(
+                "files.files",
                 7, TimeUnit.DAYS,
                 cachingConfig.files.maxFiles,
                 database::getFile
         );
 
         this.userUsageCache = CacheHandyBuilder.loading(
+                "files.userUsage",
                 7, TimeUnit.DAYS,
                 cachingConfig.files.maxUsages,
                 database::userUsage
         );
 
         this.userFilesCache = CacheHandyBuilder.loading(
+                "files.userFiles",
                 7, TimeUnit.DAYS,
                 cachingConfig.files.maxLists,
                 (userId) -> new ArrayList<>(database.getUserFiles(userId)),
@@ -104,14 +107,22 @@ public class FilesManager {
         fileDeletionListeners.add(listener);
     }
 
+    public FileEncoding getReportsEncoding() {
+        return config.compressReports ? FileEncoding.GZIP : FileEncoding.IDENTITY;
+    }
+
     public Optional<OutputStream> getAndOpenStream(String token, String mimeType, String name, String description) {
+        return getAndOpenStream(token, mimeType, name, description, FileEncoding.IDENTITY);
+    }
+
+    public Optional<OutputStream> getAndOpenStream(String token, String mimeType, String name, String description, FileEncoding encoding) {
         Optional<FilesRecord> filesRecord = getFileRecord(token);
 
         if (filesRecord.isEmpty())
             return Optional.empty();
 
         try {
-            return Optional.of(openStream(filesRecord.get(), mimeType, name, description));
+            return Optional.of(openStream(filesRecord.get(), mimeType, name, description, encoding));
         } catch (IOException | NoSuchAlgorithmException e) {
             e.printStackTrace();
 
@@ -146,6 +157,10 @@ public class FilesManager {
     }
 
     public LimitedWithCallbackOutputStream openStream(FilesRecord record, String mimeType, String name, String description) throws IOException, NoSuchAlgorithmException {
+        return openStream(record, mimeType, name, description, FileEncoding.IDENTITY);
+    }
+
+    public LimitedWithCallbackOutputStream openStream(FilesRecord record, String mimeType, String name, String description, FileEncoding encoding) throws IOException, NoSuchAlgorithmException {
         ReentrantLock userLock = userWriteLocks.computeIfAbsent(record.getOwnerId(), k -> new ReentrantLock());
 
         userLock.lock();
@@ -166,18 +181,26 @@ public class FilesManager {
 
             OutputStream os = new FileOutputStream(file);
             DigestOutputStream dos = new DigestOutputStream(os, md);
-            limitedOutputStream = new LimitedWithCallbackOutputStream(
-                    dos, bytesAvailable,
-                    (s) -> {
-                        try {
-                            saveStream((LimitedWithCallbackOutputStream) s, mimeType, name, description);
-                        }finally {
-                            userLock.unlock();
-                        }
-                    }
-            );
-
-            openStreams.put(limitedOutputStream, new FileWriteData(os, dos, record));
+            StreamCloseListener listener = (s) -> {
+                try {
+                    saveStream((LimitedWithCallbackOutputStream) s, mimeType, name, description);
+                }finally {
+                    userLock.unlock();
+                }
+            };
+
+            LimitedWithCallbackOutputStream stored;
+
+            if (encoding == FileEncoding.IDENTITY) {
+                limitedOutputStream = new LimitedWithCallbackOutputStream(dos, bytesAvailable, listener);
+                stored = limitedOutputStream;
+            }else {
+                // The storage limit and the file size apply to the encoded bytes, so the limit sits under the encoder
+                stored = new LimitedWithCallbackOutputStream(dos, bytesAvailable, (s) -> {});
+                limitedOutputStream = new LimitedWithCallbackOutputStream(encoding.wrap(stored), Long.MAX_VALUE, listener);
+            }
+
+            openStreams.put(limitedOutputStream, new FileWriteData(os, dos, stored, record, encoding));
         }catch (Exception e) {
             userLock.unlock();
 
@@ -206,7 +229,7 @@ public class FilesManager {
         for (byte b : bytes)
             sb.append(String.format("%02x", b));
 
-        updateFileInfo(fileWriteData.record().getId(), stream.getBytesWritten(), mimeType, name, description, sb.toString());
+        updateFileInfo(fileWriteData.record().getId(), fileWriteData.stored().getBytesWritten(), mimeType, name, description, sb.toString(), fileWriteData.encoding().value());
     }
 
     public Optional<FilesRecord> registerNewEmptyFile(int userId, OffsetDateTime createdAt, OffsetDateTime expiresAt, boolean isPublic, String source) {
@@ -233,8 +256,8 @@ public class FilesManager {
         return registerNewEmptyFile(userId, now, now.plusDays(expiresDays), isPublic, source);
     }
 
-    public FilesRecord updateFileInfo(String token, long size, String mimeType, String name, String description, String checksum) {
-        FilesRecord record = database.updateFileInfo(token, size, mimeType, name, description, checksum);
+    public FilesRecord updateFileInfo(String token, long size, String mimeType, String name, String description, String checksum, String encoding) {
+        FilesRecord record = database.updateFileInfo(token, size, mimeType, name, description, checksum, encoding);
 
         if (record != null) {
             fileCache.put(record.getId(), Optional.of(record));
@@ -351,6 +374,24 @@ public class FilesManager {
         return Optional.ofNullable(target.exists() && target.isFile() ? target : null);
     }
 
+    // The file as it was written, decoded from whatever encoding it is stored with; the caller closes the stream
+    public Optional<InputStream> openDecodedStream(FilesRecord fileRecord) throws IOException {
+        Optional<File> file = getFile(fileRecord);
+
+        if (file.isEmpty())
+            return Optional.empty();
+
+        InputStream stream = new FileInputStream(file.get());
+
+        try {
+            return Optional.of(FileEncoding.of(fileRecord.getEncoding()).unwrap(stream));
+        } catch (IOException | RuntimeException e) {
+            stream.close();
+
+            throw e;
+        }
+    }
+
     private File getOrCreateFile(FilesRecord fileRecord) throws IOException {
         File target = getFile(fileRecord.getId());
 
@@ -10,6 +10,7 @@ import io.netty.handler.codec.DateFormatter;
 import spark.Request;
 import spark.Response;
 import app.finwave.backend.api.ApiResponse;
+import app.finwave.backend.api.report.data.ReportStatus;
 import app.finwave.backend.api.report.data.ReportType;
 import app.finwave.backend.api.transaction.filter.TransactionsFilter;
 import app.finwave.backend.config.Configs;
@@ -24,12 +25,13 @@ import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.OffsetDateTime;
-import java.util.Date;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
 
+import static app.finwave.backend.api.ApiResponse.GSON;
 import static spark.Spark.halt;
 
 @Singleton
@@ -42,12 +44,14 @@ public class ReportApi {
     protected FilesManager filesManager;
 
     protected WebSocketWorker socketWorker;
+    protected ReportDataVersions dataVersions;
 
     @Inject
-    public ReportApi(Configs configs, DatabaseWorker databaseWorker, ReportBuilder builder, WebSocketWorker socketWorker, FilesManager filesManager) {
+    public ReportApi(Configs configs, DatabaseWorker databaseWorker, ReportBuilder builder, WebSocketWorker socketWorker, FilesManager filesManager, ReportDataVersions dataVersions) {
         this.config = configs.getState(new ReportConfig());
         this.database = databaseWorker.get(ReportDatabase.class);
         this.builder = builder;
+        this.dataVersions = dataVersions;
 
         this.socketWorker = socketWorker;
         this.filesManager = filesManager;
@@ -74,7 +78,19 @@ public class ReportApi {
                 .matches(ReportRequest::validateLang)
                 .require();
 
-        Optional<FilesRecord> filesRecord = filesManager.registerNewEmptyFile(sessionRecord.getUserId(), config.expiresDays, true, "reports");
+        int userId = sessionRecord.getUserId();
+        ReportType type = ReportType.values()[reportRequest.type];
+        String fingerprint = fingerprint(userId, type, reportRequest.filter, reportRequest.lang);
+
+        Optional<ReportsRecord> existing = database.getReportByFingerprint(userId, fingerprint);
+
+        if (existing.isPresent()) {
+            response.status(existing.get().getStatus() == ReportStatus.AVAILABLE.getShort() ? 200 : 202);
+
+            return new NewReportResponse(existing.get().getId(), existing.get().getFileId());
+        }
+
+        Optional<FilesRecord> filesRecord = filesManager.registerNewEmptyFile(userId, config.expiresDays, true, "reports");
 
         if (filesRecord.isEmpty())
             halt(500);
@@ -83,13 +99,14 @@ public class ReportApi {
                 reportRequest.description,
                 reportRequest.filter,
                 reportRequest.lang,
-                ReportType.values()[reportRequest.type],
-                sessionRecord.getUserId(),
-                filesRecord.get().getId()
+                type,
+                userId,
+                filesRecord.get().getId(),
+                fingerprint
         );
 
         builder.buildAsync(reportId).whenComplete((r, t) -> {
-            socketWorker.sendToUser(sessionRecord.getUserId(), new NotifyUpdate("reports"));
+            socketWorker.sendToUser(userId, new NotifyUpdate("reports"));
         });
 
         response.status(202);
@@ -107,18 +124,39 @@ public class ReportApi {
         return new GetListResponse(records);
     }
 
+    // Same user, type, filter and lang over unchanged transactions means the same file
+    protected String fingerprint(int userId, ReportType type, TransactionsFilter filter, Map<String, String> lang) {
+        String raw = userId + "\n" +
+                type.ordinal() + "\n" +
+                GSON.toJson((filter == null ? TransactionsFilter.EMPTY : filter).normalized()) + "\n" +
+                GSON.toJson(lang == null ? Map.of() : new TreeMap<>(lang)) + "\n" +
+                dataVersions.getVersion(userId);
+
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(raw.getBytes(StandardCharsets.UTF_8));
+
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     record ReportRequest(String description, TransactionsFilter filter, int type, Map<String, String> lang) {
         public boolean validateLang() {
-            if (lang == null)
-                return true;
-
-            for (Map.Entry<String, String> e : lang.entrySet()) {
-                if (e.getKey().length() > 256 || e.getValue().length() > 256)
-                    return false;
-            }
+            return ReportApi.validateLang(lang);
+        }
+    }
 
+    static boolean validateLang(Map<String, String> lang) {
+        if (lang == null)
             return true;
+
+        for (Map.Entry<String, String> e : lang.entrySet()) {
+            if (e.getKey().length() > 256 || e.getValue().length() > 256)
+                return false;
         }
+
+        return true;
     }
 
     static class GetListResponse extends ApiResponse {
@@ -0,0 +1,46 @@
+package app.finwave.backend.api.report;
+
+import app.finwave.backend.database.AbstractDatabase;
+import org.jooq.DSLContext;
+import org.jooq.Record1;
+import org.jooq.impl.DSL;
+
+import static app.finwave.backend.jooq.Tables.ACCOUNTS;
+import static app.finwave.backend.jooq.Tables.REPORTS_DATA_VERSIONS;
+
+public class ReportDataVersionDatabase extends AbstractDatabase {
+    public ReportDataVersionDatabase(DSLContext context) {
+        super(context);
+    }
+
+    public long getVersion(int userId) {
+        return context.select(REPORTS_DATA_VERSIONS.VERSION)
+                .from(REPORTS_DATA_VERSIONS)
+                .where(REPORTS_DATA_VERSIONS.OWNER_ID.eq(userId))
+                .fetchOptional()
+                .map(Record1::component1)
+                .orElse(0L);
+    }
+
+    public void bump(int userId) {
+        context.insertInto(REPORTS_DATA_VERSIONS)
+                .set(REPORTS_DATA_VERSIONS.OWNER_ID, userId)
+                .set(REPORTS_DATA_VERSIONS.VERSION, 1L)
+                .onConflict(REPORTS_DATA_VERSIONS.OWNER_ID)
+                .doUpdate()
+                .set(REPORTS_DATA_VERSIONS.VERSION, REPORTS_DATA_VERSIONS.VERSION.plus(1))
+                .execute();
+    }
+
+    // Shared currencies are shown in the reports of everyone holding an account in them
+    public void bumpCurrencyHolders(long currencyId) {
+        context.insertInto(REPORTS_DATA_VERSIONS, REPORTS_DATA_VERSIONS.OWNER_ID, REPORTS_DATA_VERSIONS.VERSION)
+                .select(DSL.selectDistinct(ACCOUNTS.OWNER_ID, DSL.inline(1L))
+                        .from(ACCOUNTS)
+                        .where(ACCOUNTS.CURRENCY_ID.eq(currencyId)))
+                .onConflict(REPORTS_DATA_VERSIONS.OWNER_ID)
+                .doUpdate()
+                .set(REPORTS_DATA_VERSIONS.VERSION, REPORTS_DATA_VERSIONS.VERSION.plus(1))
+                .execute();
+    }
+}
@@ -0,0 +1,96 @@
+package app.finwave.backend.api.report;
+
+import app.finwave.backend.api.transaction.TransactionDatabase;
+import app.finwave.backend.api.transaction.hook.TransactionActionsHook;
+import app.finwave.backend.api.transaction.manager.TransactionsManager;
+import app.finwave.backend.api.transaction.manager.records.TransactionNewInternalRecord;
+import app.finwave.backend.api.transaction.manager.records.TransactionNewRecord;
+import app.finwave.backend.database.DatabaseWorker;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import org.jooq.DSLContext;
+import org.jooq.Record;
+
+import static app.finwave.backend.jooq.Tables.TRANSACTIONS;
+
+// Versions are kept in the database, so every instance sharing it sees a change committed through any of them. Bumps by
+// the transaction hooks are written in the same database transaction as the change itself
+@Singleton
+public class ReportDataVersions {
+    protected DatabaseWorker databaseWorker;
+    protected ReportDataVersionDatabase database;
+
+    @Inject
+    public ReportDataVersions(DatabaseWorker databaseWorker, TransactionsManager transactionsManager) {
+        this.databaseWorker = databaseWorker;
+        this.database = databaseWorker.get(ReportDataVersionDatabase.class);
+
+        transactionsManager.getDefaultActionsWorker().addHook(new Hook<>(this));
+        transactionsManager.getInternalActionsWorker().addHook(new Hook<>(this));
+        transactionsManager.getRecurringActionsWorker().addHook(new Hook<>(this));
+        transactionsManager.getAccumulationActionsWorker().addHook(new Hook<>(this));
+    }
+
+    public String getVersion(int userId) {
+        return String.valueOf(database.getVersion(userId));
+    }
+
+    // Names of categories, accounts and currencies are part of report content too
+    public void bump(int userId) {
+        database.bump(userId);
+    }
+
+    public void currencyChanged(long currencyId) {
+        database.bumpCurrencyHolders(currencyId);
+    }
+
+    protected void bump(DSLContext context, int userId) {
+        databaseWorker.get(ReportDataVersionDatabase.class, context).bump(userId);
+    }
+
+    protected static class Hook<T, Y> implements TransactionActionsHook<T, Y> {
+        protected ReportDataVersions versions;
+
+        public Hook(ReportDataVersions versions) {
+            this.versions = versions;
+        }
+
+        @Override
+        public void apply(DSLContext context, T newRecord) {
+
+        }
+
+        @Override
+        public void edit(DSLContext context, Record record, Y editRecord, long transactionId) {
+
+        }
+
+        @Override
+        public void cancel(DSLContext context, Record record, long transactionId) {
+
+        }
+
+        @Override
+        public void applied(DSLContext context, T newRecord, long transactionId) {
+            if (newRecord instanceof TransactionNewRecord r) {
+                versions.bump(context, r.userId());
+            }else if (newRecord instanceof TransactionNewInternalRecord r) {
+                versions.bump(context, r.userId());
+            }else {
+                versions.databaseWorker.get(TransactionDatabase.class, context)
+                        .getTransaction(transactionId)
+                        .ifPresent((t) -> versions.bump(context, t.get(TRANSACTIONS.OWNER_ID)));
+            }
+        }
+
+        @Override
+        public void edited(DSLContext context, Record record, Y editRecord, long transactionId) {
+            versions.bump(context, record.get(TRANSACTIONS.OWNER_ID));
+        }
+
+        @Override
+        public void canceled(DSLContext context, Record record, long transactionId) {
+            versions.bump(context, record.get(TRANSACTIONS.OWNER_ID));
+        }
+    }
+}
@@ -6,16 +6,21 @@ import app.finwave.backend.api.report.data.ReportStatus;
 import app.finwave.backend.api.report.data.ReportType;
 import app.finwave.backend.api.transaction.filter.TransactionsFilter;
 import app.finwave.backend.database.AbstractDatabase;
+import app.finwave.backend.jooq.tables.Reports;
 import app.finwave.backend.jooq.tables.records.ReportsRecord;
 import app.finwave.backend.utils.TokenGenerator;
+import org.jooq.Field;
 import org.jooq.Record1;
+import org.jooq.impl.DSL;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import static app.finwave.backend.api.ApiResponse.GSON;
+import static app.finwave.backend.jooq.Tables.FILES;
 import static app.finwave.backend.jooq.Tables.REPORTS;
 
 public class ReportDatabase extends AbstractDatabase {
@@ -24,20 +29,49 @@ public class ReportDatabase extends AbstractDatabase {
     }
 
     public long newReport(String description, TransactionsFilter filter, Map<String, String> langMap, ReportType type, int userId, String fileId) {
+        return newReport(description, filter, langMap, type, userId, fileId, null);
+    }
+
+    public long newReport(String description, TransactionsFilter filter, Map<String, String> langMap, ReportType type, int userId, String fileId, String fingerprint) {
+        return newReport(description, filter, langMap, type, userId, fileId, fingerprint, type.getPriority());
+    }
+
+    public long newReport(String description, TransactionsFilter filter, Map<String, String> langMap, ReportType type, int userId, String fileId, String fingerprint, short priority) {
+        return newReport(description, filter, langMap, type, userId, fileId, fingerprint, priority, false);
+    }
+
+    public long newReport(String description, TransactionsFilter filter, Map<String, String> langMap, ReportType type, int userId, String fileId, String fingerprint, short priority, boolean scheduled) {
         return context.insertInto(REPORTS)
                 .set(REPORTS.DESCRIPTION, description)
                 .set(REPORTS.STATUS, ReportStatus.IN_PROGRESS.getShort())
                 .set(REPORTS.TYPE, (short) type.ordinal())
+                .set(REPORTS.PRIORITY, priority)
                 .set(REPORTS.FILTER, JSONB.valueOf(GSON.toJson(filter)))
                 .set(REPORTS.LANG, JSONB.valueOf(GSON.toJson(langMap)))
                 .set(REPORTS.USER_ID, userId)
                 .set(REPORTS.FILE_ID, fileId)
+                .set(REPORTS.FINGERPRINT, fingerprint)
+                .set(REPORTS.SCHEDULED, scheduled)
                 .returningResult(REPORTS.ID)
                 .fetchOptional()
                 .map(Record1::component1)
                 .orElse(-1L);
     }
 
+    // Failed reports and reports whose file has expired are never reused
+    public Optional<ReportsRecord> getReportByFingerprint(int userId, String fingerprint) {
+        return context.select(REPORTS.fields())
+                .from(REPORTS)
+                .join(FILES).on(FILES.ID.eq(REPORTS.FILE_ID))
+                .where(REPORTS.USER_ID.eq(userId)
+                        .and(REPORTS.FINGERPRINT.eq(fingerprint))
+                        .and(REPORTS.STATUS.ne(ReportStatus.FAILED.getShort()))
+                        .and(FILES.EXPIRES_AT.greaterThan(OffsetDateTime.now())))
+                .orderBy(REPORTS.ID.desc())
+                .limit(1)
+                .fetchOptionalInto(REPORTS);
+    }
+
     public Optional<ReportsRecord> getReportByFile(String fileId) {
         return context.selectFrom(REPORTS)
                 .where(REPORTS.FILE_ID.eq(fileId))
@@ -51,6 +85,83 @@ public class ReportDatabase extends AbstractDatabase {
                 .execute();
     }
 
+    // Marks the most urgent queued report as started, skipping rows other instances are claiming and users at their limit
+    public Optional<ReportsRecord> claimNextReport(int maxRunningPerUser) {
+        Reports queued = REPORTS.as("queued");
+        Reports running = REPORTS.as("running");
+
+        Field<Integer> userRunning = DSL.selectCount()
+                .from(running)
+                .where(running.USER_ID.eq(queued.USER_ID)
+                        .and(running.STATUS.eq(ReportStatus.IN_PROGRESS.getShort()))
+                        .and(running.STARTED_AT.isNotNull()))
+                .asField();
+
+        var next = DSL.select(queued.ID)
+                .from(queued)
+                .where(queued.STATUS.eq(ReportStatus.IN_PROGRESS.getShort())
+                        .and(queued.STARTED_AT.isNull())
+                        .and(userRunning.lt(maxRunningPerUser)))
+                .orderBy(queued.PRIORITY.desc(), queued.ID)
+                .limit(1)
+                .forUpdate()
+                .skipLocked();
+
+        OffsetDateTime now = OffsetDateTime.now();
+
+        return context.update(REPORTS)
+                .set(REPORTS.STARTED_AT, now)
+                .set(REPORTS.HEARTBEAT_AT, now)
+                .where(REPORTS.ID.eq(next))
+                .returning()
+                .fetchOptional();
+    }
+
+    public void renewLeases(Collection<Long> reportsIds) {
+        if (reportsIds.isEmpty())
+            return;
+
+        context.update(REPORTS)
+                .set(REPORTS.HEARTBEAT_AT, OffsetDateTime.now())
+                .where(REPORTS.ID.in(reportsIds)
+                        .and(REPORTS.STATUS.eq(ReportStatus.IN_PROGRESS.getShort()))
+                        .and(REPORTS.STARTED_AT.isNotNull()))
+                .execute();
+    }
+
+    // Reports whose instance stopped renewing the lease (it crashed or was shut down) go back to the queue,
+    // reports other live instances are building are left alone
+    public int requeueExpired(int leaseSeconds) {
+        OffsetDateTime expired = OffsetDateTime.now().minusSeconds(leaseSeconds);
+
+        return context.update(REPORTS)
+                .setNull(REPORTS.STARTED_AT)
+                .setNull(REPORTS.HEARTBEAT_AT)
+                .where(REPORTS.STATUS.eq(ReportStatus.IN_PROGRESS.getShort())
+                        .and(REPORTS.STARTED_AT.isNotNull())
+                        .and(DSL.coalesce(REPORTS.HEARTBEAT_AT, REPORTS.STARTED_AT).lessThan(expired)))
+                .execute();
+    }
+
+    public int getQueuedCount() {
+        return context.selectCount()
+                .from(REPORTS)
+                .where(REPORTS.STATUS.eq(ReportStatus.IN_PROGRESS.getShort())
+                        .and(REPORTS.STARTED_AT.isNull()))
+                .fetchOptional()
+                .map(Record1::component1)
+                .orElse(0);
+    }
+
+    public Optional<OffsetDateTime> getOldestQueuedAt() {
+        return context.select(DSL.min(REPORTS.QUEUED_AT))
+                .from(REPORTS)
+                .where(REPORTS.STATUS.eq(ReportStatus.IN_PROGRESS.getShort())
+                        .and(REPORTS.STARTED_AT.isNull()))
+                .fetchOptional()
+                .map(Record1::component1);
+    }
+
     public Optional<ReportsRecord> getReport(long reportId) {
         return context.selectFrom(REPORTS)
                 .where(REPORTS.ID.eq(reportId))
@@ -0,0 +1,139 @@
+package app.finwave.backend.api.report;
+
+import app.finwave.backend.api.ApiResponse;
+import app.finwave.backend.api.event.WebSocketWorker;
+import app.finwave.backend.api.event.messages.response.NotifyUpdate;
+import app.finwave.backend.api.recurring.RepeatType;
+import app.finwave.backend.api.report.data.ReportType;
+import app.finwave.backend.api.transaction.filter.TransactionsFilter;
+import app.finwave.backend.config.Configs;
+import app.finwave.backend.config.app.ReportConfig;
+import app.finwave.backend.database.DatabaseWorker;
+import app.finwave.backend.http.ApiMessage;
+import app.finwave.backend.jooq.tables.records.ReportSchedulesRecord;
+import app.finwave.backend.jooq.tables.records.UsersSessionsRecord;
+import app.finwave.backend.service.recurring.NextRepeatTools;
+import app.finwave.backend.utils.params.ParamsValidator;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import spark.Request;
+import spark.Response;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static spark.Spark.halt;
+
+@Singleton
+public class ReportScheduleApi {
+    protected ReportConfig config;
+    protected ReportScheduleDatabase database;
+
+    protected WebSocketWorker socketWorker;
+
+    @Inject
+    public ReportScheduleApi(Configs configs, DatabaseWorker databaseWorker, WebSocketWorker socketWorker) {
+        this.config = configs.getState(new ReportConfig());
+        this.database = databaseWorker.get(ReportScheduleDatabase.class);
+
+        this.socketWorker = socketWorker;
+    }
+
+    public Object newSchedule(Request request, Response response) {
+        UsersSessionsRecord sessionRecord = request.attribute("session");
+        int userId = sessionRecord.getUserId();
+
+        ScheduleRequest scheduleRequest = ParamsValidator.bodyObject(request, ScheduleRequest.class)
+                .matches((r) -> r.description == null || !r.description.isBlank() && r.description.length() <= config.maxDescriptionLength)
+                .matches((r) -> r.type >= 0 && r.type < ReportType.values().length)
+                .matches((r) -> r.repeatType >= 0 && r.repeatType < RepeatType.values().length)
+                .matches((r) -> NextRepeatTools.validateArg(RepeatType.values()[r.repeatType], r.repeatArg))
+                .matches((r) -> r.nextRun != null && r.nextRun.isAfter(OffsetDateTime.now()))
+                .matches((r) -> ReportApi.validateLang(r.lang))
+                .require();
+
+        if (database.getSchedulesCount(userId) >= config.maxSchedulesPerUser)
+            halt(409);
+
+        // The time range is set on every run to the period which has just ended
+        TransactionsFilter filter = (scheduleRequest.filter == null ? TransactionsFilter.EMPTY : scheduleRequest.filter)
+                .setFromTime(null)
+                .setToTime(null);
+
+        long scheduleId = database.newSchedule(
+                userId,
+                ReportType.values()[scheduleRequest.type],
+                scheduleRequest.description,
+                filter,
+                scheduleRequest.lang,
+                RepeatType.values()[scheduleRequest.repeatType],
+                scheduleRequest.repeatArg,
+                scheduleRequest.nextRun
+        ).orElseThrow();
+
+        socketWorker.sendToUser(userId, new NotifyUpdate("reportSchedules"));
+
+        response.status(201);
+
+        return new NewScheduleResponse(scheduleId);
+    }
+
+    public Object deleteSchedule(Request request, Response response) {
+        UsersSessionsRecord sessionRecord = request.attribute("session");
+
+        long scheduleId = ParamsValidator
+                .longV(request, "scheduleId")
+                .matches((id) -> database.userOwnSchedule(sessionRecord.getUserId(), id))
+                .require();
+
+        database.deleteSchedule(scheduleId);
+
+        socketWorker.sendToUser(sessionRecord.getUserId(), new NotifyUpdate("reportSchedules"));
+
+        response.status(200);
+
+        return ApiMessage.of("Schedule deleted");
+    }
+
+    public Object getList(Request request, Response response) {
+        UsersSessionsRecord sessionRecord = request.attribute("session");
+
+        List<ReportSchedulesRecord> records = database.getList(sessionRecord.getUserId());
+
+        response.status(200);
+
+        return new GetListResponse(records);
+    }
+
+    record ScheduleRequest(String description, TransactionsFilter filter, int type, Map<String, String> lang,
+                           int repeatType, short repeatArg, OffsetDateTime nextRun) {}
+
+    static class GetListResponse extends ApiResponse {
+        public final List<Entry> schedules;
+
+        public GetListResponse(List<ReportSchedulesRecord> records) {
+            this.schedules = records.stream()
+                    .map((r) -> new Entry(
+                            r.getId(),
+                            r.getDescription(),
+                            r.getType(),
+                            r.getRepeatType(),
+                            r.getRepeatArg(),
+                            r.getNextRun(),
+                            r.getLastRun()
+                    )).toList();
+        }
+
+        record Entry(long scheduleId, String description, short type, short repeatType, short repeatArg,
+                     OffsetDateTime nextRun, OffsetDateTime lastRun) {}
+    }
+
+    static class NewScheduleResponse extends ApiResponse {
+        public final long scheduleId;
+
+        public NewScheduleResponse(long scheduleId) {
+            this.scheduleId = scheduleId;
+        }
+    }
+}
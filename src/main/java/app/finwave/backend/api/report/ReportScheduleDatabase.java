@@ -0,0 +1,90 @@
+package app.finwave.backend.api.report;
+
+import app.finwave.backend.api.recurring.RepeatType;
+import app.finwave.backend.api.report.data.ReportType;
+import app.finwave.backend.api.transaction.filter.TransactionsFilter;
+import app.finwave.backend.database.AbstractDatabase;
+import app.finwave.backend.jooq.tables.records.ReportSchedulesRecord;
+import org.jooq.DSLContext;
+import org.jooq.JSONB;
+import org.jooq.Record1;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static app.finwave.backend.api.ApiResponse.GSON;
+import static app.finwave.backend.jooq.Tables.REPORT_SCHEDULES;
+
+public class ReportScheduleDatabase extends AbstractDatabase {
+    public ReportScheduleDatabase(DSLContext context) {
+        super(context);
+    }
+
+    public Optional<Long> newSchedule(int userId, ReportType type, String description, TransactionsFilter filter, Map<String, String> langMap,
+                                      RepeatType repeatType, short repeatArg, OffsetDateTime nextRun) {
+        return context.insertInto(REPORT_SCHEDULES)
+                .set(REPORT_SCHEDULES.USER_ID, userId)
+                .set(REPORT_SCHEDULES.TYPE, (short) type.ordinal())
+                .set(REPORT_SCHEDULES.DESCRIPTION, description)
+                .set(REPORT_SCHEDULES.FILTER, JSONB.valueOf(GSON.toJson(filter)))
+                .set(REPORT_SCHEDULES.LANG, JSONB.valueOf(GSON.toJson(langMap)))
+                .set(REPORT_SCHEDULES.REPEAT_TYPE, (short) repeatType.ordinal())
+                .set(REPORT_SCHEDULES.REPEAT_ARG, repeatArg)
+                .set(REPORT_SCHEDULES.NEXT_RUN, nextRun)
+                .returningResult(REPORT_SCHEDULES.ID)
+                .fetchOptional()
+                .map(Record1::component1);
+    }
+
+    public void deleteSchedule(long scheduleId) {
+        context.deleteFrom(REPORT_SCHEDULES)
+                .where(REPORT_SCHEDULES.ID.eq(scheduleId))
+                .execute();
+    }
+
+    public List<ReportSchedulesRecord> getList(int userId) {
+        return context.selectFrom(REPORT_SCHEDULES)
+                .where(REPORT_SCHEDULES.USER_ID.eq(userId))
+                .orderBy(REPORT_SCHEDULES.NEXT_RUN.asc(), REPORT_SCHEDULES.ID.desc())
+                .fetch();
+    }
+
+    public int getSchedulesCount(int userId) {
+        return context.selectCount()
+                .from(REPORT_SCHEDULES)
+                .where(REPORT_SCHEDULES.USER_ID.eq(userId))
+                .fetchOptional()
+                .map(Record1::component1)
+                .orElse(0);
+    }
+
+    public boolean userOwnSchedule(int userId, long scheduleId) {
+        return context.select(REPORT_SCHEDULES.ID)
+                .from(REPORT_SCHEDULES)
+                .where(REPORT_SCHEDULES.USER_ID.eq(userId).and(REPORT_SCHEDULES.ID.eq(scheduleId)))
+                .fetchOptional()
+                .isPresent();
+    }
+
+    // Longest overdue first, so a backlog left by a short window is worked off in order. Rows stay locked until the
+    // caller's transaction ends, other instances skip them instead of enqueuing the same period twice
+    public List<ReportSchedulesRecord> getDueSchedules(int limit) {
+        return context.selectFrom(REPORT_SCHEDULES)
+                .where(REPORT_SCHEDULES.NEXT_RUN.lessOrEqual(OffsetDateTime.now()))
+                .orderBy(REPORT_SCHEDULES.NEXT_RUN.asc(), REPORT_SCHEDULES.ID.asc())
+                .limit(limit)
+                .forUpdate()
+                .skipLocked()
+                .fetch();
+    }
+
+    public void updateSchedule(long scheduleId, OffsetDateTime lastRun, OffsetDateTime nextRun) {
+        context.update(REPORT_SCHEDULES)
+                .set(REPORT_SCHEDULES.LAST_RUN, lastRun)
+                .set(REPORT_SCHEDULES.NEXT_RUN, nextRun)
+                .where(REPORT_SCHEDULES.ID.eq(scheduleId))
+                .execute();
+    }
+}
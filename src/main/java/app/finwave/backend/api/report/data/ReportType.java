@@ -1,7 +1,19 @@
 package app.finwave.backend.api.report.data;
 
 public enum ReportType {
-    TRANSACTION_LIST,
-    BY_DAYS,
-    BY_MONTHS
+    TRANSACTION_LIST((short) 0),
+    BY_DAYS((short) 10),
+    BY_MONTHS((short) 10),
+    TRANSACTION_LIST_XLSX((short) 0);
+
+    // Summaries are built from the rollup and finish quickly, so they go ahead of full listings
+    final short priority;
+
+    ReportType(short priority) {
+        this.priority = priority;
+    }
+
+    public short getPriority() {
+        return priority;
+    }
 }
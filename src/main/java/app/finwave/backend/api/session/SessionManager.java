@@ -37,12 +37,14 @@ public class SessionManager {
         CachingConfig.Sessions cacheConfig = configs.getState(new CachingConfig()).sessions;
 
         this.tokenCache = CacheHandyBuilder.loading(
+                "sessions.tokens",
                 1, TimeUnit.DAYS,
                 cacheConfig.maxTokens,
                 (t) -> database.get(t)
         );
 
         this.listCache = CacheHandyBuilder.loading(
+                "sessions.lists",
                 1, TimeUnit.DAYS,
                 cacheConfig.maxLists,
                 (userId) -> {
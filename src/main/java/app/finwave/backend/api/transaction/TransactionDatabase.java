@@ -4,6 +4,9 @@ import org.jooq.*;
 import org.jooq.Record;
 import app.finwave.backend.api.transaction.filter.TransactionsFilter;
 import app.finwave.backend.database.AbstractDatabase;
+import app.finwave.backend.jooq.tables.records.TransactionsRecord;
+import org.jooq.impl.DSL;
+import org.apache.commons.lang3.tuple.Pair;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
@@ -43,6 +46,16 @@ public class TransactionDatabase extends AbstractDatabase {
                 .orElse(0);
     }
 
+    // Oldest and newest creation time of the transactions matching the filter
+    public Optional<Pair<OffsetDateTime, OffsetDateTime>> getTimeRange(int userId, TransactionsFilter filter) {
+        return context.select(DSL.min(TRANSACTIONS.CREATED_AT), DSL.max(TRANSACTIONS.CREATED_AT))
+                .from(TRANSACTIONS)
+                .where(generateFilterCondition(userId, filter))
+                .fetchOptional()
+                .filter((r) -> r.component1() != null && r.component2() != null)
+                .map((r) -> Pair.of(r.component1(), r.component2()));
+    }
+
     public Optional<Record> getTransaction(long id) {
         return context.selectFrom(TRANSACTIONS
                         .leftJoin(TRANSACTIONS_METADATA)
@@ -51,6 +64,19 @@ public class TransactionDatabase extends AbstractDatabase {
                 .fetchOptional();
     }
 
+    public List<TransactionsRecord> getTransactionWithLinked(long id) {
+        return context.selectFrom(TRANSACTIONS)
+                .where(TRANSACTIONS.ID.eq(id)
+                        .or(TRANSACTIONS.ID.in(DSL.select(INTERNAL_TRANSACTIONS_METADATA.TO_TRANSACTION_ID)
+                                .from(INTERNAL_TRANSACTIONS_METADATA)
+                                .where(INTERNAL_TRANSACTIONS_METADATA.FROM_TRANSACTION_ID.eq(id))))
+                        .or(TRANSACTIONS.ID.in(DSL.select(INTERNAL_TRANSACTIONS_METADATA.FROM_TRANSACTION_ID)
+                                .from(INTERNAL_TRANSACTIONS_METADATA)
+                                .where(INTERNAL_TRANSACTIONS_METADATA.TO_TRANSACTION_ID.eq(id))))
+                )
+                .fetch();
+    }
+
     public List<Record> getTransactions(int userId, int offset, int count, TransactionsFilter filter) {
         Condition condition = generateFilterCondition(userId, filter);
 
@@ -63,6 +89,22 @@ public class TransactionDatabase extends AbstractDatabase {
                 .fetch();
     }
 
+    // Keyset page in the same order as getTransactions: pass the created time and id of the last row of the previous page, or nulls for the first page
+    public List<Record> getTransactionsPage(int userId, int count, TransactionsFilter filter, OffsetDateTime lastCreatedAt, Long lastId) {
+        Condition condition = generateFilterCondition(userId, filter);
+
+        if (lastCreatedAt != null && lastId != null)
+            condition = condition.and(DSL.row(TRANSACTIONS.CREATED_AT, TRANSACTIONS.ID).lt(lastCreatedAt, lastId));
+
+        return context.selectFrom(TRANSACTIONS
+                        .leftJoin(TRANSACTIONS_METADATA)
+                        .on(TRANSACTIONS.METADATA_ID.eq(TRANSACTIONS_METADATA.ID)))
+                .where(condition)
+                .orderBy(TRANSACTIONS.CREATED_AT.desc(), TRANSACTIONS.ID.desc())
+                .limit(count)
+                .fetch();
+    }
+
     public static Condition generateFilterCondition(int userId, TransactionsFilter filter) {
         Condition condition = TRANSACTIONS.OWNER_ID.eq(userId);
 
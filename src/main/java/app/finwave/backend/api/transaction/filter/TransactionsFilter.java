@@ -1,9 +1,12 @@
 package app.finwave.backend.api.transaction.filter;
 
+import app.finwave.backend.api.analytics.AnalyticsGranularity;
 import spark.Request;
 import app.finwave.backend.utils.params.ParamsValidator;
 
 import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
@@ -57,6 +60,74 @@ public class TransactionsFilter {
         return fromTime.isBefore(toTime) && (Math.floor((toTime.toEpochSecond() - fromTime.toEpochSecond()) / 86400d) <= maxDaysRange);
     }
 
+    public boolean matches(long categoryId, long accountId, long currencyId, OffsetDateTime created, String description) {
+        if (categoriesIds != null && !categoriesIds.contains(categoryId))
+            return false;
+
+        if (accountIds != null && !accountIds.contains(accountId))
+            return false;
+
+        if (currenciesIds != null && !currenciesIds.contains(currencyId))
+            return false;
+
+        if (fromTime != null && created.isBefore(fromTime))
+            return false;
+
+        if (toTime != null && created.isAfter(toTime))
+            return false;
+
+        if (this.description != null)
+            return description != null && description.toLowerCase().contains(this.description.toLowerCase());
+
+        return true;
+    }
+
+    public TransactionsFilter canonical(AnalyticsGranularity granularity, ZoneId zoneId) {
+        return new TransactionsFilter(
+                normalizeIds(categoriesIds),
+                normalizeIds(accountIds),
+                normalizeIds(currenciesIds),
+                fromTime != null ? granularity.start(fromTime, zoneId) : null,
+                toTime != null ? granularity.end(toTime, zoneId) : null,
+                description
+        );
+    }
+
+    // Same transactions, same representation: sorted ids and UTC times
+    public TransactionsFilter normalized() {
+        return new TransactionsFilter(
+                normalizeIds(categoriesIds),
+                normalizeIds(accountIds),
+                normalizeIds(currenciesIds),
+                fromTime != null ? fromTime.withOffsetSameInstant(ZoneOffset.UTC) : null,
+                toTime != null ? toTime.withOffsetSameInstant(ZoneOffset.UTC) : null,
+                description
+        );
+    }
+
+    public boolean covers(TransactionsFilter other) {
+        if (!Objects.equals(categoriesIds, other.categoriesIds) ||
+                !Objects.equals(accountIds, other.accountIds) ||
+                !Objects.equals(currenciesIds, other.currenciesIds) ||
+                !Objects.equals(description, other.description))
+            return false;
+
+        if (fromTime != null && (other.fromTime == null || fromTime.isAfter(other.fromTime)))
+            return false;
+
+        return toTime == null || (other.toTime != null && !toTime.isBefore(other.toTime));
+    }
+
+    protected static List<Long> normalizeIds(List<Long> ids) {
+        if (ids == null)
+            return null;
+
+        return ids.stream()
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
     protected static List<Long> parseIds(String raw) {
         if (raw == null)
             return null;
@@ -0,0 +1,119 @@
+package app.finwave.backend.api.transaction.hook;
+
+import app.finwave.backend.api.transaction.TransactionDatabase;
+import app.finwave.backend.api.transaction.manager.TransactionsManager;
+import app.finwave.backend.api.transaction.manager.records.TransactionNewInternalRecord;
+import app.finwave.backend.api.transaction.manager.records.TransactionNewRecord;
+import app.finwave.backend.database.DatabaseWorker;
+import app.finwave.backend.jooq.tables.records.TransactionsRecord;
+import org.jooq.DSLContext;
+import org.jooq.Record;
+
+import java.util.List;
+
+import static app.finwave.backend.jooq.Tables.TRANSACTIONS;
+
+// Base for hooks which keep in-memory state in step with transactions. Rows touched by a change, with the linked
+// legs of internal transfers, are read inside the database transaction and handed over only after it has committed;
+// a rolled back change is never seen
+public abstract class CommittedChangesHook<T, Y> implements TransactionActionsHook<T, Y> {
+    protected TransactionsManager transactionsManager;
+    protected DatabaseWorker databaseWorker;
+
+    public CommittedChangesHook(TransactionsManager transactionsManager, DatabaseWorker databaseWorker) {
+        this.transactionsManager = transactionsManager;
+        this.databaseWorker = databaseWorker;
+    }
+
+    protected abstract void committed(int userId, List<TransactionsRecord> removed, List<TransactionsRecord> added);
+
+    // The changed rows could not be read, whatever is kept for the user has to be rebuilt
+    protected abstract void lost(int userId);
+
+    // Lets implementations skip the reads for users they keep nothing for
+    protected boolean interested(int userId) {
+        return true;
+    }
+
+    protected TransactionDatabase transactionDatabase(DSLContext context) {
+        return databaseWorker.get(TransactionDatabase.class, context);
+    }
+
+    protected void afterCommit(int userId, List<TransactionsRecord> removed, List<TransactionsRecord> added) {
+        transactionsManager.afterCommit(() -> {
+            if (removed.isEmpty() && added.isEmpty()) {
+                lost(userId);
+
+                return;
+            }
+
+            committed(userId, removed, added);
+        });
+    }
+
+    @Override
+    public void apply(DSLContext context, T newRecord) {
+
+    }
+
+    @Override
+    public void edit(DSLContext context, Record record, Y editRecord, long transactionId) {
+        int userId = record.get(TRANSACTIONS.OWNER_ID);
+
+        if (!interested(userId))
+            return;
+
+        List<TransactionsRecord> before = transactionDatabase(context).getTransactionWithLinked(transactionId);
+
+        // Read once committed, the transactions lock is still held so nothing else has changed them since
+        transactionsManager.afterCommit(() -> {
+            List<TransactionsRecord> after = databaseWorker.get(TransactionDatabase.class).getTransactionWithLinked(transactionId);
+
+            if (before.isEmpty() || after.isEmpty()) {
+                lost(userId);
+
+                return;
+            }
+
+            committed(userId, before, after);
+        });
+    }
+
+    @Override
+    public void cancel(DSLContext context, Record record, long transactionId) {
+        int userId = record.get(TRANSACTIONS.OWNER_ID);
+
+        if (!interested(userId))
+            return;
+
+        afterCommit(userId, transactionDatabase(context).getTransactionWithLinked(transactionId), List.of());
+    }
+
+    @Override
+    public void applied(DSLContext context, T newRecord, long transactionId) {
+        int userId;
+
+        if (newRecord instanceof TransactionNewRecord r) {
+            userId = r.userId();
+        }else if (newRecord instanceof TransactionNewInternalRecord r) {
+            userId = r.userId();
+        }else {
+            return;
+        }
+
+        if (!interested(userId))
+            return;
+
+        afterCommit(userId, List.of(), transactionDatabase(context).getTransactionWithLinked(transactionId));
+    }
+
+    @Override
+    public void edited(DSLContext context, Record record, Y editRecord, long transactionId) {
+
+    }
+
+    @Override
+    public void canceled(DSLContext context, Record record, long transactionId) {
+
+    }
+}
@@ -0,0 +1,57 @@
+package app.finwave.backend.api.transaction.hook.analytics;
+
+import app.finwave.backend.api.analytics.AnalyticsDatabase;
+import app.finwave.backend.api.transaction.TransactionDatabase;
+import app.finwave.backend.api.transaction.hook.TransactionActionsHook;
+import app.finwave.backend.database.DatabaseWorker;
+import app.finwave.backend.jooq.tables.records.TransactionsRecord;
+import org.jooq.DSLContext;
+import org.jooq.Record;
+
+import java.util.List;
+
+public class AnalyticsRollupHook<T, Y> implements TransactionActionsHook<T, Y> {
+    protected DatabaseWorker databaseWorker;
+
+    public AnalyticsRollupHook(DatabaseWorker databaseWorker) {
+        this.databaseWorker = databaseWorker;
+    }
+
+    @Override
+    public void apply(DSLContext context, T newRecord) {
+
+    }
+
+    @Override
+    public void edit(DSLContext context, Record record, Y editRecord, long transactionId) {
+        databaseWorker.get(AnalyticsDatabase.class, context).subtractFromRollup(List.of(transactionId));
+    }
+
+    @Override
+    public void cancel(DSLContext context, Record record, long transactionId) {
+        databaseWorker.get(AnalyticsDatabase.class, context).subtractFromRollup(withLinked(context, transactionId));
+    }
+
+    @Override
+    public void applied(DSLContext context, T newRecord, long transactionId) {
+        databaseWorker.get(AnalyticsDatabase.class, context).addToRollup(withLinked(context, transactionId));
+    }
+
+    @Override
+    public void edited(DSLContext context, Record record, Y editRecord, long transactionId) {
+        databaseWorker.get(AnalyticsDatabase.class, context).addToRollup(List.of(transactionId));
+    }
+
+    @Override
+    public void canceled(DSLContext context, Record record, long transactionId) {
+
+    }
+
+    protected List<Long> withLinked(DSLContext context, long transactionId) {
+        return databaseWorker.get(TransactionDatabase.class, context)
+                .getTransactionWithLinked(transactionId)
+                .stream()
+                .map(TransactionsRecord::getId)
+                .toList();
+    }
+}
@@ -10,6 +10,7 @@ import app.finwave.backend.api.transaction.hook.TransactionActionsHook;
 import app.finwave.backend.api.transaction.hook.accumulation.AccumulationHook;
 import app.finwave.backend.api.transaction.hook.accumulation.DefaultHook;
 import app.finwave.backend.api.transaction.hook.accumulation.InternalHook;
+import app.finwave.backend.api.transaction.hook.analytics.AnalyticsRollupHook;
 import app.finwave.backend.api.transaction.manager.actions.*;
 import app.finwave.backend.api.transaction.manager.data.TransactionEntry;
 import app.finwave.backend.api.transaction.manager.records.BulkTransactionsRecord;
@@ -18,17 +19,23 @@ import app.finwave.backend.api.transaction.manager.records.TransactionNewInterna
 import app.finwave.backend.api.transaction.manager.records.TransactionNewRecord;
 import app.finwave.backend.api.transaction.metadata.MetadataType;
 import app.finwave.backend.database.DatabaseWorker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 import static app.finwave.backend.jooq.Tables.TRANSACTIONS_METADATA;
 
 @Singleton
 public class TransactionsManager {
+    protected static final Logger log = LoggerFactory.getLogger(TransactionsManager.class);
+
     protected DSLContext context;
     protected DatabaseWorker databaseWorker;
     protected TransactionDatabase transactionDatabase;
@@ -41,6 +48,8 @@ public class TransactionsManager {
     protected HashMap<MetadataType, TransactionActionsWorker<?,?,?>> actionsWorkers = new HashMap<>();
 
     protected ReentrantLock transactionLock = new ReentrantLock();
+    protected ThreadLocal<ArrayList<Runnable>> committing = new ThreadLocal<>();
+    protected AtomicLong writes = new AtomicLong();
 
     @Inject
     public TransactionsManager(DatabaseWorker databaseWorker) {
@@ -61,93 +70,74 @@ public class TransactionsManager {
         this.defaultActionsWorker.addHook(new DefaultHook(this, databaseWorker));
         this.accumulationActionsWorker.addHook(new AccumulationHook(this, databaseWorker));
         this.internalActionsWorker.addHook(new InternalHook(this, databaseWorker));
+
+        this.defaultActionsWorker.addHook(new AnalyticsRollupHook<>(databaseWorker));
+        this.internalActionsWorker.addHook(new AnalyticsRollupHook<>(databaseWorker));
+        this.recurringActionsWorker.addHook(new AnalyticsRollupHook<>(databaseWorker));
+        this.accumulationActionsWorker.addHook(new AnalyticsRollupHook<>(databaseWorker));
     }
 
     public void applyBulkTransactions(BulkTransactionsRecord record, int userId) {
         List<?> records = record.toRecords(userId);
 
-        transactionLock.lock();
+        write(() -> context.transaction((configuration) -> {
+            DSLContext dsl = configuration.dsl();
+            var hooksInternal = internalActionsWorker.getHooks();
+            var hooksDefault = defaultActionsWorker.getHooks();
 
-        try {
-            context.transaction((configuration) -> {
-                DSLContext dsl = configuration.dsl();
-                var hooksInternal = internalActionsWorker.getHooks();
-                var hooksDefault = defaultActionsWorker.getHooks();
-
-                for (Object rawRecord : records) {
-                    if (rawRecord instanceof TransactionNewRecord newRecord) {
-                        hooksDefault.forEach((h) -> h.apply(dsl, newRecord));
-                        long id = defaultActionsWorker.apply(dsl, newRecord);
-                        hooksDefault.forEach((h) -> h.applied(dsl, newRecord, id));
-                    }
-
-                    if (rawRecord instanceof TransactionNewInternalRecord newRecord) {
-                        hooksInternal.forEach((h) -> h.apply(dsl, newRecord));
-                        long id = internalActionsWorker.apply(dsl, newRecord);
-                        hooksInternal.forEach((h) -> h.applied(dsl, newRecord, id));
-                    }
+            for (Object rawRecord : records) {
+                if (rawRecord instanceof TransactionNewRecord newRecord) {
+                    hooksDefault.forEach((h) -> h.apply(dsl, newRecord));
+                    long id = defaultActionsWorker.apply(dsl, newRecord);
+                    hooksDefault.forEach((h) -> h.applied(dsl, newRecord, id));
                 }
-            });
-        }finally {
-            transactionLock.unlock();
-        }
+
+                if (rawRecord instanceof TransactionNewInternalRecord newRecord) {
+                    hooksInternal.forEach((h) -> h.apply(dsl, newRecord));
+                    long id = internalActionsWorker.apply(dsl, newRecord);
+                    hooksInternal.forEach((h) -> h.applied(dsl, newRecord, id));
+                }
+            }
+        }));
     }
 
     public long applyInternalTransfer(TransactionNewInternalRecord newRecord) {
-        transactionLock.lock();
+        return write(() -> context.transactionResult((configuration) -> {
+            DSLContext dsl = configuration.dsl();
+            var hooks = internalActionsWorker.getHooks();
 
-        try {
-            return context.transactionResult((configuration) -> {
-                DSLContext dsl = configuration.dsl();
-                var hooks = internalActionsWorker.getHooks();
+            hooks.forEach((h) -> h.apply(dsl, newRecord));
+            long id = internalActionsWorker.apply(dsl, newRecord);
+            hooks.forEach((h) -> h.applied(dsl, newRecord, id));
 
-                hooks.forEach((h) -> h.apply(dsl, newRecord));
-                long id = internalActionsWorker.apply(dsl, newRecord);
-                hooks.forEach((h) -> h.applied(dsl, newRecord, id));
-
-                return id;
-            });
-        }finally {
-            transactionLock.unlock();
-        }
+            return id;
+        }));
     }
 
     public long applyTransaction(TransactionNewRecord newRecord) {
-        transactionLock.lock();
+        return write(() -> context.transactionResult((configuration) -> {
+            DSLContext dsl = configuration.dsl();
+            var hooks = defaultActionsWorker.getHooks();
 
-        try {
-            return context.transactionResult((configuration) -> {
-                DSLContext dsl = configuration.dsl();
-                var hooks = defaultActionsWorker.getHooks();
+            hooks.forEach((h) -> h.apply(dsl, newRecord));
+            long id = defaultActionsWorker.apply(dsl, newRecord);
+            hooks.forEach((h) -> h.applied(dsl, newRecord, id));
 
-                hooks.forEach((h) -> h.apply(dsl, newRecord));
-                long id = defaultActionsWorker.apply(dsl, newRecord);
-                hooks.forEach((h) -> h.applied(dsl, newRecord, id));
-
-                return id;
-            });
-        }finally {
-            transactionLock.unlock();
-        }
+            return id;
+        }));
     }
 
     public long applyRecurringTransaction(TransactionNewRecord newRecord) {
-        transactionLock.lock();
+        return write(() -> context.transactionResult((configuration) -> {
+            DSLContext dsl = configuration.dsl();
+            var hooks = recurringActionsWorker.getHooks();
 
-        try {
-            return context.transactionResult((configuration) -> {
-                DSLContext dsl = configuration.dsl();
-                var hooks = recurringActionsWorker.getHooks();
-
-                hooks.forEach((h) -> h.apply(dsl, newRecord));
-                long id = recurringActionsWorker.apply(configuration.dsl(), newRecord);
-                hooks.forEach((h) -> h.applied(dsl, newRecord, id));
+            hooks.forEach((h) -> h.apply(dsl, newRecord));
+            long id = recurringActionsWorker.apply(configuration.dsl(), newRecord);
+            hooks.forEach((h) -> h.applied(dsl, newRecord, id));
 
-                return id;
-            });
-        }finally {
-            transactionLock.unlock();
-        }
+            return id;
+        }));
     }
 
     public void editTransaction(long transactionId, TransactionEditRecord editRecord) {
@@ -267,24 +257,107 @@ public class TransactionsManager {
     }
 
     protected void runTransactionOverRecord(long transactionId, Transaction transaction) {
+        write(() -> context.transaction((configuration) -> {
+            DSLContext dsl = configuration.dsl();
+            TransactionDatabase database = databaseWorker.get(TransactionDatabase.class, dsl);
+
+            Record record = database
+                    .getTransaction(transactionId)
+                    .orElseThrow(() -> new RuntimeException("Transaction not exists"));
+
+            MetadataType metadataType = Optional.ofNullable(record.get(TRANSACTIONS_METADATA.TYPE))
+                    .map(MetadataType::get)
+                    .orElse(MetadataType.WITHOUT_METADATA);
+
+            transaction.run(dsl, record, metadataType);
+        }));
+    }
+
+    // Work for in-memory state which must only see committed changes: queued while a transaction is open
+    // (nested ones join the outermost) and run after it commits, still under the lock so it follows commit order
+    public void afterCommit(Runnable task) {
+        ArrayList<Runnable> queued = committing.get();
+
+        if (queued == null) {
+            task.run();
+
+            return;
+        }
+
+        queued.add(task);
+    }
+
+    // Odd while a transaction is open. Caches compare stamps taken before and after a load and drop the loaded
+    // value when a transaction overlapped it, since it may hold uncommitted rows or miss an after-commit patch
+    public long writeStamp() {
+        return writes.get();
+    }
+
+    public boolean unchangedSince(long stamp) {
+        return (stamp & 1) == 0 && writes.get() == stamp;
+    }
+
+    // For work which must not interleave with any transaction change, such as rebuilding derived tables
+    public void exclusive(Runnable task) {
+        write(task);
+    }
+
+    public <R> R exclusive(Supplier<R> task) {
+        return write(task);
+    }
+
+    // Holds changes back without counting as a write, for reads which must match every change applied after commit
+    public void locked(Runnable task) {
+        transactionLock.lock();
+
+        try {
+            task.run();
+        }finally {
+            transactionLock.unlock();
+        }
+    }
+
+    protected void write(Runnable transaction) {
+        write(() -> {
+            transaction.run();
+
+            return null;
+        });
+    }
+
+    protected <R> R write(Supplier<R> transaction) {
         transactionLock.lock();
 
+        if (committing.get() != null) {
+            try {
+                return transaction.get();
+            }finally {
+                transactionLock.unlock();
+            }
+        }
+
+        ArrayList<Runnable> queued = new ArrayList<>();
+
+        committing.set(queued);
+        writes.incrementAndGet();
+
         try {
-            context.transaction((configuration) -> {
-                DSLContext dsl = configuration.dsl();
-                TransactionDatabase database = databaseWorker.get(TransactionDatabase.class, dsl);
+            R result = transaction.get();
 
-                Record record = database
-                        .getTransaction(transactionId)
-                        .orElseThrow(() -> new RuntimeException("Transaction not exists"));
+            committing.remove();
 
-                MetadataType metadataType = Optional.ofNullable(record.get(TRANSACTIONS_METADATA.TYPE))
-                        .map(MetadataType::get)
-                        .orElse(MetadataType.WITHOUT_METADATA);
+            for (Runnable task : queued) {
+                try {
+                    task.run();
+                }catch (Throwable e) {
+                    log.error("After-commit task failed", e);
+                }
+            }
 
-                transaction.run(dsl, record, metadataType);
-            });
+            return result;
         }finally {
+            committing.remove();
+            writes.incrementAndGet();
             transactionLock.unlock();
         }
     }
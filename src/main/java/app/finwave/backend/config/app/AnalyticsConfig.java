@@ -7,6 +7,12 @@ public class AnalyticsConfig implements GroupedConfig {
 
     public int maxTimeRangeDaysForMonths = 366;
     public int maxTimeRangeDaysForDays = 120;
+    public int maxTimeRangeDaysForYears = 3660;
+    public int maxSubscriptionsPerClient = 10;
+    public int forecastHistoryMonths = 12;
+    public double forecastSmoothing = 0.3;
+    public int descriptionsSketchCapacity = 200;
+    public int maxTopDescriptions = 50;
 
     @Override
     public ConfigGroup group() {
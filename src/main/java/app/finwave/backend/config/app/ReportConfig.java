@@ -6,6 +6,7 @@ import app.finwave.backend.config.GroupedConfig;
 public class ReportConfig implements GroupedConfig {
     public int maxDescriptionLength = 128;
     public int expiresDays = 14;
+    public int maxSchedulesPerUser = 8;
 
     @Override
     public ConfigGroup group() {
@@ -7,6 +7,8 @@ public class CachingConfig implements GroupedConfig {
     public Sessions sessions = new Sessions();
     public CategoriesBudget categoriesBudget = new CategoriesBudget();
     public Analytics analytics = new Analytics();
+    public ColumnarAnalytics columnarAnalytics = new ColumnarAnalytics();
+    public AnalyticsWarmup analyticsWarmup = new AnalyticsWarmup();
     public Ai ai = new Ai();
     public Files files = new Files();
 
@@ -22,12 +24,32 @@ public class CachingConfig implements GroupedConfig {
 
     public static class CategoriesBudget {
         public int maxLists = 200;
+        public int maxIndexes = 200;
     }
 
     public static class Analytics {
+        // Days and months share one periods cache now, sized by the sum of both limits
         public int maxDaysEntries = 200;
         public int maxMonthsEntries = 200;
         public int maxCategoriesSummingEntries = 200;
+        public int maxConvertedEntries = 200;
+        public int maxForecastStates = 200;
+        public int maxDescriptionsStats = 200;
+    }
+
+    public static class ColumnarAnalytics {
+        public boolean enabled = false;
+        public int maxUsers = 50;
+        public int maxTransactionsPerUser = 200000;
+    }
+
+    public static class AnalyticsWarmup {
+        public boolean enabled = true;
+        public int threads = 2;
+        public int queueSize = 100;
+        public int months = 6;
+        public int dedupMinutes = 30;
+        public int maxDedupEntries = 1000;
     }
 
     public static class Files {
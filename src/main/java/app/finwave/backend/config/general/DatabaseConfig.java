@@ -12,6 +12,9 @@ public class DatabaseConfig implements GroupedConfig {
             .ofNullable(System.getenv("DATABASE_PASSWORD"))
             .orElse("change_me");
 
+    // Connections opened next to the shared one, by parallel report slices
+    public int maxExtraConnections = 8;
+
     @Override
     public ConfigGroup group() {
         return ConfigGroup.GENERAL;
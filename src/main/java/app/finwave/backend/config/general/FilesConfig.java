@@ -12,6 +12,8 @@ public class FilesConfig implements GroupedConfig {
 
     public int filesToDeletePerHour = 50;
 
+    public boolean compressReports = true;
+
     @Override
     public ConfigGroup group() {
         return ConfigGroup.GENERAL;
@@ -4,8 +4,27 @@ import app.finwave.backend.config.ConfigGroup;
 import app.finwave.backend.config.GroupedConfig;
 
 public class ReportBuilderConfig implements GroupedConfig {
-    public int maxTransactionsPerCycle = 100;
+    public int maxTransactionsPerCycle = 1000;
     public int threads = 4;
+    public int maxRunningPerUser = 1;
+    public int queuePollSeconds = 15;
+    // A started report whose instance has not renewed its lease for this long goes back to the queue
+    public int leaseSeconds = 120;
+    public int progressIntervalMillis = 1000;
+
+    public int maxParallelSlices = 4;
+    public int minSliceDays = 92;
+    // Where parallel slices of list reports are written before being joined, empty means the system temporary directory
+    public String slicesDirectory = "";
+
+    public int xlsxRowWindow = 1000;
+    public int xlsxMaxSharedStrings = 65536;
+
+    // Scheduled reports are only enqueued between these server-local hours, equal hours mean any time
+    public int offPeakStartHour = 2;
+    public int offPeakEndHour = 6;
+    public int scheduledBatchSize = 20;
+    public int scheduledPriority = -10;
 
     @Override
     public ConfigGroup group() {
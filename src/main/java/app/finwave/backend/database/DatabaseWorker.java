@@ -15,6 +15,10 @@ import app.finwave.backend.migration.Migrator;
 import java.lang.reflect.InvocationTargetException;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
 
 @Singleton
 public class DatabaseWorker {
@@ -24,9 +28,12 @@ public class DatabaseWorker {
     protected Connection connection;
     protected DSLContext context;
 
+    protected Semaphore extraConnections;
+
     @Inject
     public DatabaseWorker(Configs configs, Migrator migrator) {
         config = configs.getState(new DatabaseConfig());
+        extraConnections = new Semaphore(getMaxExtraConnections(), true);
 
         log.info("Init database...");
 
@@ -53,6 +60,60 @@ public class DatabaseWorker {
         }
     }
 
+    public int getMaxExtraConnections() {
+        return Math.max(config.maxExtraConnections, 1);
+    }
+
+    // Separate connections for long parallel reads which shouldn't queue behind the shared one. The first exports its
+    // snapshot and the rest import it, so all of them see the same committed data. Permits for the whole set are taken
+    // at once, callers holding a part of them could otherwise wait on each other forever
+    public SnapshotConnections openSnapshotConnections(int count) throws SQLException {
+        if (count < 1 || count > getMaxExtraConnections())
+            throw new IllegalArgumentException("Can't open " + count + " connections, the limit is " + getMaxExtraConnections());
+
+        try {
+            extraConnections.acquire(count);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+
+        List<Connection> connections = new ArrayList<>(count);
+        SnapshotConnections result = new SnapshotConnections(connections, () -> extraConnections.release(count));
+
+        try {
+            String snapshot = null;
+
+            for (int i = 0; i < count; i++) {
+                Connection opened = DriverManager.getConnection(config.url, config.user, config.password);
+                connections.add(opened);
+
+                opened.setAutoCommit(false);
+                opened.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+                opened.setReadOnly(true);
+
+                DSLContext openedContext = DSL.using(opened, SQLDialect.POSTGRES);
+
+                if (snapshot == null) {
+                    snapshot = openedContext.fetchValue(DSL.field("pg_export_snapshot()", String.class));
+                }else {
+                    openedContext.execute("set transaction snapshot {0}", DSL.inline(snapshot));
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            try {
+                result.close();
+            } catch (SQLException closeError) {
+                e.addSuppressed(closeError);
+            }
+
+            throw e;
+        }
+
+        return result;
+    }
+
     public DSLContext getDefaultContext() {
         return context;
     }
@@ -0,0 +1,47 @@
+package app.finwave.backend.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+// Read only connections sharing one snapshot, it stays valid until they are closed
+public class SnapshotConnections implements AutoCloseable {
+    protected List<Connection> connections;
+    protected Runnable onClose;
+
+    public SnapshotConnections(List<Connection> connections, Runnable onClose) {
+        this.connections = connections;
+        this.onClose = onClose;
+    }
+
+    public Connection get(int index) {
+        return connections.get(index);
+    }
+
+    public int size() {
+        return connections.size();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        SQLException error = null;
+
+        try {
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    if (error == null)
+                        error = e;
+                    else
+                        error.addSuppressed(e);
+                }
+            }
+        } finally {
+            onClose.run();
+        }
+
+        if (error != null)
+            throw error;
+    }
+}
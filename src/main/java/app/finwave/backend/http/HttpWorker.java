@@ -22,6 +22,7 @@ import app.finwave.backend.api.currency.CurrencyApi;
 import app.finwave.backend.api.note.NoteApi;
 import app.finwave.backend.api.notification.NotificationApi;
 import app.finwave.backend.api.report.ReportApi;
+import app.finwave.backend.api.report.ReportScheduleApi;
 import app.finwave.backend.api.session.SessionApi;
 import app.finwave.backend.api.transaction.TransactionApi;
 import app.finwave.backend.api.recurring.RecurringTransactionApi;
@@ -56,6 +57,7 @@ public class HttpWorker {
     protected AccumulationApi accumulationApi;
     protected CategoryBudgetApi categoryBudgetApi;
     protected ReportApi reportApi;
+    protected ReportScheduleApi reportScheduleApi;
     protected ServerApi serverApi;
     protected AiApi aiApi;
     protected FilesApi filesApi;
@@ -80,6 +82,7 @@ public class HttpWorker {
                       AccumulationApi accumulationApi,
                       CategoryBudgetApi categoryBudgetApi,
                       ReportApi reportApi,
+                      ReportScheduleApi reportScheduleApi,
                       ServerApi serverApi,
                       AiApi aiApi,
                       FilesApi filesApi) {
@@ -103,6 +106,7 @@ public class HttpWorker {
         this.accumulationApi = accumulationApi;
         this.categoryBudgetApi = categoryBudgetApi;
         this.reportApi = reportApi;
+        this.reportScheduleApi = reportScheduleApi;
         this.serverApi = serverApi;
         this.aiApi = aiApi;
         this.filesApi = filesApi;
@@ -122,6 +126,10 @@ public class HttpWorker {
             get("/getActiveUsersCount", adminApi::getActiveUsersCount);
             get("/getUsersCount", adminApi::getUsersCount);
             get("/getTransactionsCount", adminApi::getTransactionsCount);
+            get("/getCachesStats", adminApi::getCachesStats);
+            get("/getCachesMetrics", adminApi::getCachesMetrics);
+            get("/getReportsStats", adminApi::getReportsStats);
+            get("/getReportsMetrics", adminApi::getReportsMetrics);
 
             post("/registerUser", adminApi::registerUser);
             post("/changeUserPassword", adminApi::changeUserPassword);
@@ -135,6 +143,12 @@ public class HttpWorker {
             post("/logout", userApi::logout);
 
             path("/reports", () -> {
+                path("/schedules", () -> {
+                    get("/getList", reportScheduleApi::getList);
+                    post("/new", reportScheduleApi::newSchedule);
+                    post("/delete", reportScheduleApi::deleteSchedule);
+                });
+
                 get("/getList", reportApi::getList);
                 post("/new", reportApi::newReport);
             });
@@ -229,7 +243,10 @@ public class HttpWorker {
             path("/analytics", () -> {
                 get("/getByMonths", analyticsApi::getAnalyticsByMonths);
                 get("/getByDays", analyticsApi::getAnalyticsByDays);
+                get("/getByPeriods", analyticsApi::getAnalyticsByPeriods);
                 get("/getCategoriesAnalytics", analyticsApi::getCategoriesAnalytics);
+                get("/getForecast", analyticsApi::getForecast);
+                get("/getTopDescriptions", analyticsApi::getTopDescriptions);
             });
 
             path("/notifications", () -> {
@@ -0,0 +1,50 @@
+package app.finwave.backend.report;
+
+import app.finwave.backend.api.event.WebSocketWorker;
+import app.finwave.backend.api.event.messages.response.reports.ReportProgress;
+import app.finwave.backend.api.report.data.ReportStatus;
+import app.finwave.backend.jooq.tables.records.ReportsRecord;
+
+// Status transitions are always sent, row counts at most once per interval. Slices of a report report rows concurrently
+public class ProgressTracker {
+    protected WebSocketWorker socketWorker;
+    protected int userId;
+    protected long reportId;
+    protected long intervalMillis;
+
+    protected long processed;
+    protected long estimatedTotal = -1;
+    protected long lastSent;
+
+    public ProgressTracker(WebSocketWorker socketWorker, ReportsRecord record, long intervalMillis) {
+        this.socketWorker = socketWorker;
+        this.userId = record.getUserId();
+        this.reportId = record.getId();
+        this.intervalMillis = intervalMillis;
+    }
+
+    public synchronized void started(long estimatedTotal) {
+        this.estimatedTotal = estimatedTotal;
+
+        send(ReportStatus.IN_PROGRESS, "started");
+    }
+
+    public synchronized void processed(long rows) {
+        processed += rows;
+
+        if (System.currentTimeMillis() - lastSent < intervalMillis)
+            return;
+
+        send(ReportStatus.IN_PROGRESS, "progress");
+    }
+
+    public synchronized void finished(ReportStatus status) {
+        send(status, "finished");
+    }
+
+    protected void send(ReportStatus status, String stage) {
+        lastSent = System.currentTimeMillis();
+
+        socketWorker.sendToUser(userId, new ReportProgress(reportId, status.getShort(), stage, processed, estimatedTotal));
+    }
+}
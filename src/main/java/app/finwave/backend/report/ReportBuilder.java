@@ -1,9 +1,20 @@
 package app.finwave.backend.report;
 
+import app.finwave.backend.api.analytics.AnalyticsDatabase;
+import app.finwave.backend.api.analytics.AnalyticsGranularity;
+import app.finwave.backend.api.event.WebSocketWorker;
+import app.finwave.backend.api.event.messages.response.NotifyUpdate;
 import app.finwave.backend.api.files.FilesManager;
+import app.finwave.backend.api.notification.data.Notification;
+import app.finwave.backend.api.notification.data.NotificationOptions;
+import app.finwave.backend.api.notification.manager.NotificationManager;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import org.apache.commons.lang3.tuple.Pair;
+import org.jooq.DSLContext;
 import org.jooq.Record;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
 import app.finwave.backend.api.report.ReportDatabase;
 import app.finwave.backend.api.report.data.ReportStatus;
 import app.finwave.backend.api.report.data.ReportType;
@@ -12,99 +23,294 @@ import app.finwave.backend.api.transaction.filter.TransactionsFilter;
 import app.finwave.backend.config.Configs;
 import app.finwave.backend.config.general.ReportBuilderConfig;
 import app.finwave.backend.database.DatabaseWorker;
+import app.finwave.backend.database.SnapshotConnections;
 import app.finwave.backend.jooq.tables.records.ReportsRecord;
+import app.finwave.backend.report.aggregation.CellTable;
+import app.finwave.backend.report.builders.AbstractListReportBuilder;
 import app.finwave.backend.report.builders.AbstractReportBuilder;
 import app.finwave.backend.report.builders.ByDaysReportBuilder;
 import app.finwave.backend.report.builders.ByMonthsReportBuilder;
 import app.finwave.backend.report.builders.ListReportBuilder;
+import app.finwave.backend.report.builders.XlsxListReportBuilder;
 
 import java.io.IOException;
-import java.util.List;
-import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
 
 import static app.finwave.backend.api.ApiResponse.GSON;
+import static app.finwave.backend.jooq.Tables.TRANSACTIONS;
 
 @Singleton
 public class ReportBuilder {
     protected TransactionDatabase transactionDatabase;
+    protected AnalyticsDatabase analyticsDatabase;
     protected ReportDatabase reportDatabase;
     protected ReportBuilderConfig config;
     protected DatabaseWorker worker;
-    protected ExecutorService executor;
+    protected ReportScheduler scheduler;
+    protected ExecutorService slicesExecutor;
 
     protected FilesManager filesManager;
+    protected WebSocketWorker socketWorker;
+    protected NotificationManager notificationManager;
 
     @Inject
-    public ReportBuilder(DatabaseWorker worker, Configs configs, FilesManager filesManager) {
+    public ReportBuilder(DatabaseWorker worker, Configs configs, FilesManager filesManager, WebSocketWorker socketWorker,
+                         NotificationManager notificationManager) {
         this.worker = worker;
         this.filesManager = filesManager;
+        this.socketWorker = socketWorker;
+        this.notificationManager = notificationManager;
 
         this.transactionDatabase = worker.get(TransactionDatabase.class);
+        this.analyticsDatabase = worker.get(AnalyticsDatabase.class);
         this.reportDatabase = worker.get(ReportDatabase.class);
 
         this.config = configs.getState(new ReportBuilderConfig());
-        this.executor = Executors.newFixedThreadPool(config.threads);
+        this.scheduler = new ReportScheduler(reportDatabase, config, this::build);
     }
 
     public CompletableFuture<ReportStatus> buildAsync(long reportId) {
-        CompletableFuture<ReportStatus> result = new CompletableFuture<>();
+        return scheduler.submit(reportId);
+    }
 
-        executor.submit(() -> {
-            ReportStatus status = ReportStatus.FAILED;
+    public ReportScheduler getScheduler() {
+        return scheduler;
+    }
 
-            try{
-                Optional<ReportsRecord> recordOptional = reportDatabase.getReport(reportId);
+    protected Path slicesDirectory() throws IOException {
+        if (config.slicesDirectory == null || config.slicesDirectory.isBlank())
+            return Path.of(System.getProperty("java.io.tmpdir"));
 
-                if (recordOptional.isEmpty())
-                    return;
+        return Files.createDirectories(Path.of(config.slicesDirectory));
+    }
 
-                ReportsRecord record = recordOptional.get();
+    protected synchronized ExecutorService getSlicesExecutor() {
+        if (slicesExecutor == null)
+            slicesExecutor = Executors.newFixedThreadPool(Math.max(config.maxParallelSlices, 1));
 
-                try {
-                    status = buildAndSave(record);
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
+        return slicesExecutor;
+    }
 
-                reportDatabase.updateReport(reportId, status);
-            }finally {
-                result.complete(status);
-            }
-        });
+    protected ReportStatus build(ReportsRecord record) {
+        ReportStatus status = ReportStatus.FAILED;
+        ProgressTracker progress = new ProgressTracker(socketWorker, record, config.progressIntervalMillis);
 
-        return result;
+        try {
+            status = buildAndSave(record, progress);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        reportDatabase.updateReport(record.getId(), status);
+        progress.finished(status);
+
+        if (Boolean.TRUE.equals(record.getScheduled()))
+            notifyScheduled(record, status);
+
+        return status;
+    }
+
+    // Sent by whichever instance built the report, nobody has to keep waiting for it in memory
+    protected void notifyScheduled(ReportsRecord record, ReportStatus status) {
+        int userId = record.getUserId();
+
+        socketWorker.sendToUser(userId, new NotifyUpdate("reports"));
+
+        String description = record.getDescription() == null ? "Scheduled report" : record.getDescription();
+        String message = status == ReportStatus.AVAILABLE ? description + " is ready" : description + " failed to build";
+
+        notificationManager.push(Notification.create(
+                message,
+                new NotificationOptions(false, -1, null),
+                userId
+        ));
     }
 
-    protected ReportStatus buildAndSave(ReportsRecord record) throws IOException {
+    protected ReportStatus buildAndSave(ReportsRecord record, ProgressTracker progress) throws IOException {
         int userId = record.getUserId();
         TransactionsFilter filter = GSON.fromJson(record.getFilter().data(), TransactionsFilter.class);
 
         if (filter == null)
             filter = TransactionsFilter.EMPTY;
 
-        int offset = 0;
+        AbstractReportBuilder builder = get(record);
+
+        // The total is left unknown, counting the rows first would cost as much as a second pass over them
+        progress.started(-1);
+
+        if (builder instanceof ByDaysReportBuilder summaryBuilder) {
+            AnalyticsGranularity granularity = summaryBuilder.getGranularity();
+            ZoneId zoneId = AnalyticsDatabase.rollupZone();
+
+            List<HashMap<Long, CellTable>> partials = inSlices(slice(userId, filter, granularity, zoneId), (context, slice) ->
+                    summaryBuilder.aggregate(worker.get(AnalyticsDatabase.class, context).getAnalytics(userId, slice, zoneId, granularity))
+            );
+
+            partials.forEach(summaryBuilder::merge);
+        }else if (builder instanceof ListReportBuilder csvBuilder) {
+            // Pages go from the newest transaction, so the slices do too
+            List<TransactionsFilter> slices = new ArrayList<>(slice(userId, filter, AnalyticsGranularity.DAY, AnalyticsDatabase.rollupZone()));
+            Collections.reverse(slices);
+
+            if (slices.size() == 1) {
+                streamTransactions(transactionDatabase, userId, filter, csvBuilder::consider, progress);
+            }else {
+                List<ListReportBuilder.Slice> created = Collections.synchronizedList(new ArrayList<>());
+                Path directory = slicesDirectory();
+
+                try {
+                    List<ListReportBuilder.Slice> parts = inSlices(slices, (context, slice) -> {
+                        ListReportBuilder.Slice part = csvBuilder.newSlice(directory);
+                        created.add(part);
+
+                        streamTransactions(worker.get(TransactionDatabase.class, context), userId, slice, (records) -> csvBuilder.consider(part, records), progress);
+
+                        return part;
+                    });
+
+                    for (ListReportBuilder.Slice part : parts)
+                        csvBuilder.append(part);
+                }finally {
+                    synchronized (created) {
+                        for (ListReportBuilder.Slice part : created)
+                            part.close();
+                    }
+                }
+            }
+        }else if (builder instanceof AbstractListReportBuilder listBuilder) {
+            streamTransactions(transactionDatabase, userId, filter, listBuilder::consider, progress);
+        }
+
+        builder.done();
+
+        return ReportStatus.AVAILABLE;
+    }
+
+    protected void streamTransactions(TransactionDatabase database, int userId, TransactionsFilter filter, Consumer<List<Record>> consumer, ProgressTracker progress) {
         int count = config.maxTransactionsPerCycle;
 
-        AbstractReportBuilder builder = get(record);
+        OffsetDateTime lastCreatedAt = null;
+        Long lastId = null;
 
         while (true) {
-            List<Record> transactions = transactionDatabase.getTransactions(userId, offset, count, filter);
+            List<Record> transactions = database.getTransactionsPage(userId, count, filter, lastCreatedAt, lastId);
 
             if (transactions.isEmpty())
                 break;
 
-            offset += transactions.size();
+            consumer.accept(transactions);
+            progress.processed(transactions.size());
 
-            builder.consider(transactions);
+            if (transactions.size() < count)
+                break;
+
+            Record last = transactions.get(transactions.size() - 1);
+
+            lastCreatedAt = last.get(TRANSACTIONS.CREATED_AT);
+            lastId = last.get(TRANSACTIONS.ID);
         }
+    }
 
-        builder.done();
+    // Splits the time range into at most maxParallelSlices ranges of at least minSliceDays, with bounds on bucket starts.
+    // Open ends stay open in the first and last slices
+    protected List<TransactionsFilter> slice(int userId, TransactionsFilter filter, AnalyticsGranularity bucket, ZoneId zoneId) {
+        if (config.maxParallelSlices <= 1)
+            return List.of(filter);
 
-        return ReportStatus.AVAILABLE;
+        OffsetDateTime from = filter.getFromTime();
+        OffsetDateTime to = filter.getToTime();
+
+        if (from == null || to == null) {
+            Optional<Pair<OffsetDateTime, OffsetDateTime>> range = transactionDatabase.getTimeRange(userId, filter);
+
+            if (range.isEmpty())
+                return List.of(filter);
+
+            from = from == null ? range.get().getLeft() : from;
+            to = to == null ? range.get().getRight() : to;
+        }
+
+        long seconds = Duration.between(from, to).getSeconds();
+        long count = Math.min(Math.min(config.maxParallelSlices, worker.getMaxExtraConnections()), seconds / 86400 / Math.max(config.minSliceDays, 1));
+
+        if (count <= 1)
+            return List.of(filter);
+
+        List<TransactionsFilter> result = new ArrayList<>();
+        OffsetDateTime sliceFrom = filter.getFromTime();
+
+        for (int i = 1; i < count; i++) {
+            OffsetDateTime bound = bucket.start(from.plusSeconds(seconds * i / count), zoneId);
+
+            if (sliceFrom != null && !bound.isAfter(sliceFrom))
+                continue;
+
+            result.add(filter.setFromTime(sliceFrom).setToTime(bound.minus(1, ChronoUnit.MICROS)));
+            sliceFrom = bound;
+        }
+
+        result.add(filter.setFromTime(sliceFrom));
+
+        return result;
+    }
+
+    // Single slices run on the shared connection, parallel ones each on a connection of their own. Those read one shared
+    // snapshot, so a transaction committed meanwhile is either in every slice or in none of them
+    protected <T> List<T> inSlices(List<TransactionsFilter> slices, SliceTask<T> task) throws IOException {
+        try {
+            if (slices.size() == 1)
+                return List.of(task.run(worker.getDefaultContext(), slices.get(0)));
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+
+        ExecutorService executor = getSlicesExecutor();
+
+        try (SnapshotConnections connections = worker.openSnapshotConnections(slices.size())) {
+            List<Future<T>> futures = new ArrayList<>();
+
+            for (int i = 0; i < slices.size(); i++) {
+                DSLContext context = DSL.using(connections.get(i), SQLDialect.POSTGRES);
+                TransactionsFilter slice = slices.get(i);
+
+                futures.add(executor.submit(() -> task.run(context, slice)));
+            }
+
+            List<T> result = new ArrayList<>();
+
+            try {
+                for (Future<T> future : futures)
+                    result.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach((f) -> f.cancel(true));
+
+                throw new IOException(e);
+            } catch (ExecutionException e) {
+                futures.forEach((f) -> f.cancel(true));
+
+                throw new IOException(e.getCause());
+            }
+
+            return result;
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    protected interface SliceTask<T> {
+        T run(DSLContext context, TransactionsFilter slice) throws Exception;
     }
 
     protected AbstractReportBuilder get(ReportsRecord reportsRecord) throws IOException {
@@ -117,6 +323,9 @@ public class ReportBuilder {
             case BY_MONTHS -> {
                 return new ByMonthsReportBuilder(reportsRecord, worker, filesManager);
             }
+            case TRANSACTION_LIST_XLSX -> {
+                return new XlsxListReportBuilder(reportsRecord, worker, filesManager, config);
+            }
             default -> {
                 return new ListReportBuilder(reportsRecord, worker, filesManager);
             }
@@ -0,0 +1,192 @@
+package app.finwave.backend.report;
+
+import app.finwave.backend.api.report.ReportDatabase;
+import app.finwave.backend.api.report.data.ReportStatus;
+import app.finwave.backend.config.general.ReportBuilderConfig;
+import app.finwave.backend.jooq.tables.records.ReportsRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// The reports table is the queue: queued reports are IN_PROGRESS without started_at, workers claim them one by one
+public class ReportScheduler {
+    protected static final Logger log = LoggerFactory.getLogger(ReportScheduler.class);
+
+    protected ReportDatabase database;
+    protected ReportBuilderConfig config;
+    protected Function<ReportsRecord, ReportStatus> job;
+
+    protected ExecutorService executor;
+    protected ScheduledExecutorService dispatcher;
+
+    protected ConcurrentHashMap<Long, CompletableFuture<ReportStatus>> waiting = new ConcurrentHashMap<>();
+    protected Set<Long> runningIds = ConcurrentHashMap.newKeySet();
+    protected AtomicInteger running = new AtomicInteger();
+
+    protected AtomicLong available = new AtomicLong();
+    protected AtomicLong failed = new AtomicLong();
+    protected AtomicLong totalMillis = new AtomicLong();
+    protected AtomicLong maxMillis = new AtomicLong();
+
+    public ReportScheduler(ReportDatabase database, ReportBuilderConfig config, Function<ReportsRecord, ReportStatus> job) {
+        this.database = database;
+        this.config = config;
+        this.job = job;
+    }
+
+    // Started by the first submitted report or by the queue service, whichever comes first
+    public synchronized void start() {
+        if (dispatcher != null)
+            return;
+
+        this.executor = Executors.newFixedThreadPool(config.threads);
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor();
+
+        dispatcher.scheduleWithFixedDelay(this::dispatch, 0, config.queuePollSeconds, TimeUnit.SECONDS);
+    }
+
+    // Renews the leases of reports built here and requeues the ones abandoned by instances that are gone
+    public void maintain() {
+        database.renewLeases(List.copyOf(runningIds));
+
+        int requeued = database.requeueExpired(config.leaseSeconds);
+
+        if (requeued > 0) {
+            log.info("Resuming {} interrupted reports", requeued);
+
+            dispatcher.execute(this::dispatch);
+        }
+    }
+
+    // For reports nobody here waits for, they may as well be built by another instance
+    public void wakeUp() {
+        start();
+
+        dispatcher.execute(this::dispatch);
+    }
+
+    public CompletableFuture<ReportStatus> submit(long reportId) {
+        start();
+
+        CompletableFuture<ReportStatus> result = waiting.computeIfAbsent(reportId, (k) -> new CompletableFuture<>());
+
+        // The poller may have claimed and finished the report before anyone started waiting for it
+        Optional<ReportStatus> finished = database.getReport(reportId)
+                .map(ReportsRecord::getStatus)
+                .filter((s) -> s != ReportStatus.IN_PROGRESS.getShort())
+                .map((s) -> s == ReportStatus.AVAILABLE.getShort() ? ReportStatus.AVAILABLE : ReportStatus.FAILED);
+
+        if (finished.isPresent()) {
+            waiting.remove(reportId);
+            result.complete(finished.get());
+
+            return result;
+        }
+
+        dispatcher.execute(this::dispatch);
+
+        return result;
+    }
+
+    protected void dispatch() {
+        try {
+            while (running.get() < config.threads) {
+                Optional<ReportsRecord> claimed = database.claimNextReport(config.maxRunningPerUser);
+
+                if (claimed.isEmpty())
+                    return;
+
+                running.incrementAndGet();
+                runningIds.add(claimed.get().getId());
+                executor.execute(() -> run(claimed.get()));
+            }
+        }catch (Throwable e) {
+            log.error("Failed to dispatch reports", e);
+        }
+    }
+
+    protected void run(ReportsRecord record) {
+        long start = System.nanoTime();
+        ReportStatus status = ReportStatus.FAILED;
+
+        try {
+            status = job.apply(record);
+        }catch (Throwable e) {
+            log.error("Failed to build report " + record.getId(), e);
+        }finally {
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            (status == ReportStatus.AVAILABLE ? available : failed).incrementAndGet();
+            totalMillis.addAndGet(millis);
+            maxMillis.accumulateAndGet(millis, Math::max);
+
+            runningIds.remove(record.getId());
+            running.decrementAndGet();
+
+            CompletableFuture<ReportStatus> future = waiting.remove(record.getId());
+
+            if (future != null)
+                future.complete(status);
+
+            dispatcher.execute(this::dispatch);
+        }
+    }
+
+    public Stats getStats() {
+        long finished = available.get() + failed.get();
+        long oldestQueuedSeconds = database.getOldestQueuedAt()
+                .map((t) -> Duration.between(t, OffsetDateTime.now()).toSeconds())
+                .orElse(0L);
+
+        return new Stats(database.getQueuedCount(),
+                running.get(),
+                oldestQueuedSeconds,
+                available.get(),
+                failed.get(),
+                finished == 0 ? 0 : (double) totalMillis.get() / finished,
+                totalMillis.get(),
+                maxMillis.get());
+    }
+
+    // Prometheus text exposition format
+    public String exportMetrics() {
+        Stats stats = getStats();
+        StringBuilder builder = new StringBuilder();
+
+        metric(builder, "finwave_reports_queued", "gauge", "Reports waiting for a worker", stats.queued());
+        metric(builder, "finwave_reports_running", "gauge", "Reports being built by this instance", stats.running());
+        metric(builder, "finwave_reports_oldest_queued_seconds", "gauge", "Age of the oldest queued report", stats.oldestQueuedSeconds());
+
+        builder.append("# HELP finwave_reports_finished_total Reports finished by this instance\n");
+        builder.append("# TYPE finwave_reports_finished_total counter\n");
+        builder.append("finwave_reports_finished_total{status=\"available\"} ").append(stats.available()).append('\n');
+        builder.append("finwave_reports_finished_total{status=\"failed\"} ").append(stats.failed()).append('\n');
+
+        builder.append("# HELP finwave_report_duration_seconds Time spent building reports\n");
+        builder.append("# TYPE finwave_report_duration_seconds summary\n");
+        builder.append("finwave_report_duration_seconds_sum ").append(stats.totalMillis() / 1000d).append('\n');
+        builder.append("finwave_report_duration_seconds_count ").append(stats.available() + stats.failed()).append('\n');
+
+        metric(builder, "finwave_report_duration_seconds_max", "gauge", "Longest report build", stats.maxMillis() / 1000d);
+
+        return builder.toString();
+    }
+
+    protected static void metric(StringBuilder builder, String name, String type, String help, Number value) {
+        builder.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        builder.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        builder.append(name).append(' ').append(value).append('\n');
+    }
+
+    public record Stats(int queued, int running, long oldestQueuedSeconds, long available, long failed,
+                        double averageMillis, long totalMillis, long maxMillis) {}
+}
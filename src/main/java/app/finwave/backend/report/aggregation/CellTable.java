@@ -0,0 +1,213 @@
+package app.finwave.backend.report.aggregation;
+
+import app.finwave.backend.utils.LongLongHashMap;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.HashMap;
+
+// Sums by category and epoch day. Keys pack both into one long, sums are unscaled longs at a common scale
+// which grows with the deltas; on long overflow the table falls back to BigDecimal sums
+public class CellTable {
+    protected static final int DAY_BITS = 24;
+    protected static final int MAX_SCALE = 18;
+
+    protected LongLongHashMap cells = new LongLongHashMap();
+    protected int scale;
+
+    protected HashMap<Long, BigDecimal> exact;
+
+    public CellTable(int scale) {
+        this.scale = Math.max(0, Math.min(scale, MAX_SCALE));
+    }
+
+    public static long key(long categoryId, int epochDay) {
+        if (categoryId < 0 || categoryId >= 1L << (63 - DAY_BITS) || epochDay < -(1 << (DAY_BITS - 1)) || epochDay >= 1 << (DAY_BITS - 1))
+            throw new IllegalArgumentException();
+
+        return categoryId << DAY_BITS | (epochDay & ((1L << DAY_BITS) - 1));
+    }
+
+    public static long categoryOf(long key) {
+        return key >>> DAY_BITS;
+    }
+
+    public static int dayOf(long key) {
+        return (int) (key << (64 - DAY_BITS) >> (64 - DAY_BITS));
+    }
+
+    public void add(long categoryId, int epochDay, BigDecimal delta) {
+        long key = key(categoryId, epochDay);
+
+        if (exact == null) {
+            try {
+                if (delta.scale() > scale)
+                    rescale(Math.min(delta.scale(), MAX_SCALE));
+
+                cells.addTo(key, delta.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+
+                return;
+            } catch (ArithmeticException e) {
+                toExact();
+            }
+        }
+
+        exact.merge(key, delta, BigDecimal::add);
+    }
+
+    public void merge(CellTable other) {
+        if (exact == null && other.exact == null) {
+            try {
+                if (other.scale > scale)
+                    rescale(other.scale);
+
+                long factor = pow10(scale - other.scale);
+
+                // Checked first, so a failed merge leaves the sums untouched
+                for (int slot = 0; slot < other.cells.capacity(); slot++) {
+                    if (other.cells.used(slot))
+                        Math.addExact(cells.get(other.cells.keyAt(slot)), Math.multiplyExact(other.cells.valueAt(slot), factor));
+                }
+
+                for (int slot = 0; slot < other.cells.capacity(); slot++) {
+                    if (other.cells.used(slot))
+                        cells.addTo(other.cells.keyAt(slot), other.cells.valueAt(slot) * factor);
+                }
+
+                return;
+            } catch (ArithmeticException e) {
+                toExact();
+            }
+        }
+
+        if (exact == null)
+            toExact();
+
+        other.forEach((key, value) -> exact.merge(key, value, BigDecimal::add));
+    }
+
+    public BigDecimal get(long categoryId, int epochDay) {
+        long key = key(categoryId, epochDay);
+
+        if (exact != null)
+            return exact.getOrDefault(key, BigDecimal.ZERO);
+
+        return BigDecimal.valueOf(cells.get(key), scale);
+    }
+
+    public boolean isEmpty() {
+        return exact != null ? exact.isEmpty() : cells.size() == 0;
+    }
+
+    // Sorted and distinct
+    public long[] categories() {
+        long[] result = keys();
+
+        for (int i = 0; i < result.length; i++)
+            result[i] = categoryOf(result[i]);
+
+        Arrays.sort(result);
+
+        return Arrays.copyOf(result, distinct(result));
+    }
+
+    // Sorted and distinct
+    public int[] days() {
+        long[] keys = keys();
+        int[] result = new int[keys.length];
+
+        for (int i = 0; i < keys.length; i++)
+            result[i] = dayOf(keys[i]);
+
+        Arrays.sort(result);
+
+        int size = 0;
+
+        for (int i = 0; i < result.length; i++) {
+            if (size == 0 || result[size - 1] != result[i])
+                result[size++] = result[i];
+        }
+
+        return Arrays.copyOf(result, size);
+    }
+
+    public void forEach(CellConsumer consumer) {
+        if (exact != null) {
+            exact.forEach(consumer::accept);
+
+            return;
+        }
+
+        for (int slot = 0; slot < cells.capacity(); slot++) {
+            if (cells.used(slot))
+                consumer.accept(cells.keyAt(slot), BigDecimal.valueOf(cells.valueAt(slot), scale));
+        }
+    }
+
+    protected long[] keys() {
+        if (exact != null)
+            return exact.keySet().stream().mapToLong(Long::longValue).toArray();
+
+        long[] result = new long[cells.size()];
+        int i = 0;
+
+        for (int slot = 0; slot < cells.capacity(); slot++) {
+            if (cells.used(slot))
+                result[i++] = cells.keyAt(slot);
+        }
+
+        return result;
+    }
+
+    // All or nothing: values are only replaced when every one of them fits the new scale
+    protected void rescale(int newScale) {
+        long factor = pow10(newScale - scale);
+        long[] rescaled = new long[cells.capacity()];
+
+        for (int slot = 0; slot < rescaled.length; slot++) {
+            if (cells.used(slot))
+                rescaled[slot] = Math.multiplyExact(cells.valueAt(slot), factor);
+        }
+
+        for (int slot = 0; slot < rescaled.length; slot++) {
+            if (cells.used(slot))
+                cells.setValueAt(slot, rescaled[slot]);
+        }
+
+        scale = newScale;
+    }
+
+    protected void toExact() {
+        HashMap<Long, BigDecimal> result = new HashMap<>();
+
+        forEach(result::put);
+
+        this.exact = result;
+        this.cells = null;
+    }
+
+    protected static int distinct(long[] sorted) {
+        int size = 0;
+
+        for (int i = 0; i < sorted.length; i++) {
+            if (size == 0 || sorted[size - 1] != sorted[i])
+                sorted[size++] = sorted[i];
+        }
+
+        return size;
+    }
+
+    protected static long pow10(int exponent) {
+        long result = 1;
+
+        for (int i = 0; i < exponent; i++)
+            result = Math.multiplyExact(result, 10);
+
+        return result;
+    }
+
+    public interface CellConsumer {
+        void accept(long key, BigDecimal value);
+    }
+}
@@ -0,0 +1,55 @@
+package app.finwave.backend.report.builders;
+
+import app.finwave.backend.api.files.FilesManager;
+import app.finwave.backend.database.DatabaseWorker;
+import app.finwave.backend.jooq.tables.records.AccountsRecord;
+import app.finwave.backend.jooq.tables.records.CurrenciesRecord;
+import app.finwave.backend.jooq.tables.records.ReportsRecord;
+import app.finwave.backend.utils.LongObjectHashMap;
+import org.jooq.Record;
+
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.List;
+import java.util.Locale;
+
+public abstract class AbstractListReportBuilder extends AbstractReportBuilder {
+    protected DateTimeFormatter dateFormatter;
+
+    protected LongObjectHashMap<String> accountNames;
+    protected LongObjectHashMap<String> currencyCodes;
+
+    protected static final String[] head = new String[]{
+            "account", "delta", "category", "currency", "created", "description"
+    };
+
+    public AbstractListReportBuilder(ReportsRecord reportsRecord, DatabaseWorker databaseWorker, FilesManager filesManager) {
+        super(reportsRecord, databaseWorker, filesManager);
+
+        this.dateFormatter = DateTimeFormatter
+                .ofLocalizedDateTime(FormatStyle.SHORT)
+                .withLocale(
+                        Locale.forLanguageTag(userLang.getOrDefault("dateLocale", "en-US"))
+                );
+
+        this.accountNames = new LongObjectHashMap<>(accountsRecords.size());
+        this.currencyCodes = new LongObjectHashMap<>(currenciesRecords.size());
+
+        for (AccountsRecord record : accountsRecords)
+            accountNames.put(record.getId(), record.getName());
+
+        for (CurrenciesRecord record : currenciesRecords)
+            currencyCodes.put(record.getId(), record.getCode());
+    }
+
+    protected String[] localizedHead() {
+        String[] result = new String[head.length];
+
+        for (int i = 0; i < head.length; i++)
+            result[i] = userLang.getOrDefault(head[i], head[i]);
+
+        return result;
+    }
+
+    abstract public void consider(List<Record> records);
+}
@@ -6,13 +6,13 @@ import app.finwave.backend.jooq.tables.records.CategoriesRecord;
 import com.google.gson.reflect.TypeToken;
 import io.netty.handler.codec.DateFormatter;
 import org.jooq.JSONB;
-import org.jooq.Record;
 import app.finwave.backend.api.account.AccountDatabase;
 import app.finwave.backend.api.currency.CurrencyDatabase;
 import app.finwave.backend.database.DatabaseWorker;
 import app.finwave.backend.jooq.tables.records.AccountsRecord;
 import app.finwave.backend.jooq.tables.records.CurrenciesRecord;
 import app.finwave.backend.jooq.tables.records.ReportsRecord;
+import app.finwave.backend.utils.LongObjectHashMap;
 
 import java.time.Instant;
 import java.util.*;
@@ -35,6 +35,8 @@ public abstract class AbstractReportBuilder {
     protected Map<Long, AccountsRecord> accountsMap;
     protected Map<Long, CurrenciesRecord> currenciesMap;
 
+    protected LongObjectHashMap<String> categoryPaths;
+
     public AbstractReportBuilder(ReportsRecord reportsRecord, DatabaseWorker databaseWorker, FilesManager filesManager) {
         this.reportsRecord = reportsRecord;
         this.filesManager = filesManager;
@@ -54,6 +56,8 @@ public abstract class AbstractReportBuilder {
         this.currenciesMap = currenciesRecords.stream()
                 .collect(Collectors.toMap(CurrenciesRecord::getId, Function.identity()));
 
+        this.categoryPaths = buildCategoryPaths();
+
         JSONB userLangRaw = reportsRecord.getLang();
 
         if (userLangRaw == null) {
@@ -68,32 +72,49 @@ public abstract class AbstractReportBuilder {
     }
 
     protected String getCategoryFullPath(long id) {
-        CategoriesRecord record = categoriesMap.get(id);
+        String path = categoryPaths.get(id);
 
-        if (record == null)
+        if (path == null)
             throw new IllegalArgumentException();
 
-        String parentsRaw = record.getParentsTree().data();
+        return path;
+    }
+
+    // Parents are resolved once per report instead of splitting parents_tree on every row
+    protected LongObjectHashMap<String> buildCategoryPaths() {
+        LongObjectHashMap<String> result = new LongObjectHashMap<>(categoriesRecords.size());
+
+        for (CategoriesRecord record : categoriesRecords) {
+            String parentsRaw = record.getParentsTree().data();
+
+            if (parentsRaw.isBlank()) {
+                result.put(record.getId(), record.getName());
 
-        if (parentsRaw.isBlank())
-            return record.getName();
+                continue;
+            }
 
-        String parents = Arrays
-                .stream(parentsRaw.split("\\."))
-                .map((entry) -> categoriesMap.get(Long.parseLong(entry)).getName())
-                .collect(Collectors.joining(" > "));
+            StringBuilder path = new StringBuilder();
 
-        return parents + " > " + record.getName();
+            for (String entry : parentsRaw.split("\\."))
+                path.append(categoriesMap.get(Long.parseLong(entry)).getName()).append(" > ");
+
+            result.put(record.getId(), path.append(record.getName()).toString());
+        }
+
+        return result;
     }
 
     protected String getFileName() {
+        return getFileName("csv");
+    }
+
+    protected String getFileName(String extension) {
         String filename = reportsRecord.getDescription() == null ? DateFormatter.format(Date.from(Instant.now())) : reportsRecord.getDescription();
 
         return filename
                 .replace(',', '_')
-                .replace(' ', '_') + ".csv";
+                .replace(' ', '_') + '.' + extension;
     }
 
-    abstract public void consider(List<Record> records);
     abstract public void done();
 }
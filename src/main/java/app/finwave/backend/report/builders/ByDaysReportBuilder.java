@@ -3,9 +3,11 @@ package app.finwave.backend.report.builders;
 import app.finwave.backend.api.files.FilesManager;
 import app.finwave.backend.jooq.tables.records.FilesRecord;
 import io.netty.handler.codec.DateFormatter;
-import org.apache.commons.lang3.tuple.Pair;
-import org.jooq.Record;
+import app.finwave.backend.api.analytics.AnalyticsGranularity;
+import app.finwave.backend.api.analytics.result.AnalyticsByPeriods;
+import app.finwave.backend.api.analytics.result.CategorySummary;
 import app.finwave.backend.database.DatabaseWorker;
+import app.finwave.backend.report.aggregation.CellTable;
 import app.finwave.backend.jooq.tables.records.CurrenciesRecord;
 import app.finwave.backend.jooq.tables.records.ReportsRecord;
 
@@ -19,12 +21,9 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.FormatStyle;
 import java.util.*;
-import java.util.stream.Collectors;
-
-import static app.finwave.backend.jooq.Tables.TRANSACTIONS;
 
 public class ByDaysReportBuilder extends AbstractReportBuilder {
-    protected HashMap<Long, TableContent> content = new HashMap<>();
+    protected HashMap<Long, CellTable> content = new HashMap<>();
     protected DateTimeFormatter formatter;
 
     public ByDaysReportBuilder(ReportsRecord reportsRecord, DatabaseWorker databaseWorker, FilesManager filesManager) {
@@ -37,32 +36,49 @@ public class ByDaysReportBuilder extends AbstractReportBuilder {
                 );
     }
 
-    @Override
-    public void consider(List<Record> records) {
-        for (Record record : records) {
-            long categoryId = record.get(TRANSACTIONS.CATEGORY_ID);
-            long currencyId = record.get(TRANSACTIONS.CURRENCY_ID);
-            BigDecimal delta = record.get(TRANSACTIONS.DELTA);
-            LocalDate created = record.get(TRANSACTIONS.CREATED_AT).toLocalDate();
-
-            addToCell(currencyId, categoryId, created, delta);
-        }
+    public AnalyticsGranularity getGranularity() {
+        return AnalyticsGranularity.DAY;
+    }
+
+    public void consider(AnalyticsByPeriods analytics) {
+        merge(aggregate(analytics));
+    }
+
+    // Builds a partial table without touching the builder state, so slices of a report can aggregate concurrently
+    public HashMap<Long, CellTable> aggregate(AnalyticsByPeriods analytics) {
+        HashMap<Long, CellTable> partial = new HashMap<>();
+
+        analytics.getTotal().forEach((date, summaries) -> {
+            for (CategorySummary summary : summaries)
+                addToCell(partial, summary.currencyId(), summary.categoryId(), date, summary.delta());
+        });
+
+        return partial;
+    }
+
+    public void merge(HashMap<Long, CellTable> partial) {
+        partial.forEach((currency, table) -> {
+            CellTable existing = content.putIfAbsent(currency, table);
+
+            if (existing != null)
+                existing.merge(table);
+        });
     }
 
     @Override
     public void done() {
         BufferedWriter writer;
         try {
-            OutputStream stream = filesManager.getAndOpenStream(reportsRecord.getFileId(), "text/csv", getFileName(), reportsRecord.getDescription()).orElseThrow();
+            OutputStream stream = filesManager.getAndOpenStream(reportsRecord.getFileId(), "text/csv", getFileName(), reportsRecord.getDescription(), filesManager.getReportsEncoding()).orElseThrow();
 
             writer = new BufferedWriter(new OutputStreamWriter(stream));
 
-            for (Map.Entry<Long, TableContent> entry : content.entrySet()) {
+            for (Map.Entry<Long, CellTable> entry : content.entrySet()) {
                 CurrenciesRecord currenciesRecord = currenciesMap.get(entry.getKey());
                 String code = currenciesRecord.getCode();
                 int decimals = currenciesRecord.getDecimals();
 
-                TableContent table = entry.getValue();
+                CellTable table = entry.getValue();
 
                 String[][] tableContent = buildTable(table, code, decimals);
 
@@ -84,42 +100,28 @@ public class ByDaysReportBuilder extends AbstractReportBuilder {
         }
     }
 
-    protected String[][] buildTable(TableContent table, String currencyCode, int decimals) {
-        List<Long> categories = table.cells.keySet()
-                .stream()
-                .map(Pair::getKey)
-                .collect(Collectors.toSet())
-                .stream().toList();
-
-        List<LocalDate> dates = table.cells.keySet()
-                .stream()
-                .map(Pair::getValue)
-                .collect(Collectors.toSet())
-                .stream()
-                .sorted()
-                .toList();
+    protected String[][] buildTable(CellTable table, String currencyCode, int decimals) {
+        long[] categories = table.categories();
+        int[] days = table.days();
 
-        String[][] tableContent = new String[categories.size() + 2][dates.size() + 2]; // bottom and right total + heads
+        String[][] tableContent = new String[categories.length + 2][days.length + 2]; // bottom and right total + heads
 
         tableContent[0][0] = currencyCode;
-        putHeadsAndCategories(tableContent, categories, dates, formatter);
+        putHeadsAndCategories(tableContent, categories, days, formatter);
+
+        BigDecimal[] sumByDate = new BigDecimal[days.length];
+        Arrays.fill(sumByDate, BigDecimal.ZERO);
 
-        HashMap<LocalDate, BigDecimal> sumByDate = new HashMap<>();
         for (int row = 1; row < tableContent.length - 1; row++) {
-            long category = categories.get(row - 1);
+            long category = categories[row - 1];
 
             BigDecimal columnTotal = BigDecimal.ZERO;
 
             for (int column = 1; column < tableContent[row].length - 1; column++) {
-                LocalDate date = dates.get(column - 1);
-                BigDecimal sum = table.cells.get(Pair.of(category, date));
-
-                if (sum == null)
-                    sum = BigDecimal.ZERO;
+                BigDecimal sum = table.get(category, days[column - 1]);
 
                 columnTotal = columnTotal.add(sum);
-
-                sumByDate.put(date, sumByDate.getOrDefault(date, BigDecimal.ZERO).add(sum));
+                sumByDate[column - 1] = sumByDate[column - 1].add(sum);
 
                 tableContent[row][column] = sum.setScale(decimals, RoundingMode.HALF_DOWN).toString();
             }
@@ -127,28 +129,25 @@ public class ByDaysReportBuilder extends AbstractReportBuilder {
             tableContent[row][tableContent[row].length - 1] = columnTotal.setScale(decimals, RoundingMode.HALF_DOWN).toString();
         }
 
-        int dateIndex = 0;
         BigDecimal total = BigDecimal.ZERO;
 
-        for (LocalDate date : dates) {
-            BigDecimal decimal = sumByDate.getOrDefault(date, BigDecimal.ZERO);
-            tableContent[categories.size() + 1][dateIndex + 1] = decimal.setScale(decimals, RoundingMode.HALF_DOWN).toString();
+        for (int i = 0; i < days.length; i++) {
+            tableContent[categories.length + 1][i + 1] = sumByDate[i].setScale(decimals, RoundingMode.HALF_DOWN).toString();
 
-            total = total.add(decimal);
-            dateIndex++;
+            total = total.add(sumByDate[i]);
         }
 
-        tableContent[categories.size() + 1][dates.size() + 1] = total.setScale(decimals, RoundingMode.HALF_DOWN).toString();
+        tableContent[categories.length + 1][days.length + 1] = total.setScale(decimals, RoundingMode.HALF_DOWN).toString();
 
         return tableContent;
     }
 
-    protected void putHeadsAndCategories(String[][] table, List<Long> categories, List<LocalDate> dates, DateTimeFormatter formatter) {
+    protected void putHeadsAndCategories(String[][] table, long[] categories, int[] days, DateTimeFormatter formatter) {
         int i = 1;
         String total = userLang.getOrDefault("total", "Total");
 
-        for (LocalDate date : dates) {
-            table[0][i] = date.format(formatter);
+        for (int day : days) {
+            table[0][i] = LocalDate.ofEpochDay(day).format(formatter);
 
             i++;
         }
@@ -156,7 +155,7 @@ public class ByDaysReportBuilder extends AbstractReportBuilder {
 
         i = 1;
 
-        for (Long category : categories) {
+        for (long category : categories) {
             table[i][0] = getCategoryFullPath(category);
 
             i++;
@@ -165,21 +164,19 @@ public class ByDaysReportBuilder extends AbstractReportBuilder {
     }
 
     protected void addToCell(long currency, long category, LocalDate date, BigDecimal delta) {
-        TableContent tableContent = content.get(currency);
-
-        if (tableContent == null) {
-            tableContent = new TableContent();
+        addToCell(content, currency, category, date, delta);
+    }
 
-            content.put(currency, tableContent);
-        }
+    protected void addToCell(HashMap<Long, CellTable> content, long currency, long category, LocalDate date, BigDecimal delta) {
+        CellTable table = content.get(currency);
 
-        var pair = Pair.of(category, date);
-        BigDecimal oldValue = tableContent.cells.getOrDefault(pair, BigDecimal.ZERO);
+        if (table == null) {
+            CurrenciesRecord currencyRecord = currenciesMap.get(currency);
+            table = new CellTable(currencyRecord == null ? 0 : currencyRecord.getDecimals());
 
-        tableContent.cells.put(pair, oldValue.add(delta));
-    }
+            content.put(currency, table);
+        }
 
-    static class TableContent {
-        public final HashMap<Pair<Long, LocalDate>, BigDecimal> cells = new HashMap<>();
+        table.add(category, (int) date.toEpochDay(), delta);
     }
 }
@@ -4,55 +4,36 @@ import app.finwave.backend.api.files.FilesManager;
 import org.jooq.Record;
 import app.finwave.backend.database.DatabaseWorker;
 import app.finwave.backend.jooq.tables.records.ReportsRecord;
+import app.finwave.backend.report.csv.CsvWriter;
 
 import java.io.*;
-import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.DigestOutputStream;
-import java.time.format.DateTimeFormatter;
-import java.time.format.FormatStyle;
 import java.util.List;
-import java.util.Locale;
 import java.util.Optional;
 
 import static app.finwave.backend.jooq.Tables.TRANSACTIONS;
 
-public class ListReportBuilder extends AbstractReportBuilder {
+public class ListReportBuilder extends AbstractListReportBuilder {
     protected OutputStream stream;
-    protected BufferedWriter writer;
-
-    protected DateTimeFormatter dateFormatter;
-
-    protected static final String[] head = new String[]{
-            "account", "delta", "category", "currency", "created", "description"
-    };
+    protected CsvWriter writer;
 
     public ListReportBuilder(ReportsRecord reportsRecord, DatabaseWorker databaseWorker, FilesManager filesManager) throws IOException {
         super(reportsRecord, databaseWorker, filesManager);
 
-        stream = filesManager.getAndOpenStream(reportsRecord.getFileId(), "text/csv", getFileName(), reportsRecord.getDescription()).orElseThrow();
-        writer = new BufferedWriter(new OutputStreamWriter(stream));
+        stream = filesManager.getAndOpenStream(reportsRecord.getFileId(), "text/csv", getFileName(), reportsRecord.getDescription(), filesManager.getReportsEncoding()).orElseThrow();
+        writer = new CsvWriter(new BufferedWriter(new OutputStreamWriter(stream)));
 
-        this.dateFormatter = DateTimeFormatter
-                .ofLocalizedDateTime(FormatStyle.SHORT)
-                .withLocale(
-                        Locale.forLanguageTag(userLang.getOrDefault("dateLocale", "en-US"))
-                );
-
-        for (String headEntry : head) {
-            writer.write(userLang.getOrDefault(headEntry, headEntry));
-            writer.write(',');
-        }
-
-        writer.newLine();
+        writer.row(localizedHead());
     }
 
     @Override
     public void consider(List<Record> records) {
         try {
-            for (Record record : records) {
-                writer.write(buildLine(record));
-                writer.newLine();
-            }
+            for (Record record : records)
+                writeLine(writer, record);
 
             writer.flush();
         } catch (IOException e) {
@@ -60,24 +41,39 @@ public class ListReportBuilder extends AbstractReportBuilder {
         }
     }
 
-    protected String buildLine(Record record) {
-        long accountId = record.get(TRANSACTIONS.ACCOUNT_ID);
-        long tagId = record.get(TRANSACTIONS.CATEGORY_ID);
-        long currencyId = record.get(TRANSACTIONS.CURRENCY_ID);
-        BigDecimal delta = record.get(TRANSACTIONS.DELTA);
-        String created = dateFormatter.format(record.get(TRANSACTIONS.CREATED_AT));
-        String description = record.get(TRANSACTIONS.DESCRIPTION);
-
-        String account = accountsMap.get(accountId).getName();
-        String category = getCategoryFullPath(tagId);
-        String currency = currenciesMap.get(currencyId).getCode();
-
-        return account + ',' +
-                delta + ',' +
-                category + ',' +
-                currency + ',' +
-                created.replace(',', ' ') + ',' +
-                (description == null ? "" : description);
+    // Rows of one time slice go to a temporary file and are appended to the report in slice order
+    public Slice newSlice(Path directory) throws IOException {
+        return new Slice(Files.createTempFile(directory, "report-" + reportsRecord.getId() + "-", ".csv"));
+    }
+
+    public void consider(Slice slice, List<Record> records) {
+        try {
+            for (Record record : records)
+                writeLine(slice.writer, record);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public void append(Slice slice) throws IOException {
+        slice.writer.close();
+        writer.flush();
+
+        try {
+            Files.copy(slice.path, stream);
+        } finally {
+            Files.deleteIfExists(slice.path);
+        }
+    }
+
+    protected void writeLine(CsvWriter writer, Record record) throws IOException {
+        writer.field(accountNames.get(record.get(TRANSACTIONS.ACCOUNT_ID)))
+                .field(record.get(TRANSACTIONS.DELTA))
+                .field(getCategoryFullPath(record.get(TRANSACTIONS.CATEGORY_ID)))
+                .field(currencyCodes.get(record.get(TRANSACTIONS.CURRENCY_ID)))
+                .field(record.get(TRANSACTIONS.CREATED_AT), dateFormatter)
+                .field(record.get(TRANSACTIONS.DESCRIPTION))
+                .endRow();
     }
 
     @Override
@@ -88,4 +84,20 @@ public class ListReportBuilder extends AbstractReportBuilder {
             throw new RuntimeException(e);
         }
     }
+
+    public static class Slice implements Closeable {
+        protected final Path path;
+        protected final CsvWriter writer;
+
+        public Slice(Path path) throws IOException {
+            this.path = path;
+            this.writer = new CsvWriter(Files.newBufferedWriter(path, Charset.defaultCharset()));
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+            Files.deleteIfExists(path);
+        }
+    }
 }
@@ -0,0 +1,62 @@
+package app.finwave.backend.report.builders;
+
+import app.finwave.backend.api.files.FileEncoding;
+import app.finwave.backend.api.files.FilesManager;
+import app.finwave.backend.config.general.ReportBuilderConfig;
+import app.finwave.backend.database.DatabaseWorker;
+import app.finwave.backend.jooq.tables.records.ReportsRecord;
+import app.finwave.backend.report.xlsx.XlsxStreamWriter;
+import org.jooq.Record;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import static app.finwave.backend.jooq.Tables.TRANSACTIONS;
+
+public class XlsxListReportBuilder extends AbstractListReportBuilder {
+    public static final String MIME = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    protected XlsxStreamWriter writer;
+
+    public XlsxListReportBuilder(ReportsRecord reportsRecord, DatabaseWorker databaseWorker, FilesManager filesManager, ReportBuilderConfig config) throws IOException {
+        super(reportsRecord, databaseWorker, filesManager);
+
+        // xlsx is a zip already, compressing it once more only costs cpu
+        OutputStream stream = filesManager.getAndOpenStream(reportsRecord.getFileId(), MIME, getFileName("xlsx"), reportsRecord.getDescription(), FileEncoding.IDENTITY).orElseThrow();
+
+        this.writer = new XlsxStreamWriter(stream, userLang.getOrDefault("sheet", "Transactions"), config.xlsxRowWindow, config.xlsxMaxSharedStrings);
+        this.writer.setHeader(localizedHead());
+    }
+
+    @Override
+    public void consider(List<Record> records) {
+        try {
+            for (Record record : records) {
+                String description = record.get(TRANSACTIONS.DESCRIPTION);
+
+                writer.startRow();
+
+                writer.sharedString(accountNames.get(record.get(TRANSACTIONS.ACCOUNT_ID)));
+                writer.number(record.get(TRANSACTIONS.DELTA));
+                writer.sharedString(getCategoryFullPath(record.get(TRANSACTIONS.CATEGORY_ID)));
+                writer.sharedString(currencyCodes.get(record.get(TRANSACTIONS.CURRENCY_ID)));
+                writer.inlineString(dateFormatter.format(record.get(TRANSACTIONS.CREATED_AT)));
+                writer.inlineString(description);
+
+                writer.endRow();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void done() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
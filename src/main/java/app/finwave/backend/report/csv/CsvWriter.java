@@ -0,0 +1,140 @@
+package app.finwave.backend.report.csv;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.Arrays;
+
+// RFC 4180 output written field by field into the underlying writer. Fields are copied into a reused
+// buffer and quoted only when they contain a separator, a quote or a line break
+public class CsvWriter implements Closeable, Flushable {
+    protected static final String LINE_BREAK = "\r\n";
+
+    protected Writer writer;
+
+    protected char[] buffer = new char[128];
+    protected StringBuilder formatted = new StringBuilder(64);
+    protected boolean rowStarted;
+
+    public CsvWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public CsvWriter field(String value) throws IOException {
+        separator();
+
+        if (value == null || value.isEmpty())
+            return this;
+
+        int length = value.length();
+
+        ensureBuffer(length);
+        value.getChars(0, length, buffer, 0);
+        escaped(length);
+
+        return this;
+    }
+
+    // Amounts never contain separators or quotes
+    public CsvWriter field(BigDecimal value) throws IOException {
+        separator();
+
+        if (value != null)
+            writer.write(value.toPlainString());
+
+        return this;
+    }
+
+    public CsvWriter field(TemporalAccessor value, DateTimeFormatter formatter) throws IOException {
+        separator();
+
+        if (value == null)
+            return this;
+
+        formatted.setLength(0);
+        formatter.formatTo(value, formatted);
+
+        int length = formatted.length();
+
+        ensureBuffer(length);
+        formatted.getChars(0, length, buffer, 0);
+        escaped(length);
+
+        return this;
+    }
+
+    public void row(String... values) throws IOException {
+        for (String value : values)
+            field(value);
+
+        endRow();
+    }
+
+    public void endRow() throws IOException {
+        writer.write(LINE_BREAK);
+
+        rowStarted = false;
+    }
+
+    protected void separator() throws IOException {
+        if (rowStarted)
+            writer.write(',');
+
+        rowStarted = true;
+    }
+
+    protected void escaped(int length) throws IOException {
+        if (!needsQuotes(length)) {
+            writer.write(buffer, 0, length);
+
+            return;
+        }
+
+        writer.write('"');
+
+        int start = 0;
+
+        for (int i = 0; i < length; i++) {
+            if (buffer[i] != '"')
+                continue;
+
+            writer.write(buffer, start, i - start + 1);
+            writer.write('"');
+
+            start = i + 1;
+        }
+
+        writer.write(buffer, start, length - start);
+        writer.write('"');
+    }
+
+    protected boolean needsQuotes(int length) {
+        for (int i = 0; i < length; i++) {
+            char c = buffer[i];
+
+            if (c == ',' || c == '"' || c == '\n' || c == '\r')
+                return true;
+        }
+
+        return false;
+    }
+
+    protected void ensureBuffer(int length) {
+        if (buffer.length < length)
+            buffer = Arrays.copyOf(buffer, Math.max(length, buffer.length * 2));
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,286 @@
+package app.finwave.backend.report.xlsx;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Writes a single-table workbook straight into the zip: rows go to the current sheet entry as they come,
+// the sheet rolls over when it's full, and workbook metadata with shared strings is written on close
+public class XlsxStreamWriter implements Closeable {
+    public static final int MAX_ROWS_PER_SHEET = 1_048_576;
+
+    protected static final String SPREADSHEET_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    protected static final String RELATIONSHIPS_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    protected static final String PACKAGE_RELATIONSHIPS_NS = "http://schemas.openxmlformats.org/package/2006/relationships";
+
+    protected ZipOutputStream zip;
+    protected Writer writer;
+
+    protected String sheetName;
+    protected String[] header;
+
+    protected int maxRowsPerSheet;
+    protected int rowWindow;
+    protected int maxSharedStrings;
+
+    protected HashMap<String, Integer> sharedIndexes = new HashMap<>();
+    protected ArrayList<String> sharedStrings = new ArrayList<>();
+    protected long sharedCount;
+
+    protected int sheets;
+    protected int rowsInSheet;
+    protected int rowsInWindow;
+    protected boolean rowOpened;
+
+    public XlsxStreamWriter(OutputStream stream, String sheetName, int maxRowsPerSheet, int rowWindow, int maxSharedStrings) {
+        this.zip = new ZipOutputStream(stream, StandardCharsets.UTF_8);
+        this.writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8));
+
+        this.sheetName = sheetName;
+        this.maxRowsPerSheet = Math.min(Math.max(maxRowsPerSheet, 2), MAX_ROWS_PER_SHEET);
+        this.rowWindow = Math.max(rowWindow, 1);
+        this.maxSharedStrings = maxSharedStrings;
+    }
+
+    public XlsxStreamWriter(OutputStream stream, String sheetName, int rowWindow, int maxSharedStrings) {
+        this(stream, sheetName, MAX_ROWS_PER_SHEET, rowWindow, maxSharedStrings);
+    }
+
+    // Repeated on top of every sheet
+    public void setHeader(String... header) {
+        this.header = header;
+    }
+
+    public void startRow() throws IOException {
+        if (sheets == 0 || rowsInSheet >= maxRowsPerSheet)
+            nextSheet();
+
+        writer.write("<row>");
+
+        rowsInSheet++;
+        rowOpened = true;
+    }
+
+    public void endRow() throws IOException {
+        writer.write("</row>");
+
+        rowOpened = false;
+
+        if (++rowsInWindow >= rowWindow) {
+            writer.flush();
+            rowsInWindow = 0;
+        }
+    }
+
+    public void number(BigDecimal value) throws IOException {
+        if (value == null) {
+            empty();
+
+            return;
+        }
+
+        writer.write("<c><v>");
+        writer.write(value.toPlainString());
+        writer.write("</v></c>");
+    }
+
+    // Low-cardinality values (names, codes): stored once in the shared strings table
+    public void sharedString(String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            empty();
+
+            return;
+        }
+
+        Integer index = sharedIndexes.get(value);
+
+        if (index == null) {
+            if (sharedStrings.size() >= maxSharedStrings) {
+                inlineString(value);
+
+                return;
+            }
+
+            index = sharedStrings.size();
+
+            sharedIndexes.put(value, index);
+            sharedStrings.add(value);
+        }
+
+        sharedCount++;
+
+        writer.write("<c t=\"s\"><v>");
+        writer.write(Integer.toString(index));
+        writer.write("</v></c>");
+    }
+
+    // High-cardinality values (descriptions, dates): written into the cell itself to keep the shared table bounded
+    public void inlineString(String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            empty();
+
+            return;
+        }
+
+        writer.write("<c t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+        escape(writer, value);
+        writer.write("</t></is></c>");
+    }
+
+    public void empty() throws IOException {
+        writer.write("<c/>");
+    }
+
+    public int getSheets() {
+        return sheets;
+    }
+
+    protected void nextSheet() throws IOException {
+        closeSheet();
+
+        sheets++;
+        rowsInSheet = 0;
+
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + sheets + ".xml"));
+
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>");
+        writer.write("<worksheet xmlns=\"" + SPREADSHEET_NS + "\"><sheetData>");
+
+        if (header == null)
+            return;
+
+        rowsInSheet++;
+
+        writer.write("<row>");
+
+        for (String entry : header)
+            sharedString(entry);
+
+        writer.write("</row>");
+    }
+
+    protected void closeSheet() throws IOException {
+        if (sheets == 0)
+            return;
+
+        writer.write("</sheetData></worksheet>");
+        writer.flush();
+
+        zip.closeEntry();
+    }
+
+    protected void entry(String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>");
+        writer.write(content);
+        writer.flush();
+
+        zip.closeEntry();
+    }
+
+    protected void writeSharedStrings() throws IOException {
+        zip.putNextEntry(new ZipEntry("xl/sharedStrings.xml"));
+
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>");
+        writer.write("<sst xmlns=\"" + SPREADSHEET_NS + "\" count=\"" + sharedCount + "\" uniqueCount=\"" + sharedStrings.size() + "\">");
+
+        for (String value : sharedStrings) {
+            writer.write("<si><t xml:space=\"preserve\">");
+            escape(writer, value);
+            writer.write("</t></si>");
+        }
+
+        writer.write("</sst>");
+        writer.flush();
+
+        zip.closeEntry();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (rowOpened)
+            endRow();
+
+        if (sheets == 0)
+            nextSheet();
+
+        closeSheet();
+        writeSharedStrings();
+
+        StringBuilder contentTypes = new StringBuilder()
+                .append("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">")
+                .append("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>")
+                .append("<Default Extension=\"xml\" ContentType=\"application/xml\"/>")
+                .append("<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>")
+                .append("<Override PartName=\"/xl/sharedStrings.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sharedStrings+xml\"/>");
+
+        StringBuilder workbook = new StringBuilder()
+                .append("<workbook xmlns=\"").append(SPREADSHEET_NS).append("\" xmlns:r=\"").append(RELATIONSHIPS_NS).append("\"><sheets>");
+
+        StringBuilder workbookRels = new StringBuilder()
+                .append("<Relationships xmlns=\"").append(PACKAGE_RELATIONSHIPS_NS).append("\">");
+
+        for (int i = 1; i <= sheets; i++) {
+            contentTypes.append("<Override PartName=\"/xl/worksheets/sheet").append(i)
+                    .append(".xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+
+            workbook.append("<sheet name=\"");
+            escape(workbook, sheetName(i));
+            workbook.append("\" sheetId=\"").append(i).append("\" r:id=\"rId").append(i).append("\"/>");
+
+            workbookRels.append("<Relationship Id=\"rId").append(i)
+                    .append("\" Type=\"").append(RELATIONSHIPS_NS).append("/worksheet\" Target=\"worksheets/sheet").append(i).append(".xml\"/>");
+        }
+
+        contentTypes.append("</Types>");
+        workbook.append("</sheets></workbook>");
+        workbookRels.append("<Relationship Id=\"rId").append(sheets + 1)
+                .append("\" Type=\"").append(RELATIONSHIPS_NS).append("/sharedStrings\" Target=\"sharedStrings.xml\"/>")
+                .append("</Relationships>");
+
+        entry("xl/workbook.xml", workbook.toString());
+        entry("xl/_rels/workbook.xml.rels", workbookRels.toString());
+        entry("_rels/.rels", "<Relationships xmlns=\"" + PACKAGE_RELATIONSHIPS_NS + "\">" +
+                "<Relationship Id=\"rId1\" Type=\"" + RELATIONSHIPS_NS + "/officeDocument\" Target=\"xl/workbook.xml\"/>" +
+                "</Relationships>");
+        entry("[Content_Types].xml", contentTypes.toString());
+
+        writer.close();
+    }
+
+    // Sheet names are limited to 31 characters and a few symbols are forbidden
+    protected String sheetName(int index) {
+        String name = sheetName.replaceAll("[\\\\/?*\\[\\]:]", "_");
+        String suffix = index == 1 ? "" : " " + index;
+
+        if (name.isBlank())
+            name = "Sheet";
+
+        if (name.length() + suffix.length() > 31)
+            name = name.substring(0, 31 - suffix.length());
+
+        return name + suffix;
+    }
+
+    protected static void escape(Appendable out, String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                default -> {
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r')
+                        out.append(c);
+                }
+            }
+        }
+    }
+}
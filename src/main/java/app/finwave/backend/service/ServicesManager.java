@@ -7,10 +7,14 @@ import org.slf4j.LoggerFactory;
 import app.finwave.backend.config.Configs;
 import app.finwave.backend.config.general.ServiceConfig;
 import app.finwave.backend.config.general.UserConfig;
+import app.finwave.backend.service.analytics.AnalyticsRollupService;
+import app.finwave.backend.service.analytics.DescriptionsStatsService;
 import app.finwave.backend.service.demo.DemoService;
 import app.finwave.backend.service.notes.NotesService;
 import app.finwave.backend.service.notifications.NotificationsService;
 import app.finwave.backend.service.recurring.RecurringService;
+import app.finwave.backend.service.reports.ReportQueueService;
+import app.finwave.backend.service.reports.ReportSchedulesService;
 import app.finwave.backend.service.files.FilesService;
 
 import java.util.concurrent.Executors;
@@ -29,6 +33,10 @@ public class ServicesManager {
                            NotificationsService notificationsService,
                            NotesService notesService,
                            FilesService filesService,
+                           DescriptionsStatsService descriptionsStatsService,
+                           ReportQueueService reportQueueService,
+                           ReportSchedulesService reportSchedulesService,
+                           AnalyticsRollupService analyticsRollupService,
                            DemoService demoService) {
         this.config = configs.getState(new ServiceConfig());
 
@@ -40,6 +48,10 @@ public class ServicesManager {
         initService(notificationsService);
         initService(notesService);
         initService(filesService);
+        initService(descriptionsStatsService);
+        initService(reportQueueService);
+        initService(reportSchedulesService);
+        initService(analyticsRollupService);
 
         if (userConfig.demoMode) {
             initService(demoService);
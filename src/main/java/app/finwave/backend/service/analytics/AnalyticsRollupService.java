@@ -0,0 +1,54 @@
+package app.finwave.backend.service.analytics;
+
+import app.finwave.backend.api.analytics.AnalyticsDatabase;
+import app.finwave.backend.api.transaction.manager.TransactionsManager;
+import app.finwave.backend.database.DatabaseWorker;
+import app.finwave.backend.service.AbstractService;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import java.util.concurrent.TimeUnit;
+
+// Rebuilds the daily rollup off the startup path when it was filled in another zone. Until it is done analytics are
+// answered from raw transactions; the rebuild holds the transactions lock so the rollup hook can't interleave with it
+@Singleton
+public class AnalyticsRollupService extends AbstractService {
+    protected AnalyticsDatabase database;
+    protected TransactionsManager transactionsManager;
+
+    @Inject
+    public AnalyticsRollupService(DatabaseWorker databaseWorker, TransactionsManager transactionsManager) {
+        this.database = databaseWorker.get(AnalyticsDatabase.class);
+        this.transactionsManager = transactionsManager;
+    }
+
+    @Override
+    public void run() {
+        if (AnalyticsDatabase.isRollupReady())
+            return;
+
+        transactionsManager.exclusive(() -> database.ensureRollupZone(AnalyticsDatabase.rollupZone()));
+
+        AnalyticsDatabase.setRollupReady(true);
+    }
+
+    @Override
+    public long getRepeatTime() {
+        return 10;
+    }
+
+    @Override
+    public long getInitDelay() {
+        return 0;
+    }
+
+    @Override
+    public TimeUnit getTimeUnit() {
+        return TimeUnit.MINUTES;
+    }
+
+    @Override
+    public String name() {
+        return "Analytics rollup";
+    }
+}
@@ -0,0 +1,43 @@
+package app.finwave.backend.service.analytics;
+
+import app.finwave.backend.api.analytics.description.DescriptionsStatsManager;
+import app.finwave.backend.service.AbstractService;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import java.util.concurrent.TimeUnit;
+
+@Singleton
+public class DescriptionsStatsService extends AbstractService {
+    protected DescriptionsStatsManager manager;
+
+    @Inject
+    public DescriptionsStatsService(DescriptionsStatsManager manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    public void run() {
+        manager.flush();
+    }
+
+    @Override
+    public long getRepeatTime() {
+        return 5;
+    }
+
+    @Override
+    public long getInitDelay() {
+        return 5;
+    }
+
+    @Override
+    public TimeUnit getTimeUnit() {
+        return TimeUnit.MINUTES;
+    }
+
+    @Override
+    public String name() {
+        return "Descriptions stats";
+    }
+}
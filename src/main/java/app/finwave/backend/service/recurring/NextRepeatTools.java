@@ -23,6 +23,24 @@ public class NextRepeatTools {
         return lastRepeat.plusMonths(1);
     }
 
+    public static OffsetDateTime previous(OffsetDateTime nextRepeat, short type, short arg) {
+        RepeatType repeatType = RepeatType.values()[type];
+
+        switch (repeatType) {
+            case IN_DAYS -> {
+                return nextRepeat.minusDays(arg);
+            }
+            case WEEKLY -> {
+                return nextRepeat.minusWeeks(arg);
+            }
+            case MONTHLY -> {
+                return nextRepeat.minusMonths(arg);
+            }
+        }
+
+        return nextRepeat.minusMonths(1);
+    }
+
     public static boolean validateArg(RepeatType type, short arg) {
         return arg > 0 && arg <= 512;
     }
@@ -0,0 +1,51 @@
+package app.finwave.backend.service.reports;
+
+import app.finwave.backend.config.Configs;
+import app.finwave.backend.config.general.ReportBuilderConfig;
+import app.finwave.backend.report.ReportBuilder;
+import app.finwave.backend.report.ReportScheduler;
+import app.finwave.backend.service.AbstractService;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import java.util.concurrent.TimeUnit;
+
+// Starts the report workers and keeps the leases of running reports alive, several times per lease so one missed run
+// doesn't hand a live report to another instance
+@Singleton
+public class ReportQueueService extends AbstractService {
+    protected ReportBuilderConfig config;
+    protected ReportScheduler scheduler;
+
+    @Inject
+    public ReportQueueService(Configs configs, ReportBuilder builder) {
+        this.config = configs.getState(new ReportBuilderConfig());
+        this.scheduler = builder.getScheduler();
+    }
+
+    @Override
+    public void run() {
+        scheduler.start();
+        scheduler.maintain();
+    }
+
+    @Override
+    public long getRepeatTime() {
+        return Math.max(config.leaseSeconds / 3, 1);
+    }
+
+    @Override
+    public long getInitDelay() {
+        return 0;
+    }
+
+    @Override
+    public TimeUnit getTimeUnit() {
+        return TimeUnit.SECONDS;
+    }
+
+    @Override
+    public String name() {
+        return "Reports queue";
+    }
+}
@@ -0,0 +1,177 @@
+package app.finwave.backend.service.reports;
+
+import app.finwave.backend.api.files.FilesManager;
+import app.finwave.backend.api.report.ReportDatabase;
+import app.finwave.backend.api.report.ReportScheduleDatabase;
+import app.finwave.backend.api.report.data.ReportType;
+import app.finwave.backend.api.transaction.filter.TransactionsFilter;
+import app.finwave.backend.api.transaction.manager.TransactionsManager;
+import app.finwave.backend.config.Configs;
+import app.finwave.backend.config.app.ReportConfig;
+import app.finwave.backend.config.general.ReportBuilderConfig;
+import app.finwave.backend.database.DatabaseWorker;
+import app.finwave.backend.jooq.tables.records.FilesRecord;
+import app.finwave.backend.jooq.tables.records.ReportSchedulesRecord;
+import app.finwave.backend.report.ReportBuilder;
+import app.finwave.backend.service.AbstractService;
+import app.finwave.backend.service.recurring.NextRepeatTools;
+import com.google.gson.reflect.TypeToken;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import org.jooq.DSLContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static app.finwave.backend.api.ApiResponse.GSON;
+
+@Singleton
+public class ReportSchedulesService extends AbstractService {
+    protected static final Logger log = LoggerFactory.getLogger(ReportSchedulesService.class);
+
+    protected ReportConfig config;
+    protected ReportBuilderConfig builderConfig;
+
+    protected DatabaseWorker databaseWorker;
+    protected ReportDatabase reportDatabase;
+
+    protected ReportBuilder builder;
+    protected FilesManager filesManager;
+    protected TransactionsManager transactionsManager;
+
+    @Inject
+    public ReportSchedulesService(DatabaseWorker databaseWorker, Configs configs, ReportBuilder builder, FilesManager filesManager,
+                                  TransactionsManager transactionsManager) {
+        this.config = configs.getState(new ReportConfig());
+        this.builderConfig = configs.getState(new ReportBuilderConfig());
+
+        this.databaseWorker = databaseWorker;
+        this.reportDatabase = databaseWorker.get(ReportDatabase.class);
+
+        this.builder = builder;
+        this.filesManager = filesManager;
+        this.transactionsManager = transactionsManager;
+    }
+
+    @Override
+    public void run() {
+        if (!isOffPeak(LocalTime.now().getHour(), builderConfig.offPeakStartHour, builderConfig.offPeakEndHour))
+            return;
+
+        // The next batch waits until the builder has drained the queue, so user requests are never stuck behind a whole night of schedules
+        if (reportDatabase.getQueuedCount() >= builderConfig.scheduledBatchSize)
+            return;
+
+        // One transaction per batch: a schedule only moves on together with its report and file. The shared connection
+        // is only safe to hold a transaction on under the transactions lock
+        int enqueued = transactionsManager.exclusive(() -> databaseWorker.getDefaultContext().transactionResult((configuration) -> {
+            DSLContext context = configuration.dsl();
+            ReportScheduleDatabase scheduleDatabase = databaseWorker.get(ReportScheduleDatabase.class, context);
+            ReportDatabase reports = databaseWorker.get(ReportDatabase.class, context);
+
+            int count = 0;
+
+            for (ReportSchedulesRecord schedule : scheduleDatabase.getDueSchedules(builderConfig.scheduledBatchSize)) {
+                if (enqueue(scheduleDatabase, reports, schedule))
+                    count++;
+            }
+
+            return count;
+        }));
+
+        if (enqueued > 0)
+            builder.getScheduler().wakeUp();
+    }
+
+    protected boolean enqueue(ReportScheduleDatabase scheduleDatabase, ReportDatabase reports, ReportSchedulesRecord schedule) {
+        Period period = latestPeriod(schedule.getNextRun(), schedule.getRepeatType(), schedule.getRepeatArg(), OffsetDateTime.now());
+
+        int userId = schedule.getUserId();
+        Optional<FilesRecord> filesRecord = filesManager.registerNewEmptyFile(userId, config.expiresDays, true, "reports");
+
+        if (filesRecord.isEmpty()) {
+            log.warn("Skipping scheduled report {}: no file could be registered", schedule.getId());
+            scheduleDatabase.updateSchedule(schedule.getId(), period.end(), period.nextRun());
+
+            return false;
+        }
+
+        TransactionsFilter filter = schedule.getFilter() == null ? TransactionsFilter.EMPTY :
+                GSON.fromJson(schedule.getFilter().data(), TransactionsFilter.class);
+
+        filter = filter
+                .setFromTime(NextRepeatTools.previous(period.end(), schedule.getRepeatType(), schedule.getRepeatArg()))
+                .setToTime(period.end().minus(1, ChronoUnit.MICROS));
+
+        Map<String, String> lang = schedule.getLang() == null ? null :
+                GSON.fromJson(schedule.getLang().data(), new TypeToken<Map<String, String>>(){}.getType());
+
+        reports.newReport(
+                schedule.getDescription(),
+                filter,
+                lang,
+                ReportType.values()[schedule.getType()],
+                userId,
+                filesRecord.get().getId(),
+                null,
+                (short) builderConfig.scheduledPriority,
+                true
+        );
+
+        scheduleDatabase.updateSchedule(schedule.getId(), period.end(), period.nextRun());
+
+        return true;
+    }
+
+    // After a long downtime only the latest finished period is built
+    public static Period latestPeriod(OffsetDateTime scheduledRun, short repeatType, short repeatArg, OffsetDateTime now) {
+        OffsetDateTime end = scheduledRun;
+        OffsetDateTime nextRun = NextRepeatTools.calculate(end, repeatType, repeatArg);
+
+        while (!nextRun.isAfter(now)) {
+            end = nextRun;
+            nextRun = NextRepeatTools.calculate(end, repeatType, repeatArg);
+        }
+
+        return new Period(end, nextRun);
+    }
+
+    public record Period(OffsetDateTime end, OffsetDateTime nextRun) {}
+
+    // The window may wrap around midnight, e.g. from 22 to 5
+    public static boolean isOffPeak(int hour, int startHour, int endHour) {
+        if (startHour == endHour)
+            return true;
+
+        if (startHour < endHour)
+            return hour >= startHour && hour < endHour;
+
+        return hour >= startHour || hour < endHour;
+    }
+
+    @Override
+    public long getRepeatTime() {
+        return 1;
+    }
+
+    @Override
+    public long getInitDelay() {
+        return 0;
+    }
+
+    @Override
+    public TimeUnit getTimeUnit() {
+        return TimeUnit.MINUTES;
+    }
+
+    @Override
+    public String name() {
+        return "Scheduled Reports";
+    }
+}
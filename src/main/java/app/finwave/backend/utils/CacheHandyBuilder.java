@@ -20,7 +20,29 @@ public class CacheHandyBuilder {
         if (removalListener != null)
             builder = builder.removalListener(removalListener);
 
-        return builder;
+        return builder.recordStats();
+    }
+
+    public static <T, X> LoadingCache<T, X> loading(String name, long duration, TimeUnit unit, long maxSize, Function<T, X> loader, RemovalListener<T, X> removalListener) {
+        LoadingCache<T, X> cache = loading(duration, unit, maxSize, loader, removalListener);
+        CacheRegistry.register(name, cache);
+
+        return cache;
+    }
+
+    public static <T, X> LoadingCache<T, X> loading(String name, long duration, TimeUnit unit, long maxSize, Function<T, X> loader) {
+        return loading(name, duration, unit, maxSize, loader, null);
+    }
+
+    public static <T, X> Cache<T, X> cache(String name, long duration, TimeUnit unit, long maxSize, RemovalListener<T, X> removalListener) {
+        Cache<T, X> cache = cache(duration, unit, maxSize, removalListener);
+        CacheRegistry.register(name, cache);
+
+        return cache;
+    }
+
+    public static <T, X> Cache<T, X> cache(String name, long duration, TimeUnit unit, long maxSize) {
+        return cache(name, duration, unit, maxSize, null);
     }
 
     public static <T, X> LoadingCache<T, X> loading(long duration, TimeUnit unit, long maxSize, Function<T, X> loader, RemovalListener<T, X> removalListener) {
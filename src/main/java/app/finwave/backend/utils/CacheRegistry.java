@@ -0,0 +1,77 @@
+package app.finwave.backend.utils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Every named cache built by CacheHandyBuilder ends up here; a name registered twice keeps the latest cache
+public class CacheRegistry {
+    protected static final ConcurrentHashMap<String, Cache<?, ?>> caches = new ConcurrentHashMap<>();
+
+    public static void register(String name, Cache<?, ?> cache) {
+        caches.put(name, cache);
+    }
+
+    public static List<Entry> getStats() {
+        return caches.entrySet().stream()
+                .map((e) -> Entry.of(e.getKey(), e.getValue()))
+                .sorted(Comparator.comparing(Entry::name))
+                .toList();
+    }
+
+    // Prometheus text exposition format
+    public static String exportMetrics() {
+        List<Entry> entries = getStats();
+        StringBuilder builder = new StringBuilder();
+
+        metric(builder, entries, "finwave_cache_size", "gauge", "Estimated number of entries", Entry::size);
+        metric(builder, entries, "finwave_cache_hits_total", "counter", "Cache hits", Entry::hitCount);
+        metric(builder, entries, "finwave_cache_misses_total", "counter", "Cache misses", Entry::missCount);
+        metric(builder, entries, "finwave_cache_loads_total", "counter", "Successful and failed loads", Entry::loadCount);
+        metric(builder, entries, "finwave_cache_load_failures_total", "counter", "Failed loads", Entry::loadExceptionCount);
+        metric(builder, entries, "finwave_cache_load_seconds_total", "counter", "Time spent loading new values", (e) -> e.totalLoadTimeMillis() / 1000d);
+        metric(builder, entries, "finwave_cache_evictions_total", "counter", "Entries evicted by size or expiration", Entry::evictionCount);
+
+        return builder.toString();
+    }
+
+    protected static void metric(StringBuilder builder, List<Entry> entries, String name, String type, String help, ValueGetter getter) {
+        builder.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        builder.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+
+        for (Entry entry : entries) {
+            builder.append(name)
+                    .append("{cache=\"").append(entry.name().replace("\\", "\\\\").replace("\"", "\\\"")).append("\"} ")
+                    .append(getter.get(entry))
+                    .append('\n');
+        }
+    }
+
+    protected interface ValueGetter {
+        Number get(Entry entry);
+    }
+
+    public record Entry(String name, long size, long requestCount, double hitRate, long hitCount, long missCount,
+                        long loadCount, long loadExceptionCount, double averageLoadMillis, long totalLoadTimeMillis,
+                        long evictionCount) {
+        public static Entry of(String name, Cache<?, ?> cache) {
+            CacheStats stats = cache.stats();
+
+            return new Entry(name,
+                    cache.size(),
+                    stats.requestCount(),
+                    stats.hitRate(),
+                    stats.hitCount(),
+                    stats.missCount(),
+                    stats.loadCount(),
+                    stats.loadExceptionCount(),
+                    stats.averageLoadPenalty() / TimeUnit.MILLISECONDS.toNanos(1),
+                    TimeUnit.NANOSECONDS.toMillis(stats.totalLoadTime()),
+                    stats.evictionCount());
+        }
+    }
+}
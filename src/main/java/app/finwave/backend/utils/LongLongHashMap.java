@@ -0,0 +1,155 @@
+package app.finwave.backend.utils;
+
+import java.util.Arrays;
+
+// Open addressing with linear probing, Long.MIN_VALUE marks a free slot and can't be used as a key
+public class LongLongHashMap {
+    protected static final long FREE = Long.MIN_VALUE;
+
+    protected long[] keys;
+    protected long[] values;
+    protected int size;
+    protected int mask;
+
+    public LongLongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+        this.mask = capacity - 1;
+
+        Arrays.fill(keys, FREE);
+    }
+
+    public LongLongHashMap() {
+        this(16);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean containsKey(long key) {
+        return keys[find(key)] != FREE;
+    }
+
+    public long get(long key) {
+        int slot = find(key);
+
+        return keys[slot] == FREE ? 0 : values[slot];
+    }
+
+    // Returns the slot of the key, inserting it with zero when absent
+    public int slotOf(long key) {
+        if (key == FREE)
+            throw new IllegalArgumentException();
+
+        int slot = find(key);
+
+        if (keys[slot] != FREE)
+            return slot;
+
+        if ((size + 1) * 4 > keys.length * 3) {
+            rehash(keys.length * 2);
+            slot = find(key);
+        }
+
+        keys[slot] = key;
+        values[slot] = 0;
+        size++;
+
+        return slot;
+    }
+
+    public void put(long key, long value) {
+        int slot = slotOf(key);
+
+        values[slot] = value;
+    }
+
+    // Backward shift deletion keeps probe chains intact without tombstones
+    public boolean remove(long key) {
+        int gap = find(key);
+
+        if (keys[gap] == FREE)
+            return false;
+
+        for (int next = (gap + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+
+            if (((next - home) & mask) < ((next - gap) & mask))
+                continue;
+
+            keys[gap] = keys[next];
+            values[gap] = values[next];
+            gap = next;
+        }
+
+        keys[gap] = FREE;
+        size--;
+
+        return true;
+    }
+
+    public long addTo(long key, long delta) {
+        int slot = slotOf(key);
+
+        return values[slot] = Math.addExact(values[slot], delta);
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    public boolean used(int slot) {
+        return keys[slot] != FREE;
+    }
+
+    public long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    public long valueAt(int slot) {
+        return values[slot];
+    }
+
+    public void setValueAt(int slot, long value) {
+        values[slot] = value;
+    }
+
+    protected int find(long key) {
+        int slot = hash(key) & mask;
+
+        while (keys[slot] != FREE && keys[slot] != key)
+            slot = (slot + 1) & mask;
+
+        return slot;
+    }
+
+    protected void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+        this.mask = capacity - 1;
+
+        Arrays.fill(keys, FREE);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == FREE)
+                continue;
+
+            int slot = find(oldKeys[i]);
+
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    protected static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,57 @@
+package app.finwave.backend.utils;
+
+import java.util.ArrayList;
+
+// Values are kept in a list, the primitive map holds their positions shifted by one so zero still means absent
+public class LongObjectHashMap<V> {
+    protected LongLongHashMap positions;
+    protected ArrayList<V> values;
+
+    public LongObjectHashMap(int expectedSize) {
+        this.positions = new LongLongHashMap(expectedSize);
+        this.values = new ArrayList<>(expectedSize);
+    }
+
+    public LongObjectHashMap() {
+        this(16);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public boolean containsKey(long key) {
+        return positions.containsKey(key);
+    }
+
+    public V get(long key) {
+        long position = positions.get(key);
+
+        return position == 0 ? null : values.get((int) position - 1);
+    }
+
+    public void put(long key, V value) {
+        int slot = positions.slotOf(key);
+        long position = positions.valueAt(slot);
+
+        if (position != 0) {
+            values.set((int) position - 1, value);
+
+            return;
+        }
+
+        values.add(value);
+        positions.setValueAt(slot, values.size());
+    }
+
+    public void forEach(Consumer<V> action) {
+        for (int slot = 0; slot < positions.capacity(); slot++) {
+            if (positions.used(slot))
+                action.accept(positions.keyAt(slot), values.get((int) positions.valueAt(slot) - 1));
+        }
+    }
+
+    public interface Consumer<V> {
+        void accept(long key, V value);
+    }
+}
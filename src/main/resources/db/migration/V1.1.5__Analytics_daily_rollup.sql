@@ -0,0 +1,18 @@
+create table if not exists analytics_daily_rollup
+(
+    owner_id                    integer not null references users(id),
+    currency_id                 bigint not null references currencies(id),
+    category_id                 bigint not null references categories(id),
+    day                         date not null,
+    delta                       numeric not null,
+    transactions_count          integer not null,
+
+    primary key (owner_id, currency_id, category_id, day)
+);
+
+create index idx_analytics_daily_rollup on analytics_daily_rollup(owner_id, day);
+
+insert into analytics_daily_rollup (owner_id, currency_id, category_id, day, delta, transactions_count)
+select owner_id, currency_id, category_id, created_at::date, sum(delta), count(*)
+from transactions
+group by owner_id, currency_id, category_id, created_at::date;
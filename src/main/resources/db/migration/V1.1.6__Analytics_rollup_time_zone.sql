@@ -0,0 +1,18 @@
+alter table analytics_daily_rollup
+    add column time_zone text;
+
+update analytics_daily_rollup
+set time_zone = current_setting('TimeZone');
+
+alter table analytics_daily_rollup
+    alter column time_zone set not null;
+
+alter table analytics_daily_rollup
+    drop constraint analytics_daily_rollup_pkey;
+
+alter table analytics_daily_rollup
+    add primary key (owner_id, time_zone, currency_id, category_id, day);
+
+drop index idx_analytics_daily_rollup;
+
+create index idx_analytics_daily_rollup on analytics_daily_rollup(owner_id, time_zone, day);
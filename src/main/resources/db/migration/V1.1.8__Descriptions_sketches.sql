@@ -0,0 +1,7 @@
+create table if not exists descriptions_sketches
+(
+    owner_id                    integer primary key references users(id),
+    data                        bytea not null,
+    data_version                bigint not null default -1,
+    updated_at                  timestamp with time zone not null default now()
+);
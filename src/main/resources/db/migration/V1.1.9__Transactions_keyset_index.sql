@@ -0,0 +1 @@
+create index idx_transactions_owner_created on transactions(owner_id, created_at desc, id desc);
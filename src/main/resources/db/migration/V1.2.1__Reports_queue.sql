@@ -0,0 +1,8 @@
+alter table reports
+    add column priority smallint not null default 0,
+    add column queued_at timestamp with time zone not null default now(),
+    add column started_at timestamp with time zone,
+    add column heartbeat_at timestamp with time zone;
+
+create index reports_queue_idx on reports (priority desc, id) where status = 0 and started_at is null;
+create index reports_running_idx on reports (user_id) where status = 0 and started_at is not null;
@@ -0,0 +1,9 @@
+alter table reports add column fingerprint text;
+
+create index reports_fingerprint_idx on reports (user_id, fingerprint) where fingerprint is not null;
+
+create table if not exists reports_data_versions
+(
+    owner_id                    integer primary key references users(id),
+    version                     bigint not null default 0
+);
@@ -0,0 +1,18 @@
+create table report_schedules
+(
+    id          bigserial primary key,
+    user_id     integer not null references users(id),
+    type        smallint not null,
+    description text,
+    filter      jsonb,
+    lang        jsonb,
+    repeat_type smallint not null,
+    repeat_arg  smallint not null,
+    next_run    timestamp with time zone not null,
+    last_run    timestamp with time zone
+);
+
+create index report_schedules_next_run_idx on report_schedules (next_run);
+create index report_schedules_user_idx on report_schedules (user_id);
+
+alter table reports add column scheduled boolean default false not null;
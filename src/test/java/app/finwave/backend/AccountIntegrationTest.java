@@ -6,6 +6,7 @@ import app.finwave.backend.api.account.folder.AccountFolderApi;
 import app.finwave.backend.api.account.folder.AccountFolderDatabase;
 import app.finwave.backend.api.currency.CurrencyDatabase;
 import app.finwave.backend.api.event.WebSocketWorker;
+import app.finwave.backend.api.report.ReportDataVersions;
 import app.finwave.backend.api.transaction.manager.TransactionsManager;
 import app.finwave.backend.config.Configs;
 import app.finwave.backend.config.app.AccountsConfig;
@@ -49,6 +50,9 @@ class AccountIntegrationTest extends BaseIntegrationTest {
     @Mock
     private TransactionsManager transactionsManager;
     
+    @Mock
+    private ReportDataVersions dataVersions;
+    
     @Mock
     private AccountDatabase accountDatabase;
     
@@ -100,7 +104,7 @@ class AccountIntegrationTest extends BaseIntegrationTest {
         when(accountDatabase.getAccountsCount(1)).thenReturn(0);
 
         // 4) finally, construct your API under test
-        accountApi = new AccountApi(databaseWorker, configs, webSocketWorker, transactionsManager);
+        accountApi = new AccountApi(databaseWorker, configs, webSocketWorker, transactionsManager, dataVersions);
         accountFolderApi = new AccountFolderApi(databaseWorker, configs, webSocketWorker);
     }
     
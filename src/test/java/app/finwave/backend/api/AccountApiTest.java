@@ -8,6 +8,7 @@ import app.finwave.backend.api.currency.CurrencyDatabase;
 import app.finwave.backend.api.event.WebSocketWorker;
 import app.finwave.backend.api.event.messages.response.NotifyUpdate;
 import app.finwave.backend.api.recurring.RecurringTransactionDatabase;
+import app.finwave.backend.api.report.ReportDataVersions;
 import app.finwave.backend.api.transaction.filter.TransactionsFilter;
 import app.finwave.backend.api.transaction.manager.TransactionsManager;
 import app.finwave.backend.config.Configs;
@@ -39,6 +40,7 @@ class AccountApiTest {
     @Mock Configs configs;
     @Mock WebSocketWorker socketWorker;
     @Mock TransactionsManager transactionsManager;
+    @Mock ReportDataVersions dataVersions;
 
     @Mock AccountDatabase accountDb;
     @Mock AccountFolderDatabase folderDb;
@@ -75,7 +77,7 @@ class AccountApiTest {
         cfg.maxDescriptionLength = 100;
         when(configs.getState(any(AccountsConfig.class))).thenReturn(cfg);
 
-        accountApi = new AccountApi(databaseWorker, configs, socketWorker, transactionsManager);
+        accountApi = new AccountApi(databaseWorker, configs, socketWorker, transactionsManager, dataVersions);
     }
 
     @Test
@@ -6,6 +6,7 @@ import app.finwave.backend.api.currency.CurrencyDatabase;
 import app.finwave.backend.api.event.WebSocketWorker;
 import app.finwave.backend.api.event.messages.response.NotifyUpdate;
 import app.finwave.backend.api.recurring.RecurringTransactionDatabase;
+import app.finwave.backend.api.report.ReportDataVersions;
 import app.finwave.backend.api.transaction.filter.TransactionsFilter;
 import app.finwave.backend.api.transaction.manager.TransactionsManager;
 import app.finwave.backend.config.Configs;
@@ -56,6 +57,9 @@ class AccountApiTest extends BaseApiTest {
     @Mock
     private RecurringTransactionDatabase recurringTransactionDatabase;
     
+    @Mock
+    private ReportDataVersions dataVersions;
+    
     @Mock
     private AccountsConfig accountsConfig;
     
@@ -91,7 +95,7 @@ class AccountApiTest extends BaseApiTest {
         when(request.attribute("session")).thenReturn(sessionRecord);
         
         // Create the API instance
-        accountApi = new AccountApi(databaseWorker, configs, socketWorker, transactionsManager);
+        accountApi = new AccountApi(databaseWorker, configs, socketWorker, transactionsManager, dataVersions);
     }
 
     @Test
@@ -0,0 +1,46 @@
+package app.finwave.backend.api.analytics;
+
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnalyticsDatabaseTest {
+    private final DSLContext ctx = DSL.using(SQLDialect.POSTGRES);
+    private final Field<OffsetDateTime> createdAt = DSL.field(DSL.name("created_at"), SQLDataType.TIMESTAMPWITHTIMEZONE);
+
+    private String bucket(ZoneId zoneId) {
+        return ctx.renderInlined(AnalyticsDatabase.bucket(createdAt, "day", zoneId));
+    }
+
+    @Test
+    void testOffsetZonesKeepTheirSign() {
+        String east = bucket(ZoneOffset.ofHours(3));
+        String west = bucket(ZoneOffset.ofHoursMinutes(-5, -30));
+
+        assertTrue(east.contains("interval '10800 seconds'"), east);
+        assertTrue(west.contains("interval '-19800 seconds'"), west);
+        assertFalse(east.contains("'+03:00'"), east);
+    }
+
+    @Test
+    void testOffsetSpellingsAreEquivalent() {
+        String offset = bucket(ZoneOffset.ofHours(3));
+
+        assertEquals(offset, bucket(ZoneId.of("UTC+03:00")));
+        assertEquals(offset, bucket(ZoneId.of("GMT+3")));
+    }
+
+    @Test
+    void testRegionZonesArePassedByName() {
+        assertTrue(bucket(ZoneId.of("Europe/Moscow")).contains("'Europe/Moscow'"));
+    }
+}
@@ -0,0 +1,72 @@
+package app.finwave.backend.api.analytics.description;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DescriptionsStatsTest {
+
+    @Test
+    void testSerializeRoundTrip() throws IOException {
+        DescriptionsStats stats = new DescriptionsStats(4);
+
+        stats.add(1, "Coffee", -3.5);
+        stats.add(1, "  coffee \n second line", -4);
+        stats.add(1, "Rent", -800);
+        stats.add(2, "Salary", 2000);
+        stats.subtract(1, "Rent", -800);
+        stats.add(1, "Rent", -900);
+
+        DescriptionsStats copy = DescriptionsStats.deserialize(stats.serialize(), 4);
+
+        for (long currencyId : List.of(1L, 2L, 3L)) {
+            assertEquals(stats.top(currencyId, 10, false), copy.top(currencyId, 10, false));
+            assertEquals(stats.top(currencyId, 10, true), copy.top(currencyId, 10, true));
+        }
+
+        assertEquals("coffee", copy.top(1, 1, false).get(0).key());
+        assertEquals("rent", copy.top(1, 1, true).get(0).key());
+        assertFalse(copy.isDirty());
+    }
+
+    @Test
+    void testCapacityMismatchRejected() {
+        byte[] data = new DescriptionsStats(4).serialize();
+
+        assertThrows(IOException.class, () -> DescriptionsStats.deserialize(data, 8));
+    }
+
+    @Test
+    void testDirtyUntilSaved() {
+        DescriptionsStats stats = new DescriptionsStats(4);
+
+        stats.add(1, "Coffee", -3);
+        long changes = stats.changes();
+        stats.serialize();
+
+        // Serializing alone doesn't count as saved, e.g. when storing the sketch fails
+        assertTrue(stats.isDirty());
+
+        stats.add(1, "Tea", -2);
+        stats.saved(changes);
+        assertTrue(stats.isDirty());
+
+        stats.saved(stats.changes());
+        assertFalse(stats.isDirty());
+    }
+
+    @Test
+    void testDiscardedStatsAreNeverSaved() {
+        DescriptionsStats stats = new DescriptionsStats(4);
+
+        stats.add(1, "Coffee", -3);
+        stats.discard();
+        assertFalse(stats.isDirty());
+
+        stats.add(1, "Tea", -2);
+        assertFalse(stats.isDirty());
+    }
+}
@@ -0,0 +1,80 @@
+package app.finwave.backend.api.analytics.description;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpaceSavingTest {
+
+    @Test
+    void testEvictsLightest() {
+        SpaceSaving sketch = new SpaceSaving(2);
+
+        sketch.add("a", 3, 0);
+        sketch.add("b", 1, 0);
+        sketch.add("c", 1, 5);
+
+        List<SpaceSaving.Entry> top = sketch.top(10);
+
+        assertEquals(2, sketch.size());
+        assertEquals(List.of("a", "c"), top.stream().map(SpaceSaving.Entry::key).toList());
+        assertEquals(2, top.get(1).weight());
+        assertEquals(1, top.get(1).error());
+        assertEquals(5, top.get(1).secondary());
+    }
+
+    @Test
+    void testSubtractMakesKeyEvictable() {
+        SpaceSaving sketch = new SpaceSaving(2);
+
+        sketch.add("a", 5, 0);
+        sketch.add("b", 3, 0);
+        sketch.subtract("a", 4, 0);
+        sketch.add("c", 1, 0);
+
+        assertEquals(List.of("b", "c"), sketch.top(10).stream().map(SpaceSaving.Entry::key).toList());
+
+        sketch.subtract("missing", 1, 0);
+        assertEquals(2, sketch.size());
+    }
+
+    @Test
+    void testErrorBounds() {
+        int capacity = 20;
+        SpaceSaving sketch = new SpaceSaving(capacity);
+        HashMap<String, Double> exact = new HashMap<>();
+        Random random = new Random(7);
+        double total = 0;
+
+        for (int i = 0; i < 50000; i++) {
+            // Skewed keys: a few heavy hitters over a long tail
+            String key = "k" + (int) Math.floor(Math.pow(random.nextDouble(), 3) * 500);
+            double weight = 1 + random.nextInt(3);
+
+            sketch.add(key, weight, 0);
+            exact.merge(key, weight, Double::sum);
+            total += weight;
+        }
+
+        double maxError = total / capacity;
+        List<SpaceSaving.Entry> top = sketch.top(capacity);
+
+        for (SpaceSaving.Entry entry : top) {
+            double real = exact.get(entry.key());
+
+            assertTrue(entry.weight() >= real, entry.key());
+            assertTrue(entry.weight() - entry.error() <= real, entry.key());
+            assertTrue(entry.error() <= maxError, entry.key());
+        }
+
+        for (Map.Entry<String, Double> entry : exact.entrySet()) {
+            if (entry.getValue() > maxError)
+                assertTrue(top.stream().anyMatch((e) -> e.key().equals(entry.getKey())), entry.getKey());
+        }
+    }
+}
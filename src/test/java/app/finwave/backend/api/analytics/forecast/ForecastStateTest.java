@@ -0,0 +1,122 @@
+package app.finwave.backend.api.analytics.forecast;
+
+import app.finwave.backend.api.analytics.result.Forecast;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ForecastStateTest {
+    private static final YearMonth JUNE = YearMonth.of(2024, 6);
+    private static final Map<Long, Integer> DECIMALS = Map.of(1L, 2);
+
+    private static Forecast.Entry single(Forecast forecast) {
+        assertEquals(1, forecast.result.size());
+
+        return forecast.result.get(0);
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), expected + " != " + actual);
+    }
+
+    private static boolean add(ForecastState state, LocalDate date, String delta) {
+        return state.add(1, 1, date, new BigDecimal(delta));
+    }
+
+    @Test
+    void testFirstMonthIsExtrapolatedLinearly() {
+        ForecastState state = new ForecastState(JUNE, 0.5);
+
+        add(state, JUNE.atDay(2), "-40");
+        add(state, JUNE.atDay(9), "-60");
+
+        Forecast forecast = state.forecast(JUNE.atDay(10), DECIMALS);
+        Forecast.Entry entry = single(forecast);
+
+        assertEquals(10, forecast.elapsedDays);
+        assertEquals(30, forecast.monthDays);
+        assertAmount("-100", entry.monthToDate());
+        assertAmount("-300", entry.projected());
+        assertAmount("0", entry.monthlyAverage());
+    }
+
+    @Test
+    void testSeasonalityFromClosedMonths() {
+        ForecastState state = new ForecastState(JUNE, 0.5);
+
+        // Rent is paid on the first day of every month
+        add(state, JUNE.atDay(1), "-100");
+        add(state, JUNE.plusMonths(1).atDay(1), "-100");
+
+        Forecast.Entry entry = single(state.forecast(JUNE.plusMonths(1).atDay(5), DECIMALS));
+
+        assertAmount("-100", entry.monthToDate());
+        assertAmount("-100", entry.projected());
+        assertAmount("-100", entry.monthlyAverage());
+    }
+
+    @Test
+    void testMonthlyAverageIsSmoothed() {
+        ForecastState state = new ForecastState(JUNE, 0.5);
+
+        add(state, JUNE.atDay(15), "100");
+        add(state, JUNE.plusMonths(1).atDay(15), "200");
+
+        Forecast forecast = state.forecast(JUNE.plusMonths(2).atDay(1), DECIMALS);
+
+        assertEquals(LocalDate.of(2024, 8, 1), forecast.month);
+        assertAmount("150", single(forecast).monthlyAverage());
+    }
+
+    @Test
+    void testClosedMonthRejected() {
+        ForecastState state = new ForecastState(JUNE, 0.5);
+
+        assertTrue(add(state, JUNE.plusMonths(1).atDay(1), "10"));
+
+        state.rollTo(JUNE.plusMonths(1));
+
+        assertFalse(add(state, JUNE.atDay(30), "10"));
+    }
+
+    @Test
+    void testEmptySeriesAreSkipped() {
+        ForecastState state = new ForecastState(JUNE, 0.5);
+
+        add(state, JUNE.atDay(3), "50");
+        add(state, JUNE.atDay(3), "-50");
+
+        assertTrue(state.forecast(JUNE.atDay(10), DECIMALS).result.isEmpty());
+    }
+
+    @Test
+    void testFutureDeltasWaitForTheirMonth() {
+        ForecastState state = new ForecastState(JUNE, 0.5);
+
+        add(state, JUNE.atDay(5), "-30");
+        add(state, JUNE.plusMonths(2).atDay(10), "-70");
+
+        assertAmount("-30", single(state.forecast(JUNE.atDay(5), DECIMALS)).monthToDate());
+        assertAmount("0", single(state.forecast(JUNE.plusMonths(1).atDay(20), DECIMALS)).monthToDate());
+        assertAmount("-70", single(state.forecast(JUNE.plusMonths(2).atDay(10), DECIMALS)).monthToDate());
+    }
+
+    @Test
+    void testMonthToDateIsExactAndProjectionIsRoundedToCurrency() {
+        ForecastState state = new ForecastState(JUNE, 0.5);
+
+        for (int i = 0; i < 10; i++)
+            add(state, JUNE.atDay(1), "0.1");
+
+        Forecast.Entry entry = single(state.forecast(JUNE.atDay(7), Map.of(1L, 0)));
+
+        assertEquals(new BigDecimal("1.0"), entry.monthToDate());
+        assertEquals(new BigDecimal("4"), entry.projected());
+        assertEquals(0, entry.monthlyAverage().scale());
+    }
+}
@@ -1,6 +1,7 @@
 package app.finwave.backend.api.auth;
 
 import app.finwave.backend.api.BaseApiTest;
+import app.finwave.backend.api.analytics.AnalyticsWarmup;
 import app.finwave.backend.api.session.SessionManager;
 import app.finwave.backend.config.Configs;
 import app.finwave.backend.config.general.UserConfig;
@@ -27,6 +28,9 @@ class AuthApiTest extends BaseApiTest {
     @Mock
     private SessionManager sessionManager;
     
+    @Mock
+    private AnalyticsWarmup analyticsWarmup;
+
     @Mock
     private Configs configs;
     
@@ -64,7 +68,7 @@ class AuthApiTest extends BaseApiTest {
         when(databaseWorker.get(AuthDatabase.class)).thenReturn(authDatabase);
         
         // Create the API instance
-        authApi = new AuthApi(databaseWorker, sessionManager, configs);
+        authApi = new AuthApi(databaseWorker, sessionManager, analyticsWarmup, configs);
     }
 
     @Test
@@ -89,6 +93,7 @@ class AuthApiTest extends BaseApiTest {
         // Verify
         assertEquals("test-token-123", result.token);
         assertEquals(30, result.lifetimeDays);
+        verify(analyticsWarmup).warmup(2);
     }
     
     @Test
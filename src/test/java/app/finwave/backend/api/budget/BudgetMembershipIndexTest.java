@@ -0,0 +1,108 @@
+package app.finwave.backend.api.budget;
+
+import app.finwave.backend.api.category.CategoryDatabase;
+import app.finwave.backend.config.Configs;
+import app.finwave.backend.config.general.CachingConfig;
+import app.finwave.backend.database.DatabaseWorker;
+import app.finwave.backend.jooq.tables.records.CategoriesBudgetsRecord;
+import app.finwave.backend.jooq.tables.records.CategoriesRecord;
+import org.jooq.postgres.extensions.types.Ltree;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class BudgetMembershipIndexTest {
+
+    private static CategoriesRecord category(long id, String parentsTree) {
+        CategoriesRecord record = new CategoriesRecord();
+        record.setId(id);
+        record.setOwnerId(1);
+        record.setParentsTree(Ltree.ltree(parentsTree));
+
+        return record;
+    }
+
+    private static CategoriesBudgetsRecord budget(long id, long categoryId, long currencyId, short dateType) {
+        CategoriesBudgetsRecord record = new CategoriesBudgetsRecord();
+        record.setId(id);
+        record.setCategoryId(categoryId);
+        record.setCurrencyId(currencyId);
+        record.setDateType(dateType);
+
+        return record;
+    }
+
+    private static BitSet bits(int... positions) {
+        BitSet result = new BitSet();
+
+        for (int position : positions)
+            result.set(position);
+
+        return result;
+    }
+
+    @Test
+    void testCoveringFollowsParents() {
+        // 1 -> 2 -> 3, and 4 standing alone
+        List<CategoriesRecord> categories = List.of(
+                category(1, ""),
+                category(2, "1"),
+                category(3, "1.2"),
+                category(4, "")
+        );
+        List<CategoriesBudgetsRecord> budgets = List.of(
+                budget(10, 1, 100, (short) 0),
+                budget(11, 2, 100, (short) 1),
+                budget(12, 2, 200, (short) 0)
+        );
+
+        BudgetMembershipIndex index = new BudgetMembershipIndex(budgets, categories);
+
+        assertEquals(3, index.size());
+        assertEquals(bits(0), index.covering(1));
+        assertEquals(bits(0, 1, 2), index.covering(2));
+        assertEquals(bits(0, 1, 2), index.covering(3));
+        assertTrue(index.covering(4).isEmpty());
+        assertTrue(index.covering(99).isEmpty());
+
+        assertEquals(200, index.currencyOf(2));
+        assertEquals(1, index.dateTypeOf(1));
+    }
+
+    @Test
+    void testReparentInvalidatesIndex() {
+        DatabaseWorker databaseWorker = mock(DatabaseWorker.class);
+        Configs configs = mock(Configs.class);
+        CategoryBudgetDatabase budgetDatabase = mock(CategoryBudgetDatabase.class);
+        CategoryDatabase categoryDatabase = mock(CategoryDatabase.class);
+
+        when(configs.getState(any(CachingConfig.class))).thenReturn(new CachingConfig());
+        when(databaseWorker.get(CategoryBudgetDatabase.class)).thenReturn(budgetDatabase);
+        when(databaseWorker.get(CategoryDatabase.class)).thenReturn(categoryDatabase);
+
+        when(budgetDatabase.getList(1)).thenReturn(List.of(budget(10, 1, 100, (short) 0)));
+        when(categoryDatabase.getCategories(1)).thenReturn(List.of(category(1, ""), category(2, "1")));
+
+        CategoryBudgetManager manager = new CategoryBudgetManager(databaseWorker, configs);
+        AtomicInteger invalidated = new AtomicInteger();
+        manager.addInvalidationListener((userId) -> invalidated.incrementAndGet());
+
+        assertEquals(bits(0), manager.getIndex(1).covering(2));
+
+        // Category 2 is moved out from under 1
+        when(categoryDatabase.getCategories(1)).thenReturn(List.of(category(1, ""), category(2, "")));
+
+        assertEquals(bits(0), manager.getIndex(1).covering(2));
+
+        manager.categoriesChanged(1);
+
+        assertTrue(manager.getIndex(1).covering(2).isEmpty());
+        assertEquals(1, invalidated.get());
+    }
+}
@@ -1,8 +1,10 @@
 package app.finwave.backend.api.category;
 
 import app.finwave.backend.api.BaseApiTest;
+import app.finwave.backend.api.budget.CategoryBudgetManager;
 import app.finwave.backend.api.event.WebSocketWorker;
 import app.finwave.backend.api.event.messages.response.NotifyUpdate;
+import app.finwave.backend.api.report.ReportDataVersions;
 import app.finwave.backend.config.Configs;
 import app.finwave.backend.config.app.TransactionConfig;
 import app.finwave.backend.database.DatabaseWorker;
@@ -38,9 +40,15 @@ class CategoryApiTest extends BaseApiTest {
     @Mock
     private WebSocketWorker socketWorker;
 
+    @Mock
+    private CategoryBudgetManager budgetManager;
+
     @Mock
     private CategoryDatabase categoryDatabase;
 
+    @Mock
+    private ReportDataVersions dataVersions;
+
     @Mock
     private TransactionConfig transactionConfig;
 
@@ -74,7 +82,7 @@ class CategoryApiTest extends BaseApiTest {
         when(request.attribute("session")).thenReturn(sessionRecord);
         when(sessionRecord.getUserId()).thenReturn(1);
 
-        categoryApi = new CategoryApi(databaseWorker, configs, socketWorker);
+        categoryApi = new CategoryApi(databaseWorker, configs, socketWorker, budgetManager, dataVersions);
     }
 
     @Test
@@ -227,6 +235,7 @@ class CategoryApiTest extends BaseApiTest {
 
         // Verify
         verify(categoryDatabase).editCategoryParentId(categoryId, newParentId);
+        verify(budgetManager).categoriesChanged(1);
         verify(response).status(200);
         assertTrue(result instanceof ApiMessage);
     }
@@ -245,6 +254,7 @@ class CategoryApiTest extends BaseApiTest {
 
         // Verify
         verify(categoryDatabase).setParentToRoot(categoryId);
+        verify(budgetManager).categoriesChanged(1);
         verify(response).status(200);
         verify(socketWorker).sendToUser(eq(1), any(NotifyUpdate.class));
         assertTrue(result instanceof ApiMessage);
@@ -265,6 +275,7 @@ class CategoryApiTest extends BaseApiTest {
 
         // Verify
         verify(categoryDatabase).editCategoryName(categoryId, newName);
+        verify(dataVersions).bump(1);
         verify(response).status(200);
         verify(socketWorker).sendToUser(eq(1), any(NotifyUpdate.class));
         assertTrue(result instanceof ApiMessage);
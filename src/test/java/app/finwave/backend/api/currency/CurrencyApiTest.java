@@ -3,6 +3,7 @@ package app.finwave.backend.api.currency;
 import app.finwave.backend.api.BaseApiTest;
 import app.finwave.backend.api.event.WebSocketWorker;
 import app.finwave.backend.api.event.messages.response.NotifyUpdate;
+import app.finwave.backend.api.report.ReportDataVersions;
 import app.finwave.backend.config.Configs;
 import app.finwave.backend.config.app.CurrencyConfig;
 import app.finwave.backend.database.DatabaseWorker;
@@ -39,6 +40,9 @@ class CurrencyApiTest extends BaseApiTest {
     @Mock
     private CurrencyDatabase currencyDatabase;
     
+    @Mock
+    private ReportDataVersions dataVersions;
+    
     @Mock
     private CurrencyConfig currencyConfig;
     
@@ -69,7 +73,7 @@ class CurrencyApiTest extends BaseApiTest {
         when(request.attribute("session")).thenReturn(sessionRecord);
         
         // Create the API instance
-        currencyApi = new CurrencyApi(databaseWorker, configs, socketWorker);
+        currencyApi = new CurrencyApi(databaseWorker, configs, socketWorker, dataVersions);
     }
 
     @Test
@@ -178,6 +182,7 @@ class CurrencyApiTest extends BaseApiTest {
         
         // Verify
         verify(currencyDatabase).editCurrencyCode(currencyId, newCode);
+        verify(dataVersions).currencyChanged(currencyId);
         verify(response).status(200);
         verify(socketWorker).sendToUser(eq(1), any(NotifyUpdate.class));
         assertTrue(result instanceof ApiMessage);
@@ -1,4 +1,87 @@
 package app.finwave.backend.api.files;
 
+import app.finwave.backend.api.event.WebSocketWorker;
+import app.finwave.backend.config.Configs;
+import app.finwave.backend.database.DatabaseWorker;
+import app.finwave.backend.jooq.tables.records.FilesRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
 public class FileManagerTest {
+    private FilesManager filesManager;
+    private FilesRecord record;
+
+    @BeforeEach
+    void setUp() {
+        DatabaseWorker worker = mock(DatabaseWorker.class);
+        Configs configs = mock(Configs.class);
+
+        when(worker.get(FilesDatabase.class)).thenReturn(mock(FilesDatabase.class));
+        when(configs.getState(any())).thenAnswer((invocation) -> invocation.getArgument(0));
+
+        filesManager = new FilesManager(worker, configs, mock(WebSocketWorker.class));
+
+        record = new FilesRecord();
+        record.setId("t" + UUID.randomUUID().toString().replace("-", ""));
+        record.setOwnerId(1);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Optional<File> file = filesManager.getFile(record);
+
+        if (file.isPresent())
+            Files.delete(file.get().toPath());
+    }
+
+    @Test
+    void testGzipFileIsReadBackDecoded() throws Exception {
+        String content = "date;amount\n" + "2024-03-01;12.50\n".repeat(1000);
+
+        try (OutputStream stream = filesManager.openStream(record, "text/csv", "report.csv", null, FileEncoding.GZIP)) {
+            stream.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+
+        record.setEncoding(FileEncoding.GZIP.value());
+
+        byte[] stored = Files.readAllBytes(filesManager.getFile(record).orElseThrow().toPath());
+        assertEquals((byte) 0x1f, stored[0]);
+        assertEquals((byte) 0x8b, stored[1]);
+        assertTrue(stored.length < content.length());
+
+        try (InputStream stream = filesManager.openDecodedStream(record).orElseThrow()) {
+            assertEquals(content, new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testIdentityFileIsReadBackAsIs() throws Exception {
+        byte[] content = {1, 2, 3, 4};
+
+        try (OutputStream stream = filesManager.openStream(record, "application/octet-stream", "raw", null, FileEncoding.IDENTITY)) {
+            stream.write(content);
+        }
+
+        try (InputStream stream = filesManager.openDecodedStream(record).orElseThrow()) {
+            assertArrayEquals(content, stream.readAllBytes());
+        }
+    }
+
+    @Test
+    void testMissingFileIsEmpty() throws Exception {
+        assertTrue(filesManager.openDecodedStream(record).isEmpty());
+    }
 }
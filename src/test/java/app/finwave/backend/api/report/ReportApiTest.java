@@ -40,6 +40,7 @@ public class ReportApiTest extends BaseApiTest {
     @Mock private WebSocketWorker socketWorker;
     @Mock private FilesRecord fileRecord;
     @Mock private UsersSessionsRecord sessionRecord;
+    @Mock private ReportDataVersions dataVersions;
     private ReportApi reportApi;
     private ReportConfig reportConfig;
 
@@ -71,13 +72,14 @@ public class ReportApiTest extends BaseApiTest {
         // Setup database worker to get ReportDatabase
         DatabaseWorker dbWorker = mock(DatabaseWorker.class);
         when(dbWorker.get(ReportDatabase.class)).thenReturn(reportDb);
-        reportApi = new ReportApi(configs, dbWorker, reportBuilder, socketWorker, filesManager);
+        reportApi = new ReportApi(configs, dbWorker, reportBuilder, socketWorker, filesManager, dataVersions);
 
         when(sessionRecord.getUserId()).thenReturn(1);
         when(request.attribute("session")).thenReturn(sessionRecord);
 
         when(reportBuilder.buildAsync(anyLong()))
                 .thenReturn(CompletableFuture.completedFuture(ReportStatus.AVAILABLE));
+        when(dataVersions.getVersion(anyInt())).thenReturn("epoch:0");
 
     }
 
@@ -89,7 +91,7 @@ public class ReportApiTest extends BaseApiTest {
         when(filesManager.registerNewEmptyFile(eq(1), eq(reportConfig.expiresDays), eq(true), eq("reports")))
                 .thenReturn(Optional.of(fileRecord));
         when(fileRecord.getId()).thenReturn("file123");
-        when(reportDb.newReport(eq("TestReport"), eq(TransactionsFilter.EMPTY), eq(Map.of()), any(ReportType.class), eq(1), eq("file123")))
+        when(reportDb.newReport(eq("TestReport"), eq(TransactionsFilter.EMPTY), eq(Map.of()), any(ReportType.class), eq(1), eq("file123"), anyString()))
                 .thenReturn(5L);
 
         Object result = reportApi.newReport(request, response);
@@ -101,6 +103,39 @@ public class ReportApiTest extends BaseApiTest {
         assertEquals("file123", getFieldValue(result, "fileId"));
     }
 
+    @Test
+    void testNewReport_ReusesMatchingReport() {
+        ReportRequest reqBody = new ReportRequest("TestReport", TransactionsFilter.EMPTY, 0, Map.of());
+        when(request.body()).thenReturn(ApiResponse.GSON.toJson(reqBody));
+
+        ReportsRecord existing = new ReportsRecord();
+        existing.setId(4L);
+        existing.setStatus(ReportStatus.AVAILABLE.getShort());
+        existing.setFileId("file100");
+        when(reportDb.getReportByFingerprint(eq(1), anyString())).thenReturn(Optional.of(existing));
+
+        Object result = reportApi.newReport(request, response);
+
+        verify(response).status(200);
+        verify(filesManager, never()).registerNewEmptyFile(anyInt(), anyInt(), anyBoolean(), anyString());
+        verify(reportBuilder, never()).buildAsync(anyLong());
+        assertEquals(Long.valueOf(4L), getFieldValue(result, "reportId"));
+        assertEquals("file100", getFieldValue(result, "fileId"));
+    }
+
+    @Test
+    void testFingerprint_ChangesWithDataVersion() {
+        TransactionsFilter filter = TransactionsFilter.EMPTY.setCategoriesIds(List.of(3L, 1L));
+        String before = reportApi.fingerprint(1, ReportType.BY_DAYS, filter, Map.of("a", "b"));
+
+        assertEquals(before, reportApi.fingerprint(1, ReportType.BY_DAYS, TransactionsFilter.EMPTY.setCategoriesIds(List.of(1L, 3L)), Map.of("a", "b")));
+        assertNotEquals(before, reportApi.fingerprint(1, ReportType.BY_MONTHS, filter, Map.of("a", "b")));
+
+        when(dataVersions.getVersion(1)).thenReturn("epoch:1");
+
+        assertNotEquals(before, reportApi.fingerprint(1, ReportType.BY_DAYS, filter, Map.of("a", "b")));
+    }
+
     @Test
     void testNewReport_FileCreationFailed() {
         ReportRequest reqBody = new ReportRequest("TestReport", TransactionsFilter.EMPTY, 0, Map.of());
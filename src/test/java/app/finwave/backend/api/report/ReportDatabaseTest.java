@@ -31,7 +31,7 @@ public class ReportDatabaseTest {
         connection = DriverManager.getConnection("jdbc:h2:mem:test;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE", "sa", "");
         ctx = DSL.using(connection, SQLDialect.H2);
         // Create REPORTS table with necessary columns
-        ctx.execute("CREATE TABLE REPORTS (ID SERIAL PRIMARY KEY, DESCRIPTION TEXT, STATUS SMALLINT, TYPE SMALLINT, FILTER JSON, LANG JSON, USER_ID INT, FILE_ID VARCHAR(255));");
+        ctx.execute("CREATE TABLE REPORTS (ID SERIAL PRIMARY KEY, DESCRIPTION TEXT, STATUS SMALLINT, TYPE SMALLINT, FILTER JSON, LANG JSON, USER_ID INT, FILE_ID VARCHAR(255), PRIORITY SMALLINT DEFAULT 0 NOT NULL, QUEUED_AT TIMESTAMP WITH TIME ZONE DEFAULT NOW() NOT NULL, STARTED_AT TIMESTAMP WITH TIME ZONE, HEARTBEAT_AT TIMESTAMP WITH TIME ZONE, FINGERPRINT TEXT, SCHEDULED BOOLEAN DEFAULT FALSE NOT NULL);");
         reportDb = new ReportDatabase(ctx);
     }
 
@@ -74,4 +74,59 @@ public class ReportDatabaseTest {
         Optional<ReportsRecord> recOpt = reportDb.getReport(id);
         assertTrue(recOpt.isEmpty(), "Report should be removed");
     }
+
+    @Test
+    void testNewReport_StoresTypePriority() {
+        long id = reportDb.newReport("Summary", TransactionsFilter.EMPTY, Map.of(), ReportType.BY_DAYS, 1, "f4");
+        assertEquals(ReportType.BY_DAYS.getPriority(), reportDb.getReport(id).get().getPriority());
+    }
+
+    @Test
+    void testRequeueExpired_KeepsLiveLeases() {
+        long stale = reportDb.newReport("Stale", TransactionsFilter.EMPTY, Map.of(), ReportType.TRANSACTION_LIST, 1, "f5");
+        long live = reportDb.newReport("Live", TransactionsFilter.EMPTY, Map.of(), ReportType.TRANSACTION_LIST, 2, "f6");
+        ctx.execute("UPDATE REPORTS SET STARTED_AT = NOW() - INTERVAL '10' MINUTE, HEARTBEAT_AT = NOW() - INTERVAL '10' MINUTE");
+        reportDb.renewLeases(List.of(live));
+        assertEquals(0, reportDb.getQueuedCount());
+
+        assertEquals(1, reportDb.requeueExpired(120));
+        assertEquals(1, reportDb.getQueuedCount());
+        assertNull(reportDb.getReport(stale).get().getStartedAt());
+        assertNotNull(reportDb.getReport(live).get().getStartedAt());
+    }
+
+    @Test
+    void testClaimNextReport_RespectsPerUserCap() {
+        long running = reportDb.newReport("Running", TransactionsFilter.EMPTY, Map.of(), ReportType.TRANSACTION_LIST, 1, "f7");
+        reportDb.newReport("Queued", TransactionsFilter.EMPTY, Map.of(), ReportType.BY_DAYS, 1, "f8");
+        long other = reportDb.newReport("Other", TransactionsFilter.EMPTY, Map.of(), ReportType.TRANSACTION_LIST, 2, "f9");
+        ctx.execute("UPDATE REPORTS SET STARTED_AT = NOW() WHERE ID = " + running);
+
+        Optional<ReportsRecord> claimed = reportDb.claimNextReport(1);
+        assertTrue(claimed.isPresent());
+        assertEquals(other, claimed.get().getId());
+        assertNotNull(claimed.get().getHeartbeatAt());
+
+        assertTrue(reportDb.claimNextReport(1).isEmpty(), "User 1 is at the cap, user 2 has nothing left");
+        assertTrue(reportDb.claimNextReport(2).isPresent());
+    }
+
+    @Test
+    void testClaimNextReport_SkipsLockedRows() throws SQLException {
+        long locked = reportDb.newReport("Locked", TransactionsFilter.EMPTY, Map.of(), ReportType.BY_DAYS, 1, "f10");
+        long free = reportDb.newReport("Free", TransactionsFilter.EMPTY, Map.of(), ReportType.TRANSACTION_LIST, 2, "f11");
+
+        try (Connection other = DriverManager.getConnection("jdbc:h2:mem:test;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE", "sa", "")) {
+            other.setAutoCommit(false);
+            DSL.using(other, SQLDialect.H2).execute("SELECT * FROM REPORTS WHERE ID = " + locked + " FOR UPDATE");
+
+            Optional<ReportsRecord> claimed = reportDb.claimNextReport(1);
+            assertTrue(claimed.isPresent());
+            assertEquals(free, claimed.get().getId());
+
+            other.rollback();
+        }
+
+        assertEquals(locked, reportDb.claimNextReport(1).get().getId());
+    }
 }
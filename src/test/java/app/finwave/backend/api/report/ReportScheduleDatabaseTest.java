@@ -0,0 +1,96 @@
+package app.finwave.backend.api.report;
+
+import app.finwave.backend.api.recurring.RepeatType;
+import app.finwave.backend.api.report.data.ReportType;
+import app.finwave.backend.api.transaction.filter.TransactionsFilter;
+import app.finwave.backend.jooq.tables.records.ReportSchedulesRecord;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportScheduleDatabaseTest {
+
+    private DSLContext ctx;
+    private ReportScheduleDatabase scheduleDb;
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:test;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE", "sa", "");
+        ctx = DSL.using(connection, SQLDialect.H2);
+        ctx.execute("CREATE TABLE REPORT_SCHEDULES (ID SERIAL PRIMARY KEY, USER_ID INT, TYPE SMALLINT, DESCRIPTION TEXT, FILTER JSON, LANG JSON, " +
+                "REPEAT_TYPE SMALLINT, REPEAT_ARG SMALLINT, NEXT_RUN TIMESTAMP WITH TIME ZONE, LAST_RUN TIMESTAMP WITH TIME ZONE);");
+        scheduleDb = new ReportScheduleDatabase(ctx);
+
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+        ctx.execute("SET TIME ZONE 'UTC';");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        ctx.execute("DROP ALL OBJECTS");
+        connection.close();
+    }
+
+    private long newSchedule(int userId, OffsetDateTime nextRun) {
+        return scheduleDb.newSchedule(userId, ReportType.BY_DAYS, "Weekly", TransactionsFilter.EMPTY, Map.of(),
+                RepeatType.WEEKLY, (short) 1, nextRun).orElseThrow();
+    }
+
+    @Test
+    void testNewAndGetList() {
+        long id = newSchedule(1, OffsetDateTime.now().plusDays(1));
+        newSchedule(2, OffsetDateTime.now().plusDays(1));
+
+        List<ReportSchedulesRecord> list = scheduleDb.getList(1);
+        assertEquals(1, list.size());
+        assertEquals(id, list.get(0).getId());
+        assertEquals(1, scheduleDb.getSchedulesCount(1));
+        assertTrue(scheduleDb.userOwnSchedule(1, id));
+        assertFalse(scheduleDb.userOwnSchedule(2, id));
+    }
+
+    @Test
+    void testGetDueSchedules_OldestFirstAndLimited() {
+        long older = newSchedule(1, OffsetDateTime.now().minusDays(2));
+        long newer = newSchedule(2, OffsetDateTime.now().minusDays(1));
+        newSchedule(3, OffsetDateTime.now().plusDays(1));
+
+        List<ReportSchedulesRecord> due = scheduleDb.getDueSchedules(10);
+        assertEquals(List.of(older, newer), due.stream().map(ReportSchedulesRecord::getId).toList());
+
+        assertEquals(1, scheduleDb.getDueSchedules(1).size());
+    }
+
+    @Test
+    void testUpdateSchedule_NoLongerDue() {
+        OffsetDateTime nextRun = OffsetDateTime.now().minusHours(1);
+        long id = newSchedule(1, nextRun);
+
+        scheduleDb.updateSchedule(id, nextRun, nextRun.plusWeeks(1));
+
+        assertTrue(scheduleDb.getDueSchedules(10).isEmpty());
+        assertNotNull(scheduleDb.getList(1).get(0).getLastRun());
+    }
+
+    @Test
+    void testDeleteSchedule() {
+        long id = newSchedule(1, OffsetDateTime.now().plusDays(1));
+        scheduleDb.deleteSchedule(id);
+
+        assertTrue(scheduleDb.getList(1).isEmpty());
+    }
+}
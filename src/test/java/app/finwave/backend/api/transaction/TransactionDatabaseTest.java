@@ -347,6 +347,23 @@ class TransactionDatabaseTest {
             assertEquals(456L, transactions.get(1).get(TRANSACTIONS.ID));
         }
 
+        @Test
+        void testGetTransactionsPage_SeeksAfterLastRow() throws SQLException {
+            ArgumentCaptor<MockExecuteContext> executeContext = ArgumentCaptor.forClass(MockExecuteContext.class);
+
+            when(provider.execute(executeContext.capture()))
+                .thenReturn(new MockResult[]{new MockResult(0, context.newResult(TRANSACTIONS.fields()))});
+
+            transactionDatabase.getTransactionsPage(USER_ID, 10, TransactionsFilter.EMPTY, null, null);
+            transactionDatabase.getTransactionsPage(USER_ID, 10, TransactionsFilter.EMPTY, OffsetDateTime.now(), 123L);
+
+            List<MockExecuteContext> contexts = executeContext.getAllValues();
+
+            assertFalse(contexts.get(0).sql().toLowerCase().contains("offset"));
+            assertFalse(contexts.get(0).sql().contains(") < (?, ?)"));
+            assertTrue(contexts.get(1).sql().contains(") < (?, ?)"));
+        }
+
         @Test
         void testEditTransactionWithNullCreated() throws SQLException {
             // Setup mock response for update query
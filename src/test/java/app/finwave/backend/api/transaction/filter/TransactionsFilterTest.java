@@ -1,9 +1,11 @@
 package app.finwave.backend.api.transaction.filter;
 
+import app.finwave.backend.api.analytics.AnalyticsGranularity;
 import org.junit.jupiter.api.Test;
 import spark.Request;
 
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.Arrays;
 import java.util.List;
 
@@ -288,4 +290,64 @@ class TransactionsFilterTest {
         assertEquals(filter1.hashCode(), filter2.hashCode());
         assertNotEquals(filter1.hashCode(), filter3.hashCode());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testCanonical() {
+        TransactionsFilter filter = new TransactionsFilter(
+                Arrays.asList(3L, 1L, 3L),
+                null,
+                Arrays.asList(6L, 5L),
+                OffsetDateTime.of(2024, 3, 10, 14, 30, 0, 0, ZoneOffset.UTC),
+                OffsetDateTime.of(2024, 3, 20, 8, 15, 0, 0, ZoneOffset.UTC),
+                null
+        );
+
+        TransactionsFilter days = filter.canonical(AnalyticsGranularity.DAY, ZoneOffset.UTC);
+
+        assertEquals(List.of(1L, 3L), days.getCategoriesIds());
+        assertEquals(List.of(5L, 6L), days.getCurrenciesIds());
+        assertNull(days.getAccountIds());
+        assertEquals(OffsetDateTime.of(2024, 3, 10, 0, 0, 0, 0, ZoneOffset.UTC), days.getFromTime());
+        assertEquals(OffsetDateTime.of(2024, 3, 20, 23, 59, 59, 999999000, ZoneOffset.UTC), days.getToTime());
+
+        TransactionsFilter months = filter.canonical(AnalyticsGranularity.MONTH, ZoneOffset.UTC);
+
+        assertEquals(OffsetDateTime.of(2024, 3, 1, 0, 0, 0, 0, ZoneOffset.UTC), months.getFromTime());
+        assertEquals(OffsetDateTime.of(2024, 3, 31, 23, 59, 59, 999999000, ZoneOffset.UTC), months.getToTime());
+
+        TransactionsFilter sameDay = filter.setFromTime(filter.getFromTime().plusHours(2));
+
+        assertEquals(days, sameDay.canonical(AnalyticsGranularity.DAY, ZoneOffset.UTC));
+
+        TransactionsFilter weeks = filter.canonical(AnalyticsGranularity.WEEK, ZoneOffset.UTC);
+
+        assertEquals(OffsetDateTime.of(2024, 3, 4, 0, 0, 0, 0, ZoneOffset.UTC), weeks.getFromTime());
+        assertEquals(OffsetDateTime.of(2024, 3, 24, 23, 59, 59, 999999000, ZoneOffset.UTC), weeks.getToTime());
+
+        TransactionsFilter quarters = filter.canonical(AnalyticsGranularity.QUARTER, ZoneOffset.UTC);
+
+        assertEquals(OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC), quarters.getFromTime());
+        assertEquals(OffsetDateTime.of(2024, 3, 31, 23, 59, 59, 999999000, ZoneOffset.UTC), quarters.getToTime());
+
+        TransactionsFilter years = filter.canonical(AnalyticsGranularity.YEAR, ZoneOffset.UTC);
+
+        assertEquals(OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC), years.getFromTime());
+        assertEquals(OffsetDateTime.of(2024, 12, 31, 23, 59, 59, 999999000, ZoneOffset.UTC), years.getToTime());
+    }
+
+    @Test
+    void testCovers() {
+        OffsetDateTime from = OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        OffsetDateTime to = OffsetDateTime.of(2024, 6, 30, 0, 0, 0, 0, ZoneOffset.UTC);
+
+        TransactionsFilter wide = new TransactionsFilter(List.of(1L), null, null, from, to, null);
+        TransactionsFilter narrow = wide.setFromTime(from.plusMonths(1)).setToTime(to.minusMonths(1));
+
+        assertTrue(wide.covers(narrow));
+        assertTrue(wide.covers(wide));
+        assertFalse(narrow.covers(wide));
+        assertFalse(wide.covers(narrow.setCategoriesIds(List.of(2L))));
+        assertFalse(wide.covers(narrow.setToTime(null)));
+        assertTrue(wide.setToTime(null).covers(narrow));
+    }
+}
\ No newline at end of file
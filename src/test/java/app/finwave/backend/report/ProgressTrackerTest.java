@@ -0,0 +1,51 @@
+package app.finwave.backend.report;
+
+import app.finwave.backend.api.event.WebSocketWorker;
+import app.finwave.backend.api.event.messages.response.reports.ReportProgress;
+import app.finwave.backend.api.report.data.ReportStatus;
+import app.finwave.backend.jooq.tables.records.ReportsRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ProgressTrackerTest {
+    private WebSocketWorker socketWorker;
+    private ReportsRecord record;
+
+    @BeforeEach
+    void setUp() {
+        socketWorker = mock(WebSocketWorker.class);
+
+        record = new ReportsRecord();
+        record.setId(7L);
+        record.setUserId(3);
+    }
+
+    @Test
+    void testProgressThrottled() {
+        ProgressTracker tracker = new ProgressTracker(socketWorker, record, 60_000);
+
+        tracker.started(5000);
+
+        for (int i = 0; i < 5; i++)
+            tracker.processed(1000);
+
+        tracker.finished(ReportStatus.AVAILABLE);
+
+        verify(socketWorker, times(2)).sendToUser(eq(3), any(ReportProgress.class));
+    }
+
+    @Test
+    void testProgressSentWithoutInterval() {
+        ProgressTracker tracker = new ProgressTracker(socketWorker, record, 0);
+
+        tracker.started(2000);
+        tracker.processed(1000);
+        tracker.processed(1000);
+
+        verify(socketWorker, times(3)).sendToUser(eq(3), any(ReportProgress.class));
+    }
+}
@@ -0,0 +1,74 @@
+package app.finwave.backend.report.aggregation;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CellTableTest {
+
+    @Test
+    void testKeyPacking() {
+        long key = CellTable.key(123456789L, -4000);
+
+        assertEquals(123456789L, CellTable.categoryOf(key));
+        assertEquals(-4000, CellTable.dayOf(key));
+        assertThrows(IllegalArgumentException.class, () -> CellTable.key(-1, 0));
+    }
+
+    @Test
+    void testSumsAndScale() {
+        CellTable table = new CellTable(2);
+
+        table.add(1, 19000, new BigDecimal("10.50"));
+        table.add(1, 19000, new BigDecimal("-0.125"));
+        table.add(2, 19001, new BigDecimal("3"));
+
+        assertEquals(0, new BigDecimal("10.375").compareTo(table.get(1, 19000)));
+        assertEquals(0, new BigDecimal("3").compareTo(table.get(2, 19001)));
+        assertEquals(0, BigDecimal.ZERO.compareTo(table.get(2, 19000)));
+        assertArrayEquals(new long[]{1, 2}, table.categories());
+        assertArrayEquals(new int[]{19000, 19001}, table.days());
+    }
+
+    @Test
+    void testOverflowFallsBackToBigDecimal() {
+        CellTable table = new CellTable(0);
+        BigDecimal big = BigDecimal.valueOf(Long.MAX_VALUE);
+
+        table.add(1, 0, big);
+        table.add(1, 0, big);
+        table.add(1, 1, new BigDecimal("0.5"));
+
+        assertEquals(0, big.add(big).compareTo(table.get(1, 0)));
+        assertEquals(0, new BigDecimal("0.5").compareTo(table.get(1, 1)));
+    }
+
+    @Test
+    void testScaleBeyondLongsIsKeptExact() {
+        CellTable table = new CellTable(2);
+        BigDecimal fine = new BigDecimal("0.00000000000000000001");
+
+        table.add(1, 0, new BigDecimal("1.5"));
+        table.add(1, 0, fine);
+
+        assertEquals(0, new BigDecimal("1.5").add(fine).compareTo(table.get(1, 0)));
+    }
+
+    @Test
+    void testMerge() {
+        CellTable first = new CellTable(2);
+        CellTable second = new CellTable(2);
+
+        first.add(1, 10, new BigDecimal("1.10"));
+        second.add(1, 10, new BigDecimal("2.005"));
+        second.add(3, 11, new BigDecimal("4"));
+
+        first.merge(second);
+
+        assertEquals(0, new BigDecimal("3.105").compareTo(first.get(1, 10)));
+        assertEquals(0, new BigDecimal("4").compareTo(first.get(3, 11)));
+        assertArrayEquals(new long[]{1, 3}, first.categories());
+    }
+}
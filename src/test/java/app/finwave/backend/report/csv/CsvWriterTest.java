@@ -0,0 +1,60 @@
+package app.finwave.backend.report.csv;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvWriterTest {
+
+    @Test
+    void testPlainFieldsAreNotQuoted() throws IOException {
+        StringWriter out = new StringWriter();
+        CsvWriter writer = new CsvWriter(out);
+
+        writer.row("account", "delta");
+        writer.field("Cash").field(new BigDecimal("-12.50")).endRow();
+
+        assertEquals("account,delta\r\nCash,-12.50\r\n", out.toString());
+    }
+
+    @Test
+    void testSpecialCharactersAreEscaped() throws IOException {
+        StringWriter out = new StringWriter();
+        CsvWriter writer = new CsvWriter(out);
+
+        writer.field("a,b").field("say \"hi\"").field("line\nbreak").field("\"").endRow();
+
+        assertEquals("\"a,b\",\"say \"\"hi\"\"\",\"line\nbreak\",\"\"\"\"\r\n", out.toString());
+    }
+
+    @Test
+    void testEmptyAndNullFields() throws IOException {
+        StringWriter out = new StringWriter();
+        CsvWriter writer = new CsvWriter(out);
+
+        writer.field((String) null).field("").field((BigDecimal) null).field(null, DateTimeFormatter.ISO_DATE).endRow();
+
+        assertEquals(",,,\r\n", out.toString());
+    }
+
+    @Test
+    void testFormattedFieldsAndLongValues() throws IOException {
+        StringWriter out = new StringWriter();
+        CsvWriter writer = new CsvWriter(out);
+        String longValue = "x".repeat(1000) + ",";
+
+        writer.field(LocalDate.of(2024, 1, 2), DateTimeFormatter.ofPattern("d MMM, yyyy", Locale.ENGLISH))
+                .field(new BigDecimal("1E+3"))
+                .field(longValue)
+                .endRow();
+
+        assertEquals("\"2 Jan, 2024\",1000,\"" + longValue + "\"\r\n", out.toString());
+    }
+}
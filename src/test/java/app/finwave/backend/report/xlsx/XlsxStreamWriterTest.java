@@ -0,0 +1,115 @@
+package app.finwave.backend.report.xlsx;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class XlsxStreamWriterTest {
+
+    protected Map<String, String> unzip(byte[] bytes) throws IOException {
+        HashMap<String, String> result = new HashMap<>();
+
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(bytes))) {
+            ZipEntry entry;
+
+            while ((entry = zip.getNextEntry()) != null)
+                result.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        return result;
+    }
+
+    @Test
+    void testWorkbookParts() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (XlsxStreamWriter writer = new XlsxStreamWriter(out, "Transactions", 10, 100)) {
+            writer.setHeader("account", "delta");
+
+            writer.startRow();
+            writer.sharedString("Cash");
+            writer.number(new BigDecimal("-12.50"));
+            writer.endRow();
+        }
+
+        Map<String, String> parts = unzip(out.toByteArray());
+
+        assertTrue(parts.containsKey("[Content_Types].xml"));
+        assertTrue(parts.containsKey("_rels/.rels"));
+        assertTrue(parts.containsKey("xl/_rels/workbook.xml.rels"));
+        assertTrue(parts.get("xl/workbook.xml").contains("<sheet name=\"Transactions\" sheetId=\"1\" r:id=\"rId1\"/>"));
+        assertTrue(parts.get("xl/worksheets/sheet1.xml").contains("<row><c t=\"s\"><v>2</v></c><c><v>-12.50</v></c></row>"));
+        assertTrue(parts.get("xl/sharedStrings.xml").contains("uniqueCount=\"3\""));
+    }
+
+    @Test
+    void testSharedStringsDeduplicated() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (XlsxStreamWriter writer = new XlsxStreamWriter(out, "Transactions", 10, 100)) {
+            for (int i = 0; i < 5; i++) {
+                writer.startRow();
+                writer.sharedString("Food & Drinks");
+                writer.endRow();
+            }
+        }
+
+        String shared = unzip(out.toByteArray()).get("xl/sharedStrings.xml");
+
+        assertTrue(shared.contains("count=\"5\" uniqueCount=\"1\""));
+        assertTrue(shared.contains("<t xml:space=\"preserve\">Food &amp; Drinks</t>"));
+    }
+
+    @Test
+    void testSharedStringsLimitFallsBackToInline() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (XlsxStreamWriter writer = new XlsxStreamWriter(out, "Transactions", 10, 1)) {
+            writer.startRow();
+            writer.sharedString("first");
+            writer.sharedString("second");
+            writer.endRow();
+        }
+
+        Map<String, String> parts = unzip(out.toByteArray());
+
+        assertTrue(parts.get("xl/sharedStrings.xml").contains("uniqueCount=\"1\""));
+        assertTrue(parts.get("xl/worksheets/sheet1.xml").contains("<c t=\"inlineStr\"><is><t xml:space=\"preserve\">second</t></is></c>"));
+    }
+
+    @Test
+    void testSheetsRollOver() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (XlsxStreamWriter writer = new XlsxStreamWriter(out, "Transactions", 3, 2, 100)) {
+            writer.setHeader("account");
+
+            for (int i = 0; i < 5; i++) {
+                writer.startRow();
+                writer.inlineString("row " + i);
+                writer.endRow();
+            }
+
+            assertEquals(3, writer.getSheets());
+        }
+
+        Map<String, String> parts = unzip(out.toByteArray());
+
+        assertTrue(parts.containsKey("xl/worksheets/sheet3.xml"));
+        assertFalse(parts.containsKey("xl/worksheets/sheet4.xml"));
+        assertTrue(parts.get("xl/worksheets/sheet3.xml").startsWith("<?xml"));
+        assertTrue(parts.get("xl/worksheets/sheet3.xml").contains("<row><c t=\"s\"><v>0</v></c></row>"));
+        assertTrue(parts.get("xl/workbook.xml").contains("<sheet name=\"Transactions 2\" sheetId=\"2\" r:id=\"rId2\"/>"));
+        assertTrue(parts.get("[Content_Types].xml").contains("/xl/worksheets/sheet3.xml"));
+    }
+}
@@ -0,0 +1,72 @@
+package app.finwave.backend.service.reports;
+
+import app.finwave.backend.api.recurring.RepeatType;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportSchedulesServiceTest {
+    private static final short DAYS = (short) RepeatType.IN_DAYS.ordinal();
+    private static final short MONTHLY = (short) RepeatType.MONTHLY.ordinal();
+
+    @Test
+    void testOffPeakWithinDay() {
+        assertFalse(ReportSchedulesService.isOffPeak(1, 2, 6));
+        assertTrue(ReportSchedulesService.isOffPeak(2, 2, 6));
+        assertTrue(ReportSchedulesService.isOffPeak(5, 2, 6));
+        assertFalse(ReportSchedulesService.isOffPeak(6, 2, 6));
+    }
+
+    @Test
+    void testOffPeakWrapsAroundMidnight() {
+        assertTrue(ReportSchedulesService.isOffPeak(22, 22, 5));
+        assertTrue(ReportSchedulesService.isOffPeak(23, 22, 5));
+        assertTrue(ReportSchedulesService.isOffPeak(0, 22, 5));
+        assertTrue(ReportSchedulesService.isOffPeak(4, 22, 5));
+        assertFalse(ReportSchedulesService.isOffPeak(5, 22, 5));
+        assertFalse(ReportSchedulesService.isOffPeak(12, 22, 5));
+        assertFalse(ReportSchedulesService.isOffPeak(21, 22, 5));
+    }
+
+    @Test
+    void testOffPeakEqualHoursMeansAnyTime() {
+        for (int hour = 0; hour < 24; hour++)
+            assertTrue(ReportSchedulesService.isOffPeak(hour, 3, 3));
+    }
+
+    @Test
+    void testLatestPeriod_OnTime() {
+        OffsetDateTime due = OffsetDateTime.of(2024, 3, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        OffsetDateTime now = due.plusHours(3);
+
+        ReportSchedulesService.Period period = ReportSchedulesService.latestPeriod(due, MONTHLY, (short) 1, now);
+
+        assertEquals(due, period.end());
+        assertEquals(due.plusMonths(1), period.nextRun());
+    }
+
+    @Test
+    void testLatestPeriod_CatchesUpAfterDowntime() {
+        OffsetDateTime due = OffsetDateTime.of(2024, 3, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        OffsetDateTime now = due.plusDays(10).plusHours(5);
+
+        ReportSchedulesService.Period period = ReportSchedulesService.latestPeriod(due, DAYS, (short) 3, now);
+
+        assertEquals(due.plusDays(9), period.end());
+        assertEquals(due.plusDays(12), period.nextRun());
+        assertTrue(period.nextRun().isAfter(now));
+    }
+
+    @Test
+    void testLatestPeriod_NextRunExactlyNowIsFinished() {
+        OffsetDateTime due = OffsetDateTime.of(2024, 3, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+        ReportSchedulesService.Period period = ReportSchedulesService.latestPeriod(due, DAYS, (short) 1, due.plusDays(1));
+
+        assertEquals(due.plusDays(1), period.end());
+        assertEquals(due.plusDays(2), period.nextRun());
+    }
+}
@@ -0,0 +1,49 @@
+package app.finwave.backend.utils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.LoadingCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheRegistryTest {
+
+    @Test
+    void testLoadingCacheStats() {
+        LoadingCache<Integer, String> cache = CacheHandyBuilder.loading("test.loading", 1, TimeUnit.HOURS, 1, String::valueOf);
+
+        cache.getUnchecked(1);
+        cache.getUnchecked(1);
+        cache.getUnchecked(2);
+
+        CacheRegistry.Entry entry = CacheRegistry.getStats().stream()
+                .filter((e) -> e.name().equals("test.loading"))
+                .findFirst()
+                .orElseThrow();
+
+        assertEquals(1, entry.size());
+        assertEquals(3, entry.requestCount());
+        assertEquals(1, entry.hitCount());
+        assertEquals(2, entry.missCount());
+        assertEquals(2, entry.loadCount());
+        assertEquals(1, entry.evictionCount());
+    }
+
+    @Test
+    void testExportMetrics() {
+        Cache<String, String> cache = CacheHandyBuilder.cache("test.plain", 1, TimeUnit.HOURS, 10);
+
+        cache.put("a", "b");
+        cache.getIfPresent("a");
+        cache.getIfPresent("c");
+
+        String metrics = CacheRegistry.exportMetrics();
+
+        assertTrue(metrics.contains("# TYPE finwave_cache_hits_total counter"));
+        assertTrue(metrics.contains("finwave_cache_size{cache=\"test.plain\"} 1"));
+        assertTrue(metrics.contains("finwave_cache_hits_total{cache=\"test.plain\"} 1"));
+        assertTrue(metrics.contains("finwave_cache_misses_total{cache=\"test.plain\"} 1"));
+    }
+}
@@ -0,0 +1,65 @@
+package app.finwave.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongLongHashMapTest {
+
+    @Test
+    void testPutGetRemove() {
+        LongLongHashMap map = new LongLongHashMap(4);
+
+        map.put(10, 1);
+        map.put(20, 2);
+        map.put(10, 3);
+
+        assertEquals(2, map.size());
+        assertEquals(3, map.get(10));
+        assertTrue(map.remove(10));
+        assertFalse(map.remove(10));
+        assertFalse(map.containsKey(10));
+        assertEquals(2, map.get(20));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void testRemoveKeepsProbeChains() {
+        LongLongHashMap map = new LongLongHashMap(8);
+        HashMap<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20000; i++) {
+            long key = random.nextInt(512);
+
+            if (random.nextBoolean()) {
+                map.put(key, i);
+                expected.put(key, (long) i);
+            }else {
+                assertEquals(expected.remove(key) != null, map.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+
+        for (long key = 0; key < 512; key++) {
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+            assertEquals(expected.getOrDefault(key, 0L).longValue(), map.get(key));
+        }
+    }
+
+    @Test
+    void testMapGrows() {
+        LongLongHashMap map = new LongLongHashMap(4);
+
+        for (long i = 0; i < 10_000; i++)
+            map.addTo(i * 31, i);
+
+        assertEquals(10_000, map.size());
+        assertEquals(9_999, map.get(9_999 * 31));
+        assertEquals(0, map.get(-5));
+    }
+}